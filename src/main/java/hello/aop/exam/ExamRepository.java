@@ -1,21 +1,37 @@
 package hello.aop.exam;
 
+import hello.aop.exam.annotation.Bulkhead;
+import hello.aop.exam.annotation.CircuitBreaker;
+import hello.aop.exam.annotation.Idempotent;
 import hello.aop.exam.annotation.Retry;
 import hello.aop.exam.annotation.Trace;
+import hello.aop.exam.store.ExamStore;
+import hello.aop.exam.store.FaultPolicy;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public class ExamRepository {
 
-    private int seq;
+    private final ExamStore store = new ExamStore();
+    private volatile FaultPolicy faultPolicy = FaultPolicy.everyNth(5);
 
     @Trace
-    @Retry(2)
+    @Idempotent(key = "#itemId")
+    @Retry(value = 2, initialDelay = 10, maxDelay = 100, group = "exam")
+    @CircuitBreaker
+    @Bulkhead(maxConcurrent = 50, maxWait = 100)
     public String save(String itemId) {
-        seq++;
-        if (seq % 5 == 0) {
-            throw new IllegalStateException("예외 발생");
-        }
+        faultPolicy.beforeSave(itemId);
+        store.save(itemId);
         return "ok";
     }
+
+    //저장된 적이 없으면 0
+    public long findVersion(String itemId) {
+        return store.version(itemId);
+    }
+
+    public void setFaultPolicy(FaultPolicy faultPolicy) {
+        this.faultPolicy = faultPolicy;
+    }
 }
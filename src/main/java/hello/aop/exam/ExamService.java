@@ -1,5 +1,7 @@
 package hello.aop.exam;
 
+import hello.aop.exam.annotation.Coalesce;
+import hello.aop.exam.annotation.Timeout;
 import hello.aop.exam.annotation.Trace;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
@@ -9,6 +11,8 @@ import org.springframework.stereotype.Service;
 public class ExamService {
     private final ExamRepository repository;
     @Trace
+    @Coalesce
+    @Timeout(1_000)
     public void request(String itemId) {
         repository.save(itemId);
     }
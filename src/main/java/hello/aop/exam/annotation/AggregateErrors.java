@@ -0,0 +1,14 @@
+package hello.aop.exam.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 예외를 매번 스택 트레이스와 함께 남기지 않고, 같은 원인의 예외는 윈도우마다 처음 한 번만 남기고 나머지는 횟수로 요약한다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface AggregateErrors {
+}
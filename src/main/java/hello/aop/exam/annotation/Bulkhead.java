@@ -0,0 +1,17 @@
+package hello.aop.exam.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Bulkhead {
+
+    //동시에 실행할 수 있는 최대 호출 수
+    int maxConcurrent() default 25;
+
+    //자리가 날 때까지 기다리는 최대 시간(ms), 0 이면 기다리지 않고 바로 거절한다.
+    long maxWait() default 0;
+}
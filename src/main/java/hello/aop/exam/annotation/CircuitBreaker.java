@@ -0,0 +1,26 @@
+package hello.aop.exam.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CircuitBreaker {
+
+    //window 안의 실패율(%)이 이 값 이상이면 열린다.
+    int failureRateThreshold() default 50;
+
+    //window 안의 호출 수가 이 값보다 적으면 실패율을 판단하지 않는다.
+    int minimumCalls() default 20;
+
+    //실패율을 계산하는 슬라이딩 윈도우 길이(ms)
+    long window() default 10_000;
+
+    //열린 상태를 유지하는 시간(ms), 지나면 반열림 상태로 시험 호출을 허용한다.
+    long openDuration() default 1_000;
+
+    //반열림 상태에서 허용하는 시험 호출 수, 모두 성공하면 닫힌다.
+    int halfOpenCalls() default 3;
+}
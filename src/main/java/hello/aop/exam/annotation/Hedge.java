@@ -0,0 +1,20 @@
+package hello.aop.exam.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 멱등한 조회에만 사용한다. 같은 호출이 동시에 여러 번 실행될 수 있다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Hedge {
+
+    //이 시간(ms) 안에 응답이 없으면 다음 시도를 시작한다. 0 이면 최근 응답 시간의 p95 를 사용한다.
+    long delay() default 0;
+
+    //첫 시도 외에 추가로 시작할 수 있는 최대 시도 수
+    int maxHedges() default 1;
+}
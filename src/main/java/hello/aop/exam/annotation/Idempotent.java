@@ -0,0 +1,20 @@
+package hello.aop.exam.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Idempotent {
+
+    //같은 호출을 구분하는 SpEL 표현식 (예: "#itemId", "#p0"), 비어 있으면 모든 인자를 키로 사용한다.
+    String key() default "";
+
+    //완료된 결과를 보관하는 시간(ms)
+    long ttl() default 60_000;
+
+    //메서드 별로 보관하는 최대 결과 수
+    int maxSize() default 10_000;
+}
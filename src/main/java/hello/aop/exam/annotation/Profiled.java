@@ -0,0 +1,17 @@
+package hello.aop.exam.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 호출마다 사용한 CPU 시간과 할당한 메모리를 메서드별로 집계한다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Profiled {
+
+    //호출 한 번에 이 바이트 수보다 많이 할당하면 예산 초과로 센다. 0 이면 검사하지 않는다.
+    long allocationBudget() default 0;
+}
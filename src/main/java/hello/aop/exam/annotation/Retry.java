@@ -9,4 +9,32 @@ import java.lang.annotation.Target;
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Retry {
     int value() default 3;
+
+    //첫 재시도 전 대기 시간(ms), 0 이면 대기 없이 바로 재시도한다.
+    long initialDelay() default 0;
+
+    //재시도 할 때마다 대기 시간에 곱하는 값
+    double multiplier() default 2.0;
+
+    //대기 시간의 상한(ms)
+    long maxDelay() default 1000;
+
+    Jitter jitter() default Jitter.FULL;
+
+    //재시도 예산을 함께 사용하는 그룹 이름, 비어 있으면 예산 없이 재시도한다.
+    String group() default "";
+
+    //그룹의 호출 수 대비 허용할 재시도 수 비율(%)
+    int budgetPercent() default 20;
+
+    /**
+     * 여러 호출자가 같은 시점에 재시도하지 않도록 대기 시간을 흩뜨리는 방법
+     * NONE: 지수 증가한 대기 시간을 그대로 사용한다.
+     * FULL: 0 ~ 대기 시간 사이의 임의 값
+     * EQUAL: 대기 시간의 절반 + 0 ~ 절반 사이의 임의 값
+     * DECORRELATED: initialDelay ~ 직전 대기 시간 * 3 사이의 임의 값
+     */
+    enum Jitter {
+        NONE, FULL, EQUAL, DECORRELATED
+    }
 }
@@ -0,0 +1,20 @@
+package hello.aop.exam.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 모든 호출을 로그로 남기지 않고, 느린 호출만 인자와 호출 트리를 함께 로그로 남긴다.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SlowCall {
+
+    //최근 응답 시간의 이 백분위보다 오래 걸리면 느린 호출로 본다.
+    double percentile() default 99;
+
+    //이 시간(ms) 이상 걸리면 백분위와 상관없이 느린 호출로 본다. 0 이면 사용하지 않는다.
+    long thresholdMillis() default 0;
+}
@@ -0,0 +1,14 @@
+package hello.aop.exam.annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Timeout {
+
+    //호출 제한 시간(ms), 바깥 호출의 남은 시간이 더 짧으면 그 시간을 따른다.
+    long value() default 1_000;
+}
@@ -5,7 +5,20 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
+/**
+ * 샘플링은 루트 호출에서 한 번만 정하고, 중첩된 @Trace 호출은 루트의 결정을 따른다.
+ * 샘플링되지 않은 루트 호출도 예외로 끝나거나 slowMillis 보다 오래 걸리면 루트 구간 하나를 기록한다.
+ */
 @Target(ElementType.METHOD)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Trace {
+
+    //루트 호출을 추적할 확률 (0.0 ~ 1.0)
+    double sampleRate() default 1.0;
+
+    //초당 추적하는 루트 호출 수 상한, 0 이면 제한하지 않는다.
+    int maxPerSecond() default 0;
+
+    //이 시간(ms)보다 오래 걸린 루트 호출은 샘플링되지 않았어도 기록한다. 0 이면 사용하지 않는다.
+    long slowMillis() default 0;
 }
@@ -0,0 +1,171 @@
+package hello.aop.exam.aop;
+
+import org.aopalliance.aop.Advice;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.AfterReturningAdvice;
+import org.springframework.aop.MethodBeforeAdvice;
+import org.springframework.aop.PointcutAdvisor;
+import org.springframework.aop.aspectj.AbstractAspectJAdvice;
+import org.springframework.aop.aspectj.AspectJAfterAdvice;
+import org.springframework.aop.aspectj.AspectJAfterThrowingAdvice;
+import org.springframework.aop.aspectj.AspectJAroundAdvice;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.Ordered;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 프록시의 @Aspect 어드바이스를 감싸서 {@link AdviceExecutionEvent} 를, 체인 끝에서 {@link TargetExecutionEvent} 를 남긴다.
+ * 애스펙트 코드를 고치지 않고 @Import 로 등록할 때만 적용된다.
+ * 프록시를 만든 뒤에 어드바이저를 바꿔야 하므로 가장 나중에 실행되는 BeanPostProcessor 로 둔다.
+ * 이벤트가 꺼져 있으면 (기본값) JFR 이 begin()/commit() 을 아무것도 하지 않는 코드로 두고,
+ * 이벤트 객체는 JIT 가 없애므로 감싼 인터셉터 호출 한 단계만 남는다.
+ */
+public class AdviceEventPostProcessor implements BeanPostProcessor, Ordered {
+
+    private static final Map<Method, String> signatures = new ConcurrentHashMap<>();
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof Advised advised) || advised.isFrozen()) {
+            return bean;
+        }
+        boolean wrapped = false;
+        for (Advisor advisor : advised.getAdvisors()) {
+            if (advisor instanceof PointcutAdvisor pointcutAdvisor
+                    && advisor.getAdvice() instanceof AbstractAspectJAdvice advice) {
+                advised.replaceAdvisor(advisor,
+                        new DefaultPointcutAdvisor(pointcutAdvisor.getPointcut(), new AdviceInterceptor(advice)));
+                wrapped = true;
+            }
+        }
+        if (wrapped) {
+            advised.addAdvisor(new DefaultPointcutAdvisor(new TargetInterceptor()));
+        }
+        return bean;
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.LOWEST_PRECEDENCE;
+    }
+
+    static String signatureOf(Method method) {
+        String signature = signatures.get(method);
+        if (signature == null) {
+            signature = signatures.computeIfAbsent(method, TraceAspect::render);
+        }
+        return signature;
+    }
+
+    private static String kindOf(AbstractAspectJAdvice advice) {
+        if (advice instanceof AspectJAroundAdvice) {
+            return "@Around";
+        }
+        if (advice instanceof MethodBeforeAdvice) {
+            return "@Before";
+        }
+        if (advice instanceof AfterReturningAdvice) {
+            return "@AfterReturning";
+        }
+        if (advice instanceof AspectJAfterThrowingAdvice) {
+            return "@AfterThrowing";
+        }
+        if (advice instanceof AspectJAfterAdvice) {
+            return "@After";
+        }
+        return advice.getClass().getSimpleName();
+    }
+
+    static final class AdviceInterceptor implements MethodInterceptor {
+
+        private final Advice advice;
+        private final String aspect;
+        private final String kind;
+        private final String adviceName;
+
+        AdviceInterceptor(AbstractAspectJAdvice advice) {
+            this.advice = advice;
+            this.aspect = advice.getAspectName();
+            this.kind = kindOf(advice);
+            this.adviceName = advice.getAspectJAdviceMethod().getName();
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            if (advice instanceof MethodBeforeAdvice before) {
+                AdviceExecutionEvent event = begin();
+                try {
+                    before.before(invocation.getMethod(), invocation.getArguments(), invocation.getThis());
+                } finally {
+                    commit(event, invocation);
+                }
+                return invocation.proceed();
+            }
+            if (advice instanceof AfterReturningAdvice afterReturning) {
+                Object result = invocation.proceed();
+                AdviceExecutionEvent event = begin();
+                try {
+                    afterReturning.afterReturning(result, invocation.getMethod(), invocation.getArguments(),
+                            invocation.getThis());
+                } finally {
+                    commit(event, invocation);
+                }
+                return result;
+            }
+            AdviceExecutionEvent event = begin();
+            try {
+                return ((MethodInterceptor) advice).invoke(invocation);
+            } finally {
+                commit(event, invocation);
+            }
+        }
+
+        private AdviceExecutionEvent begin() {
+            AdviceExecutionEvent event = new AdviceExecutionEvent();
+            event.begin();
+            return event;
+        }
+
+        private void commit(AdviceExecutionEvent event, MethodInvocation invocation) {
+            event.end();
+            if (event.shouldCommit()) {
+                event.aspect = aspect;
+                event.kind = kind;
+                event.advice = adviceName;
+                event.joinPoint = signatureOf(invocation.getMethod());
+                event.commit();
+            }
+        }
+    }
+
+    static final class TargetInterceptor implements MethodInterceptor {
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable {
+            TargetExecutionEvent event = new TargetExecutionEvent();
+            event.begin();
+            Throwable error = null;
+            try {
+                return invocation.proceed();
+            } catch (Throwable ex) {
+                error = ex;
+                throw ex;
+            } finally {
+                event.end();
+                if (event.shouldCommit()) {
+                    event.joinPoint = signatureOf(invocation.getMethod());
+                    event.outcome = error == null ? "OK" : "ERROR";
+                    event.exception = error == null ? null : error.getClass().getName();
+                    event.commit();
+                }
+            }
+        }
+    }
+}
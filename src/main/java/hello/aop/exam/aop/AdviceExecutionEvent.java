@@ -0,0 +1,38 @@
+package hello.aop.exam.aop;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 어드바이스 한 번의 실행 (JFR 이벤트)
+ * @Around, @After, @AfterThrowing 은 안쪽 어드바이스와 대상 실행을 포함한 시간이고,
+ * @Before, @AfterReturning 은 어드바이스 메서드만 실행한 시간이다.
+ * 기본으로 꺼져 있어서 녹화 설정에서 켜야 기록된다. (예: jfr configure +hello.aop.AdviceExecution#enabled=true)
+ */
+@Name(AdviceExecutionEvent.NAME)
+@Label("Advice Execution")
+@Category({"hello.aop", "AOP"})
+@Description("어드바이스 한 번의 실행")
+@Enabled(false)
+@StackTrace(false)
+public class AdviceExecutionEvent extends Event {
+
+    public static final String NAME = "hello.aop.AdviceExecution";
+
+    @Label("Aspect")
+    String aspect;
+
+    @Label("Kind")
+    String kind;
+
+    @Label("Advice")
+    String advice;
+
+    @Label("Join Point")
+    String joinPoint;
+}
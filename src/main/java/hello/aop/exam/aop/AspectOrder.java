@@ -0,0 +1,31 @@
+package hello.aop.exam.aop;
+
+/**
+ * exam 애스펙트들의 @Order 값, 작을수록 바깥쪽에서 실행된다.
+ * 호출 지표는 가장 바깥에서 호출자가 겪는 시간과 예외를 그대로 잰다.
+ * 동시 호출 합치기는 그 안쪽에서 실행되어서, 합류한 호출은 안쪽 애스펙트를 하나도 거치지 않는다.
+ * 멱등성 결과 재사용은 재시도를 포함한 호출 전체를 한 번의 실행으로 보고 그 안쪽에서 실행된다.
+ * 느린 호출 감지는 그 안쪽에서 재시도를 포함한 호출 전체의 시간을 잰다.
+ * 예외 집계는 그 안쪽에서 재시도를 모두 실패한 예외만 센다.
+ * 제한 시간은 그 안쪽에서 재시도를 포함한 호출 전체에 적용된다.
+ * 재시도의 각 시도가 서킷 브레이커를 통과하도록 RetryAspect 가 CircuitBreakerAspect 를 감싼다.
+ * 헤지는 서킷 브레이커 안쪽에서 시도들을 만들고, 벌크헤드는 대상 바로 바깥에 두어서
+ * 헤지 시도마다 자리를 잡고 재시도 대기 중에는 자리를 잡고 있지 않는다.
+ * 순서를 지정하지 않은 TraceAspect 는 가장 안쪽에서 시도마다 실행된다.
+ */
+public class AspectOrder {
+
+    public static final int TIMED = 0;
+    public static final int COALESCE = 10;
+    public static final int IDEMPOTENT = 20;
+    public static final int SLOW_CALL = 30;
+    public static final int ERROR_AGGREGATION = 40;
+    public static final int TIMEOUT = 50;
+    public static final int RETRY = 100;
+    public static final int CIRCUIT_BREAKER = 200;
+    public static final int HEDGE = 250;
+    public static final int BULKHEAD = 300;
+
+    private AspectOrder() {
+    }
+}
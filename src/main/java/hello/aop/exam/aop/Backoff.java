@@ -0,0 +1,38 @@
+package hello.aop.exam.aop;
+
+import hello.aop.exam.annotation.Retry;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * {@link Retry} 의 설정으로 다음 재시도 전 대기 시간(ms)을 계산한다.
+ */
+public class Backoff {
+
+    private Backoff() {
+    }
+
+    /**
+     * @param attempt       실패한 시도 횟수(1 부터 시작)
+     * @param previousDelay 직전 대기 시간, 첫 재시도라면 0
+     */
+    public static long nextDelay(Retry retry, int attempt, long previousDelay) {
+        long initialDelay = retry.initialDelay();
+        if (initialDelay <= 0) {
+            return 0;
+        }
+        long maxDelay = Math.max(initialDelay, retry.maxDelay());
+        long delay = (long) Math.min(maxDelay, initialDelay * Math.pow(retry.multiplier(), attempt - 1));
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        return switch (retry.jitter()) {
+            case NONE -> delay;
+            case FULL -> random.nextLong(delay + 1);
+            case EQUAL -> delay / 2 + random.nextLong(delay / 2 + 1);
+            case DECORRELATED -> {
+                long upper = Math.max(initialDelay, previousDelay) * 3;
+                yield Math.min(maxDelay, random.nextLong(initialDelay, upper + 1));
+            }
+        };
+    }
+}
@@ -0,0 +1,86 @@
+package hello.aop.exam.aop;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static hello.aop.exam.aop.BinaryTraceFormat.*;
+
+/**
+ * {@link BinaryTraceFormat} 으로 기록한다.
+ * 시그니처와 예외 이름은 처음 나올 때 사전 레코드로 한 번만 쓰고, 이벤트에는 id 만 쓴다.
+ * 이벤트 하나는 보통 10 ~ 20 바이트로, 같은 내용의 텍스트 줄(100 바이트 이상)보다 훨씬 작다.
+ */
+public class BinaryTraceEventWriter implements TraceEventWriter {
+
+    private static final int REGION_SIZE = 8 * 1024 * 1024;
+
+    private final MappedAppendFile file;
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final byte[] scratch = new byte[1 + MAX_VARINT_SIZE * 7];
+    private long previousStart;
+
+    public BinaryTraceEventWriter(Path path) throws IOException {
+        //마지막 레코드의 끝에서 이어 써야 정상 종료하지 못한 뒤에 쓴 세션도 읽을 수 있다.
+        this.file = new MappedAppendFile(path, REGION_SIZE, validLength(path));
+        if (file.position() == 0) {
+            file.put(MAGIC, 0, MAGIC.length);
+            file.put(VERSION);
+        }
+        writeSession();
+    }
+
+    @Override
+    public void write(TraceEvent event) throws IOException {
+        int signatureId = intern(event.getName());
+        int errorId = event.isError() ? intern(event.getError()) : 0;
+        int length = 0;
+        scratch[length++] = EVENT;
+        length = putVarLong(scratch, length, signatureId);
+        length = putVarLong(scratch, length, event.getThreadId());
+        length = putVarLong(scratch, length, event.getDepth());
+        length = putVarLong(scratch, length, zigzag(event.getStartNanos() - previousStart));
+        length = putVarLong(scratch, length, event.getDurationNanos());
+        length = putVarLong(scratch, length, event.getSelfNanos());
+        length = putVarLong(scratch, length, errorId);
+        file.put(scratch, 0, length);
+        previousStart = event.getStartNanos();
+    }
+
+    @Override
+    public void endBatch() {
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+
+    private void writeSession() throws IOException {
+        previousStart = System.nanoTime();
+        int length = 0;
+        scratch[length++] = SESSION;
+        length = putVarLong(scratch, length, System.currentTimeMillis());
+        length = putVarLong(scratch, length, zigzag(previousStart));
+        file.put(scratch, 0, length);
+    }
+
+    private int intern(String value) throws IOException {
+        Integer id = dictionary.get(value);
+        if (id != null) {
+            return id;
+        }
+        int newId = dictionary.size() + 1;
+        dictionary.put(value, newId);
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        int length = 0;
+        scratch[length++] = DICTIONARY;
+        length = putVarLong(scratch, length, newId);
+        length = putVarLong(scratch, length, bytes.length);
+        file.put(scratch, 0, length);
+        file.put(bytes, 0, bytes.length);
+        return newId;
+    }
+}
@@ -0,0 +1,164 @@
+package hello.aop.exam.aop;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * 바이너리 트레이스 파일 형식
+ *
+ * 파일 = 헤더("TRC" + 버전 1바이트) + 레코드들, 레코드는 타입 1바이트로 시작한다.
+ * SESSION    : epochMillis, baseNanos(zigzag)  - 쓰기를 시작할 때마다 기록, 사전과 이전 시작 시각을 초기화한다.
+ * DICTIONARY : id, 길이, UTF-8 바이트          - 시그니처, 예외 이름을 처음 쓸 때 한 번만 기록한다.
+ * EVENT      : signatureId, threadId, depth, startDelta(zigzag), durationNanos, selfNanos, errorId(없으면 0)
+ * 숫자는 모두 가변 길이(varint, 7비트씩 LEB128)로 기록하고, startDelta 는 직전 이벤트 시작 시각과의 차이다.
+ * 레코드 타입은 0 이 아니므로, 정상 종료하지 못해 0 으로 채워진 구간은 타입 자리에서 파일 끝으로 구분된다.
+ */
+final class BinaryTraceFormat {
+
+    static final byte[] MAGIC = {'T', 'R', 'C'};
+    static final byte VERSION = 1;
+    static final int HEADER_SIZE = MAGIC.length + 1;
+
+    static final byte SESSION = 1;
+    static final byte DICTIONARY = 2;
+    static final byte EVENT = 3;
+
+    //varint 하나의 최대 길이
+    static final int MAX_VARINT_SIZE = 10;
+
+    private BinaryTraceFormat() {
+    }
+
+    /**
+     * 파일 앞에서부터 온전하게 기록된 마지막 레코드의 끝 위치를 찾는다. 파일이 없거나 헤더도 쓰지 못했으면 0
+     * 정상 종료하지 못한 파일의 0 으로 채워진 구간과, 도중에 끊긴 마지막 레코드는 포함하지 않는다.
+     */
+    static long validLength(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        try (CountingInputStream in = new CountingInputStream(
+                new BufferedInputStream(Files.newInputStream(path), 64 * 1024))) {
+            byte[] header = in.readNBytes(HEADER_SIZE);
+            if (header.length == 0 || header[0] == 0) {
+                return 0;
+            }
+            if (header.length != HEADER_SIZE || !Arrays.equals(header, 0, MAGIC.length, MAGIC, 0, MAGIC.length)
+                    || header[MAGIC.length] != VERSION) {
+                throw new IOException("트레이스 파일이 아닙니다: " + path);
+            }
+            while (true) {
+                long end = in.count;
+                try {
+                    if (!skipRecord(in)) {
+                        return end;
+                    }
+                } catch (EOFException e) {
+                    return end;
+                }
+            }
+        }
+    }
+
+    //레코드 하나를 건너뛴다. 타입이 0 이거나 알 수 없으면 false
+    private static boolean skipRecord(InputStream in) throws IOException {
+        int type = in.read();
+        if (type < 0) {
+            throw new EOFException();
+        }
+        switch (type) {
+            case SESSION -> skipVarLongs(in, 2);
+            case DICTIONARY -> {
+                readVarLong(in);
+                long length = readVarLong(in);
+                if (length < 0) {
+                    return false;
+                }
+                in.skipNBytes(length);
+            }
+            case EVENT -> skipVarLongs(in, 7);
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void skipVarLongs(InputStream in, int count) throws IOException {
+        for (int i = 0; i < count; i++) {
+            readVarLong(in);
+        }
+    }
+
+    static int putVarLong(byte[] buffer, int offset, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buffer[offset++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buffer[offset++] = (byte) value;
+        return offset;
+    }
+
+    static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("varint 도중에 파일이 끝났습니다.");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("잘못된 varint");
+    }
+
+    static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    static long unzigzag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+
+        private long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count++;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int read = super.read(b, off, len);
+            if (read > 0) {
+                count += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count += skipped;
+            return skipped;
+        }
+    }
+}
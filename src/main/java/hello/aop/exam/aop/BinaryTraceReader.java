@@ -0,0 +1,100 @@
+package hello.aop.exam.aop;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static hello.aop.exam.aop.BinaryTraceFormat.*;
+
+/**
+ * {@link BinaryTraceFormat} 파일을 앞에서부터 스트리밍으로 읽는다.
+ * 사전과 세션 레코드는 내부에서 처리하고 이벤트만 돌려준다.
+ */
+public class BinaryTraceReader implements Closeable {
+
+    private final InputStream in;
+    private final List<String> dictionary = new ArrayList<>();
+    private long previousStart;
+
+    public BinaryTraceReader(Path path) throws IOException {
+        this.in = new BufferedInputStream(Files.newInputStream(path), 64 * 1024);
+        byte[] header = in.readNBytes(HEADER_SIZE);
+        if (header.length != HEADER_SIZE || !Arrays.equals(header, 0, MAGIC.length, MAGIC, 0, MAGIC.length)) {
+            in.close();
+            throw new IOException("트레이스 파일이 아닙니다: " + path);
+        }
+        if (header[MAGIC.length] != VERSION) {
+            in.close();
+            throw new IOException("지원하지 않는 버전입니다: " + header[MAGIC.length]);
+        }
+    }
+
+    /**
+     * 다음 이벤트를 record 에 채운다. 파일 끝이면 false
+     */
+    public boolean next(TraceRecord record) throws IOException {
+        while (true) {
+            int type = in.read();
+            //정상 종료하지 못한 파일은 매핑된 구간의 나머지가 0 으로 채워져 있다.
+            if (type <= 0) {
+                return false;
+            }
+            switch (type) {
+                case SESSION -> readSession();
+                case DICTIONARY -> readDictionary();
+                case EVENT -> {
+                    readEvent(record);
+                    return true;
+                }
+                default -> throw new IOException("알 수 없는 레코드 타입: " + type);
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private void readSession() throws IOException {
+        readVarLong(in);
+        previousStart = unzigzag(readVarLong(in));
+        dictionary.clear();
+    }
+
+    private void readDictionary() throws IOException {
+        int id = (int) readVarLong(in);
+        int length = (int) readVarLong(in);
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length != length || id != dictionary.size() + 1) {
+            throw new IOException("잘못된 사전 레코드: id=" + id);
+        }
+        dictionary.add(new String(bytes, StandardCharsets.UTF_8));
+    }
+
+    private void readEvent(TraceRecord record) throws IOException {
+        record.name = lookup(readVarLong(in));
+        record.threadId = readVarLong(in);
+        record.depth = (int) readVarLong(in);
+        record.startNanos = previousStart + unzigzag(readVarLong(in));
+        record.durationNanos = readVarLong(in);
+        record.selfNanos = readVarLong(in);
+        long errorId = readVarLong(in);
+        record.error = errorId == 0 ? null : lookup(errorId);
+        previousStart = record.startNanos;
+    }
+
+    private String lookup(long id) throws IOException {
+        if (id < 1 || id > dictionary.size()) {
+            throw new IOException("사전에 없는 id: " + id);
+        }
+        return dictionary.get((int) id - 1);
+    }
+}
@@ -0,0 +1,64 @@
+package hello.aop.exam.aop;
+
+import hello.aop.exam.annotation.Bulkhead;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.Order;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 조인 포인트(메서드) 마다 {@link BulkheadState} 를 두고 동시 실행 수를 제한한다.
+ * 느린 대상 하나가 요청 스레드를 모두 잡아먹지 않도록 maxWait 가 지나면 {@link BulkheadFullException} 으로 거절한다.
+ * CompletableFuture 를 반환하는 메서드는 future 가 완료될 때 자리를 반납한다.
+ */
+@Slf4j
+@Aspect
+@Order(AspectOrder.BULKHEAD)
+public class BulkheadAspect {
+
+    private final Map<Method, BulkheadState> states = new ConcurrentHashMap<>();
+
+    @Around("@annotation(bulkhead)")
+    public Object doBulkhead(ProceedingJoinPoint joinPoint, Bulkhead bulkhead) throws Throwable {
+        BulkheadState state = stateOf(joinPoint, bulkhead);
+        if (!state.tryAcquire()) {
+            log.debug("[bulkhead] {} rejected={} queueDepth={}", state.getName(), state.getRejected(), state.getQueueDepth());
+            throw new BulkheadFullException(state.getName());
+        }
+
+        boolean released = false;
+        try {
+            Object result = joinPoint.proceed();
+            if (result instanceof CompletableFuture<?> future) {
+                released = true;
+                return future.whenComplete((value, ex) -> state.release());
+            }
+            return result;
+        } finally {
+            if (!released) {
+                state.release();
+            }
+        }
+    }
+
+    public BulkheadState getState(Method method) {
+        return states.get(method);
+    }
+
+    private BulkheadState stateOf(ProceedingJoinPoint joinPoint, Bulkhead bulkhead) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        BulkheadState state = states.get(method);
+        if (state == null) {
+            state = states.computeIfAbsent(method,
+                    key -> new BulkheadState(joinPoint.getSignature().toShortString(), bulkhead));
+        }
+        return state;
+    }
+}
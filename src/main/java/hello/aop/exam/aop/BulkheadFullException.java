@@ -0,0 +1,17 @@
+package hello.aop.exam.aop;
+
+/**
+ * 벌크헤드에 자리가 없어서 maxWait 안에 실행하지 못했다.
+ * 과부하 상황에서 대량으로 발생하므로 스택 트레이스를 만들지 않는다.
+ */
+public class BulkheadFullException extends FailFastException {
+
+    public BulkheadFullException(String name) {
+        super("벌크헤드 가득 참: " + name);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,82 @@
+package hello.aop.exam.aop;
+
+import hello.aop.exam.annotation.Bulkhead;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 조인 포인트 하나의 동시 실행 제한
+ * 대기는 {@link Semaphore#tryAcquire(long, TimeUnit)} 로 LockSupport.park 를 사용한다.
+ * synchronized 모니터를 잡고 기다리지 않기 때문에 가상 스레드에서도 캐리어 스레드를 붙잡지 않는다.
+ * 현재 {@link Deadline} 이 있으면 남은 시간보다 오래 기다리지 않는다.
+ */
+public class BulkheadState {
+
+    private final String name;
+    private final int maxConcurrent;
+    private final long maxWaitNanos;
+    private final Semaphore permits;
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    public BulkheadState(String name, Bulkhead bulkhead) {
+        this.name = name;
+        this.maxConcurrent = bulkhead.maxConcurrent();
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(bulkhead.maxWait());
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    /**
+     * 자리를 얻으면 true, maxWait 안에 얻지 못하면 거절 수를 기록하고 false 를 반환한다.
+     */
+    public boolean tryAcquire() throws InterruptedException {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        long waitNanos = waitNanos();
+        if (waitNanos > 0) {
+            waiting.incrementAndGet();
+            try {
+                if (permits.tryAcquire(waitNanos, TimeUnit.NANOSECONDS)) {
+                    return true;
+                }
+            } finally {
+                waiting.decrementAndGet();
+            }
+        }
+        rejected.increment();
+        return false;
+    }
+
+    private long waitNanos() {
+        Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            return maxWaitNanos;
+        }
+        return Math.min(maxWaitNanos, deadline.remainingNanos());
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getActive() {
+        return maxConcurrent - permits.availablePermits();
+    }
+
+    //자리가 나기를 기다리고 있는 호출 수
+    public int getQueueDepth() {
+        return waiting.get();
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,83 @@
+package hello.aop.exam.aop;
+
+import hello.aop.exam.annotation.CircuitBreaker;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.Order;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 조인 포인트(메서드) 마다 {@link CircuitBreakerState} 를 두고, 열려 있으면 joinPoint.proceed() 없이 바로 실패한다.
+ * {@link RetryAspect} 안쪽에서 실행되므로 재시도의 각 시도가 실패율에 반영되고,
+ * 열린 뒤에는 {@link CircuitBreakerOpenException} 을 받은 RetryAspect 가 더 이상 재시도하지 않는다.
+ * 안쪽 애스펙트의 거절({@link FailFastException})은 대상의 실패가 아니므로 실패율에 반영하지 않고 시험 호출 허가만 반납한다.
+ */
+@Slf4j
+@Aspect
+@Order(AspectOrder.CIRCUIT_BREAKER)
+public class CircuitBreakerAspect {
+
+    private final Map<Method, CircuitBreakerState> states = new ConcurrentHashMap<>();
+
+    @Around("@annotation(circuitBreaker)")
+    public Object doCircuitBreak(ProceedingJoinPoint joinPoint, CircuitBreaker circuitBreaker) throws Throwable {
+        CircuitBreakerState state = stateOf(joinPoint, circuitBreaker);
+        if (!state.tryAcquirePermission()) {
+            throw new CircuitBreakerOpenException(state.getName());
+        }
+
+        Object result;
+        try {
+            result = joinPoint.proceed();
+        } catch (FailFastException e) {
+            state.releasePermission();
+            throw e;
+        } catch (Throwable e) {
+            //Error 도 결과로 기록해야 HALF_OPEN 의 시험 호출 허가가 반납된다.
+            state.onFailure();
+            throw e;
+        }
+        if (result instanceof CompletableFuture<?> future) {
+            return future.whenComplete((value, ex) -> {
+                if (ex == null) {
+                    state.onSuccess();
+                } else if (unwrap(ex) instanceof FailFastException) {
+                    state.releasePermission();
+                } else {
+                    state.onFailure();
+                }
+            });
+        }
+        state.onSuccess();
+        return result;
+    }
+
+    public CircuitBreakerState getState(Method method) {
+        return states.get(method);
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        if (ex instanceof CompletionException && ex.getCause() != null) {
+            return ex.getCause();
+        }
+        return ex;
+    }
+
+    private CircuitBreakerState stateOf(ProceedingJoinPoint joinPoint, CircuitBreaker circuitBreaker) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        CircuitBreakerState state = states.get(method);
+        if (state == null) {
+            state = states.computeIfAbsent(method,
+                    key -> new CircuitBreakerState(joinPoint.getSignature().toShortString(), circuitBreaker));
+        }
+        return state;
+    }
+}
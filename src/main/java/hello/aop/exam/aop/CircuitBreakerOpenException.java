@@ -0,0 +1,17 @@
+package hello.aop.exam.aop;
+
+/**
+ * 서킷 브레이커가 열려 있어서 대상을 호출하지 않았다.
+ * 열린 동안에는 모든 호출이 이 예외로 바로 실패하므로 스택 트레이스를 만들지 않는다.
+ */
+public class CircuitBreakerOpenException extends FailFastException {
+
+    public CircuitBreakerOpenException(String name) {
+        super("서킷 브레이커 열림: " + name);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
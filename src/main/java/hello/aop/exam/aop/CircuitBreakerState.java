@@ -0,0 +1,165 @@
+package hello.aop.exam.aop;
+
+import hello.aop.exam.annotation.CircuitBreaker;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 조인 포인트 하나의 서킷 브레이커 상태
+ * 상태와 열린 시각, 반열림 시험 호출 수를 불변 {@link Phase} 하나로 묶어서 CAS 한 번으로 전이한다.
+ * 실패율은 {@link SlidingWindowCounter} 로 최근 window 동안만 계산한다.
+ */
+@Slf4j
+public class CircuitBreakerState {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private static final int CALLS = 0;
+    private static final int FAILURES = 1;
+
+    private final String name;
+    private final int failureRateThreshold;
+    private final int minimumCalls;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final SlidingWindowCounter window;
+    private final AtomicReference<Phase> phase = new AtomicReference<>(Phase.closed());
+    private final LongAdder rejected = new LongAdder();
+
+    public CircuitBreakerState(String name, CircuitBreaker circuitBreaker) {
+        this.name = name;
+        this.failureRateThreshold = circuitBreaker.failureRateThreshold();
+        this.minimumCalls = circuitBreaker.minimumCalls();
+        this.openNanos = Duration.ofMillis(circuitBreaker.openDuration()).toNanos();
+        this.halfOpenCalls = circuitBreaker.halfOpenCalls();
+        this.window = new SlidingWindowCounter(2, 10, Duration.ofMillis(circuitBreaker.window()));
+    }
+
+    /**
+     * 대상을 호출해도 되는지 판단한다. false 면 호출하지 않고 바로 실패해야 한다.
+     */
+    public boolean tryAcquirePermission() {
+        Phase current = phase.get();
+        if (current.state == State.CLOSED) {
+            return true;
+        }
+        if (current.state == State.OPEN) {
+            if (System.nanoTime() - current.openedAt < openNanos) {
+                rejected.increment();
+                return false;
+            }
+            if (phase.compareAndSet(current, Phase.halfOpen(halfOpenCalls))) {
+                log.info("[circuit] {} OPEN -> HALF_OPEN", name);
+            }
+            current = phase.get();
+            if (current.state == State.CLOSED) {
+                return true;
+            }
+        }
+        if (current.state == State.HALF_OPEN && current.acquireTrial()) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    public void onSuccess() {
+        Phase current = phase.get();
+        if (current.state == State.HALF_OPEN) {
+            if (current.successes.incrementAndGet() >= halfOpenCalls && phase.compareAndSet(current, Phase.closed())) {
+                window.reset();
+                log.info("[circuit] {} HALF_OPEN -> CLOSED", name);
+            }
+            return;
+        }
+        window.increment(CALLS);
+    }
+
+    public void onFailure() {
+        Phase current = phase.get();
+        if (current.state == State.HALF_OPEN) {
+            open(current);
+            return;
+        }
+        if (current.state == State.OPEN) {
+            return;
+        }
+        window.increment(CALLS);
+        window.increment(FAILURES);
+        long calls = window.sum(CALLS);
+        if (calls >= minimumCalls && window.sum(FAILURES) * 100 >= calls * failureRateThreshold) {
+            open(current);
+        }
+    }
+
+    /**
+     * 허가를 받았지만 결과를 기록하지 않고 끝난 호출의 허가를 돌려준다. (반열림 상태의 시험 호출 수만 되돌린다)
+     */
+    public void releasePermission() {
+        Phase current = phase.get();
+        if (current.state == State.HALF_OPEN) {
+            current.trials.incrementAndGet();
+        }
+    }
+
+    private void open(Phase from) {
+        if (phase.compareAndSet(from, Phase.open(System.nanoTime()))) {
+            log.warn("[circuit] {} {} -> OPEN", name, from.state);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public State getState() {
+        return phase.get().state;
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    private static class Phase {
+        private final State state;
+        private final long openedAt;
+        private final AtomicInteger trials;
+        private final AtomicInteger successes;
+
+        private Phase(State state, long openedAt, int trials) {
+            this.state = state;
+            this.openedAt = openedAt;
+            this.trials = new AtomicInteger(trials);
+            this.successes = new AtomicInteger();
+        }
+
+        private static Phase closed() {
+            return new Phase(State.CLOSED, 0, 0);
+        }
+
+        private static Phase open(long openedAt) {
+            return new Phase(State.OPEN, openedAt, 0);
+        }
+
+        private static Phase halfOpen(int trials) {
+            return new Phase(State.HALF_OPEN, 0, trials);
+        }
+
+        private boolean acquireTrial() {
+            int remaining;
+            do {
+                remaining = trials.get();
+                if (remaining <= 0) {
+                    return false;
+                }
+            } while (!trials.compareAndSet(remaining, remaining - 1));
+            return true;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package hello.aop.exam.aop;
+
+import hello.aop.exam.annotation.Coalesce;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.Order;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 같은 메서드, 같은 인자로 동시에 들어온 호출을 {@link SingleFlight} 로 합친다.
+ * 복원력 애스펙트 중에서는 가장 바깥에서 실행되어서, 합류한 호출은 제한 시간, 재시도, 트레이스 등 안쪽 애스펙트를 거치지 않는다.
+ * 지표를 남기는 {@link TimedAspect} 는 이보다 바깥이므로 합류한 호출도 각자 한 번씩 기록된다.
+ * 합류한 호출은 현재 {@link Deadline} 까지만 기다린다.
+ */
+@Slf4j
+@Aspect
+@Order(AspectOrder.COALESCE)
+public class CoalesceAspect {
+
+    private final Map<Method, SingleFlight> flights = new ConcurrentHashMap<>();
+
+    @Around("@annotation(coalesce)")
+    public Object doCoalesce(ProceedingJoinPoint joinPoint, Coalesce coalesce) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        SingleFlight flight = flightOf(method);
+        InvocationKey key = new InvocationKey(method, joinPoint.getArgs());
+
+        CompletableFuture<Object> mine = new CompletableFuture<>();
+        CompletableFuture<Object> leader = flight.join(key, mine);
+        if (leader != null) {
+            log.debug("[coalesce] {} join in-flight call", joinPoint.getSignature());
+            return await(leader, joinPoint);
+        }
+        try {
+            Object result = joinPoint.proceed();
+            flight.complete(key, mine, result);
+            return result;
+        } catch (Throwable e) {
+            flight.fail(key, mine, e);
+            throw e;
+        }
+    }
+
+    public SingleFlight getFlight(Method method) {
+        return flights.get(method);
+    }
+
+    private Object await(CompletableFuture<Object> leader, ProceedingJoinPoint joinPoint) throws Throwable {
+        try {
+            Deadline deadline = Deadline.current();
+            if (deadline == null) {
+                return leader.get();
+            }
+            return leader.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException(joinPoint.getSignature().toShortString());
+        }
+    }
+
+    private SingleFlight flightOf(Method method) {
+        SingleFlight flight = flights.get(method);
+        if (flight == null) {
+            flight = flights.computeIfAbsent(method, key -> new SingleFlight(key.toGenericString()));
+        }
+        return flight;
+    }
+}
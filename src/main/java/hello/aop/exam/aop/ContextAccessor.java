@@ -0,0 +1,18 @@
+package hello.aop.exam.aop;
+
+/**
+ * 스레드에 묶인 컨텍스트 값 하나를 {@link ContextSnapshot} 으로 옮기는 방법
+ *
+ * @param <T> 옮기는 값, 다른 스레드에서 읽어도 안전한 불변 값이어야 한다.
+ */
+public interface ContextAccessor<T> {
+
+    //현재 스레드의 값, 없으면 null
+    T capture();
+
+    //현재 스레드에 값을 연결하고 이전 값을 반환한다.
+    T attach(T value);
+
+    //attach 가 반환한 이전 값으로 되돌린다.
+    void restore(T previous);
+}
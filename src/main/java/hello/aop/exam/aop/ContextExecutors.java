@@ -0,0 +1,95 @@
+package hello.aop.exam.aop;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 작업을 넘길 때 {@link ContextSnapshot} 을 만들고, 실행하는 스레드에서 연결했다가 끝나면 되돌리는 executor
+ * CompletableFuture.supplyAsync(task, executor) 처럼 executor 를 받는 곳에 그대로 넘기면 된다.
+ */
+@Slf4j
+public final class ContextExecutors {
+
+    private ContextExecutors() {
+    }
+
+    public static Executor wrap(Executor delegate) {
+        return task -> delegate.execute(ContextSnapshot.capture().wrap(task));
+    }
+
+    public static ExecutorService wrap(ExecutorService delegate) {
+        return new ContextPropagatingExecutorService(delegate);
+    }
+
+    /**
+     * 작업마다 스레드 하나를 쓰는 executor
+     * 가상 스레드를 지원하는 JVM(21 이상)이면 Executors.newVirtualThreadPerTaskExecutor() 를 사용하고,
+     * 아니면 작업이 끝나면 바로 사라지는 플랫폼 데몬 스레드를 사용한다.
+     * 컴파일 대상이 Java 17 이라서 가상 스레드 API 는 리플렉션으로 찾는다.
+     */
+    public static ExecutorService newVirtualThreadPerTaskExecutor() {
+        return wrap(threadPerTaskExecutor());
+    }
+
+    private static ExecutorService threadPerTaskExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            log.debug("[context] virtual threads not available, use platform thread per task: {}", e.toString());
+            return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 0, TimeUnit.SECONDS, new SynchronousQueue<>(),
+                    Schedulers.daemonThreadFactory("aop-task"));
+        }
+    }
+
+    /**
+     * submit, invokeAll 등은 AbstractExecutorService 가 execute 로 넘기므로 execute 에서만 감싸면 된다.
+     */
+    private static final class ContextPropagatingExecutorService extends AbstractExecutorService {
+
+        private final ExecutorService delegate;
+
+        private ContextPropagatingExecutorService(ExecutorService delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void execute(Runnable command) {
+            delegate.execute(ContextSnapshot.capture().wrap(command));
+        }
+
+        @Override
+        public void shutdown() {
+            delegate.shutdown();
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            return delegate.shutdownNow();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return delegate.isShutdown();
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return delegate.isTerminated();
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+            return delegate.awaitTermination(timeout, unit);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package hello.aop.exam.aop;
+
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+
+/**
+ * 작업을 다른 스레드로 넘길 때 현재 스레드의 컨텍스트({@link Deadline}, 트레이스 등)를 담아 두는 불변 스냅샷
+ * 등록된 {@link ContextAccessor} 마다 값 하나씩 배열에 담는다. 맵을 복사하지 않고,
+ * 담을 값이 하나도 없으면 할당 없이 EMPTY 를 반환한다.
+ * 새 컨텍스트는 {@link #register(ContextAccessor)} 로 추가한다. (스냅샷은 만들 때의 accessor 목록을 함께 기억한다)
+ */
+public final class ContextSnapshot {
+
+    public static final ContextAccessor<Deadline> DEADLINE = new ContextAccessor<>() {
+        @Override
+        public Deadline capture() {
+            return Deadline.current();
+        }
+
+        @Override
+        public Deadline attach(Deadline value) {
+            return Deadline.attach(value);
+        }
+
+        @Override
+        public void restore(Deadline previous) {
+            Deadline.restore(previous);
+        }
+    };
+
+    public static final ContextAccessor<Object> TRACE = new ContextAccessor<>() {
+        @Override
+        public Object capture() {
+            TraceContext context = TraceContext.peek();
+            return context == null ? null : context.capture();
+        }
+
+        @Override
+        public Object attach(Object value) {
+            return TraceContext.current().attachRemote(value);
+        }
+
+        @Override
+        public void restore(Object previous) {
+            TraceContext.current().attachRemote(previous);
+        }
+    };
+
+    private static final ContextSnapshot EMPTY = new ContextSnapshot(new ContextAccessor<?>[0], new Object[0]);
+    private static volatile ContextAccessor<?>[] accessors = {DEADLINE, TRACE};
+
+    private final ContextAccessor<?>[] capturedAccessors;
+    private final Object[] values;
+
+    private ContextSnapshot(ContextAccessor<?>[] capturedAccessors, Object[] values) {
+        this.capturedAccessors = capturedAccessors;
+        this.values = values;
+    }
+
+    public static synchronized void register(ContextAccessor<?> accessor) {
+        ContextAccessor<?>[] current = accessors;
+        ContextAccessor<?>[] next = Arrays.copyOf(current, current.length + 1);
+        next[current.length] = accessor;
+        accessors = next;
+    }
+
+    public static ContextSnapshot capture() {
+        ContextAccessor<?>[] current = accessors;
+        Object[] values = null;
+        for (int i = 0; i < current.length; i++) {
+            Object value = current[i].capture();
+            if (value != null) {
+                if (values == null) {
+                    values = new Object[current.length];
+                }
+                values[i] = value;
+            }
+        }
+        return values == null ? EMPTY : new ContextSnapshot(current, values);
+    }
+
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+
+    //스냅샷에 담긴 값, 없으면 null
+    @SuppressWarnings("unchecked")
+    public <T> T get(ContextAccessor<T> accessor) {
+        for (int i = 0; i < capturedAccessors.length; i++) {
+            if (capturedAccessors[i] == accessor) {
+                return (T) values[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 현재 스레드에 스냅샷의 값들을 연결한다. 반환한 Scope 를 닫으면 이전 값으로 되돌린다.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Scope attach() {
+        if (isEmpty()) {
+            return Scope.NOOP;
+        }
+        Object[] previous = new Object[values.length];
+        for (int i = 0; i < capturedAccessors.length; i++) {
+            previous[i] = ((ContextAccessor) capturedAccessors[i]).attach(values[i]);
+        }
+        return () -> {
+            for (int i = capturedAccessors.length - 1; i >= 0; i--) {
+                ((ContextAccessor) capturedAccessors[i]).restore(previous[i]);
+            }
+        };
+    }
+
+    public Runnable wrap(Runnable task) {
+        if (isEmpty()) {
+            return task;
+        }
+        return () -> {
+            try (Scope ignored = attach()) {
+                task.run();
+            }
+        };
+    }
+
+    public <V> Callable<V> wrap(Callable<V> task) {
+        if (isEmpty()) {
+            return task;
+        }
+        return () -> {
+            try (Scope ignored = attach()) {
+                return task.call();
+            }
+        };
+    }
+
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+
+        Scope NOOP = () -> {
+        };
+
+        @Override
+        void close();
+    }
+}
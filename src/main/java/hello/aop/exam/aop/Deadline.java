@@ -0,0 +1,64 @@
+package hello.aop.exam.aop;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 호출 하나에 허용된 마감 시각
+ * 현재 스레드에 연결된 데드라인은 안쪽의 어드바이스가 함께 사용한다.
+ * {@link TimeoutAspect} 가 연결하고, {@link RetryAspect} 는 남은 시간 안에 재시도 할 수 없으면 멈추고,
+ * {@link BulkheadState} 는 남은 시간보다 오래 기다리지 않는다.
+ * 다른 스레드로 넘어가는 호출은 {@link DetachedJoinPoint}, {@link ContextExecutors} 가 {@link ContextSnapshot} 으로 데드라인을 옮겨 준다.
+ */
+public class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final long deadlineNanos;
+
+    private Deadline(long deadlineNanos) {
+        this.deadlineNanos = deadlineNanos;
+    }
+
+    public static Deadline after(long timeout, TimeUnit unit) {
+        return new Deadline(System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    /**
+     * @return 현재 스레드의 데드라인, 없으면 null
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 현재 스레드에 데드라인을 연결하고 이전 값을 반환한다. 끝나면 반드시 {@link #restore(Deadline)} 해야 한다.
+     */
+    public static Deadline attach(Deadline deadline) {
+        Deadline previous = CURRENT.get();
+        CURRENT.set(deadline);
+        return previous;
+    }
+
+    public static void restore(Deadline previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    public long remainingNanos() {
+        return deadlineNanos - System.nanoTime();
+    }
+
+    public boolean isExpired() {
+        return remainingNanos() <= 0;
+    }
+
+    public Deadline earlier(Deadline other) {
+        if (other == null) {
+            return this;
+        }
+        return other.deadlineNanos - deadlineNanos < 0 ? other : this;
+    }
+}
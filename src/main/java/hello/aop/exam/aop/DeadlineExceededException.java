@@ -0,0 +1,11 @@
+package hello.aop.exam.aop;
+
+/**
+ * 데드라인이 지나서 호출을 끝내지 못했거나, 시작하지 않았다.
+ */
+public class DeadlineExceededException extends FailFastException {
+
+    public DeadlineExceededException(String name) {
+        super("데드라인 초과: " + name);
+    }
+}
@@ -0,0 +1,124 @@
+package hello.aop.exam.aop;
+
+import org.aopalliance.intercept.MethodInvocation;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
+
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+
+/**
+ * 다른 스레드에서 joinPoint.proceed() 를 호출할 수 있게 한다.
+ *
+ * 스프링 AOP 는 프록시 호출이 시작될 때 ExposeInvocationInterceptor 가 현재 MethodInvocation 을 ThreadLocal 에 보관하고,
+ * 체인 안쪽의 @Before, @After 같은 어드바이스는 이 값으로 JoinPoint 를 만든다.
+ * 스케줄러나 executor 스레드에는 이 값이 없기 때문에 그냥 proceed() 하면 안쪽 어드바이스에서 "No MethodInvocation found" 예외가 발생한다.
+ * 생성한 스레드의 MethodInvocation 을 기억해 두었다가, proceed() 하는 스레드에 다시 노출한다.
+ * 생성한 스레드의 컨텍스트({@link ContextSnapshot}: 데드라인, 트레이스 등)도 함께 옮겨서
+ * 다른 스레드에서 실행되는 안쪽 호출도 같은 데드라인을 사용하고 같은 호출 트리에 이어진다.
+ */
+public class DetachedJoinPoint {
+
+    private final ProceedingJoinPoint joinPoint;
+    private final ProxyMethodInvocation invocation;
+    private final ContextSnapshot context;
+
+    private DetachedJoinPoint(ProceedingJoinPoint joinPoint, ProxyMethodInvocation invocation, ContextSnapshot context) {
+        this.joinPoint = joinPoint;
+        this.invocation = invocation;
+        this.context = context;
+    }
+
+    public static DetachedJoinPoint of(ProceedingJoinPoint joinPoint) {
+        MethodInvocation current = currentInvocation();
+        ProxyMethodInvocation invocation = current instanceof ProxyMethodInvocation pmi ? pmi : null;
+        return new DetachedJoinPoint(joinPoint, invocation, ContextSnapshot.capture());
+    }
+
+    public ProceedingJoinPoint getJoinPoint() {
+        return joinPoint;
+    }
+
+    public Deadline getDeadline() {
+        return context.get(ContextSnapshot.DEADLINE);
+    }
+
+    public Object proceed() throws Throwable {
+        try (ContextSnapshot.Scope ignored = context.attach()) {
+            if (invocation == null || currentInvocation() != null) {
+                return joinPoint.proceed();
+            }
+            return ExposeInvocationInterceptor.INSTANCE.invoke(new ExposedInvocation());
+        }
+    }
+
+    private static MethodInvocation currentInvocation() {
+        try {
+            return ExposeInvocationInterceptor.currentInvocation();
+        } catch (IllegalStateException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 안쪽 어드바이스에게는 원래 MethodInvocation 으로 보이고, proceed() 는 joinPoint 로 위임한다.
+     */
+    private class ExposedInvocation implements ProxyMethodInvocation {
+
+        @Override
+        public Object proceed() throws Throwable {
+            return joinPoint.proceed();
+        }
+
+        @Override
+        public Object getProxy() {
+            return invocation.getProxy();
+        }
+
+        @Override
+        public MethodInvocation invocableClone() {
+            return invocation.invocableClone();
+        }
+
+        @Override
+        public MethodInvocation invocableClone(Object... arguments) {
+            return invocation.invocableClone(arguments);
+        }
+
+        @Override
+        public void setArguments(Object... arguments) {
+            invocation.setArguments(arguments);
+        }
+
+        @Override
+        public void setUserAttribute(String key, Object value) {
+            invocation.setUserAttribute(key, value);
+        }
+
+        @Override
+        public Object getUserAttribute(String key) {
+            return invocation.getUserAttribute(key);
+        }
+
+        @Override
+        public Method getMethod() {
+            return invocation.getMethod();
+        }
+
+        @Override
+        public Object[] getArguments() {
+            return invocation.getArguments();
+        }
+
+        @Override
+        public Object getThis() {
+            return invocation.getThis();
+        }
+
+        @Override
+        public AccessibleObject getStaticPart() {
+            return invocation.getStaticPart();
+        }
+    }
+}
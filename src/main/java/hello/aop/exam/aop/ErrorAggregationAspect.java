@@ -0,0 +1,36 @@
+package hello.aop.exam.aop;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.annotation.AfterThrowing;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+
+/**
+ * 메서드를 빠져나가는 예외를 {@link ErrorAggregator} 로 모은다.
+ * 지문별로 윈도우의 첫 예외만 스택 트레이스와 함께 남기고, 나머지는 집계기가 윈도우마다 요약한다.
+ * 재시도 바깥에서 실행되어서 재시도를 모두 실패한 예외만 센다.
+ */
+@Slf4j
+@Aspect
+@Order(AspectOrder.ERROR_AGGREGATION)
+public class ErrorAggregationAspect {
+
+    private volatile ErrorAggregator aggregator = ErrorAggregator.shared();
+
+    @AfterThrowing(value = "@annotation(hello.aop.exam.annotation.AggregateErrors)", throwing = "ex")
+    public void doAggregate(JoinPoint joinPoint, Throwable ex) {
+        ErrorFingerprint fingerprint = ErrorFingerprint.of(ex);
+        if (aggregator.record(fingerprint)) {
+            log.error("[error] {} id={} message={}", joinPoint.getSignature(), fingerprint.getId(), ex.getMessage(), ex);
+        }
+    }
+
+    public ErrorAggregator getAggregator() {
+        return aggregator;
+    }
+
+    public void setAggregator(ErrorAggregator aggregator) {
+        this.aggregator = aggregator;
+    }
+}
@@ -0,0 +1,165 @@
+package hello.aop.exam.aop;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 예외를 {@link ErrorFingerprint} 별로 센다.
+ * record() 는 윈도우마다 지문별로 처음 발생한 예외에만 true 를 반환하고, 호출한 쪽은 그때만 스택 트레이스를 남긴다.
+ * 나머지는 횟수만 세었다가 윈도우가 끝날 때 flush() 가 지문별 요약 한 줄로 남긴다.
+ * 한 윈도우 동안 발생하지 않은 지문은 idleWindows 만큼 지나면 지운다.
+ * 지문 종류가 maxEntries 를 넘으면 새 지문은 따로 저장하지 않고 기타 횟수로만 센다.
+ */
+@Slf4j
+public class ErrorAggregator {
+
+    private static final class SharedHolder {
+        private static final ErrorAggregator SHARED = new ErrorAggregator("shared", 1, TimeUnit.MINUTES).start();
+    }
+
+    private final String name;
+    private final long windowNanos;
+    private final int maxEntries;
+    private final int idleWindows;
+    private final Map<ErrorFingerprint, Entry> entries = new ConcurrentHashMap<>();
+    private final LongAdder overflow = new LongAdder();
+    private final AtomicLong window = new AtomicLong();
+    private volatile ScheduledFuture<?> flushTask;
+
+    public ErrorAggregator(String name, long window, TimeUnit unit) {
+        this(name, window, unit, 1_000, 10);
+    }
+
+    public ErrorAggregator(String name, long window, TimeUnit unit, int maxEntries, int idleWindows) {
+        if (window <= 0 || maxEntries <= 0 || idleWindows <= 0) {
+            throw new IllegalArgumentException("window, maxEntries, idleWindows must be positive");
+        }
+        this.name = name;
+        this.windowNanos = unit.toNanos(window);
+        this.maxEntries = maxEntries;
+        this.idleWindows = idleWindows;
+    }
+
+    /**
+     * 애스펙트들이 함께 사용하는 1분 윈도우 집계기
+     */
+    public static ErrorAggregator shared() {
+        return SharedHolder.SHARED;
+    }
+
+    /**
+     * 윈도우마다 {@link Schedulers#shared()} 에서 flush() 를 실행한다.
+     */
+    public synchronized ErrorAggregator start() {
+        if (flushTask == null) {
+            flushTask = Schedulers.shared().scheduleAtFixedRate(
+                    this::flush, windowNanos, windowNanos, TimeUnit.NANOSECONDS);
+        }
+        return this;
+    }
+
+    public synchronized void stop() {
+        if (flushTask != null) {
+            flushTask.cancel(false);
+            flushTask = null;
+        }
+    }
+
+    /**
+     * @return 현재 윈도우에서 이 지문의 첫 예외이면 true
+     */
+    public boolean record(ErrorFingerprint fingerprint) {
+        Entry entry = entries.get(fingerprint);
+        if (entry == null) {
+            if (entries.size() >= maxEntries) {
+                overflow.increment();
+                return false;
+            }
+            entry = entries.computeIfAbsent(fingerprint, Entry::new);
+        }
+        entry.windowCount.increment();
+        entry.total.increment();
+        long current = window.get();
+        long reported = entry.reportedWindow.get();
+        return reported != current && entry.reportedWindow.compareAndSet(reported, current);
+    }
+
+    /**
+     * 지난 윈도우의 지문별 횟수를 요약으로 남기고 다음 윈도우를 시작한다.
+     * 첫 예외만 발생한 지문은 이미 스택 트레이스로 남겼으므로 요약하지 않는다.
+     */
+    public synchronized void flush() {
+        long closed = window.getAndIncrement();
+        List<String> lines = new ArrayList<>();
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            long count = entry.windowCount.sumThenReset();
+            if (count == 0) {
+                if (++entry.idle >= idleWindows) {
+                    iterator.remove();
+                }
+                continue;
+            }
+            entry.idle = 0;
+            if (count > 1 || entry.reportedWindow.get() != closed) {
+                lines.add(String.format("id=%s count=%d total=%d %s",
+                        entry.fingerprint.getId(), count, entry.total.sum(), entry.fingerprint));
+            }
+        }
+        long overflowCount = overflow.sumThenReset();
+        if (lines.isEmpty() && overflowCount == 0) {
+            return;
+        }
+        if (log.isWarnEnabled()) {
+            StringBuilder sb = new StringBuilder();
+            for (String line : lines) {
+                sb.append(System.lineSeparator()).append("  ").append(line);
+            }
+            if (overflowCount > 0) {
+                sb.append(System.lineSeparator()).append("  other count=").append(overflowCount);
+            }
+            log.warn("[error-summary] {} fingerprints={}{}", name, entries.size(), sb);
+        }
+    }
+
+    //지문별 전체 횟수, 집계 중이 아니면 0
+    public long getCount(ErrorFingerprint fingerprint) {
+        Entry entry = entries.get(fingerprint);
+        return entry == null ? 0 : entry.total.sum();
+    }
+
+    public long getOverflow() {
+        return overflow.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    private static final class Entry {
+        private final ErrorFingerprint fingerprint;
+        private final LongAdder total = new LongAdder();
+        private final LongAdder windowCount = new LongAdder();
+        private final AtomicLong reportedWindow = new AtomicLong(-1);
+        //flush() 에서만 읽고 쓴다.
+        private int idle;
+
+        private Entry(ErrorFingerprint fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
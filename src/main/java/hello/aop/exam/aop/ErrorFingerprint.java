@@ -0,0 +1,123 @@
+package hello.aop.exam.aop;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * 같은 원인의 예외를 하나로 묶기 위한 지문
+ * 예외 타입, 메시지 틀, 스택 상단 프레임(클래스.메서드), 원인 예외 타입이 같으면 같은 지문이다.
+ * 메시지 틀은 숫자가 섞인 단어(id, 16진수, UUID 조각 등)를 '#' 으로 바꾼 것이라서
+ * "item 42 not found" 와 "item 43 not found" 는 같은 지문이 된다.
+ * 줄 번호는 배포마다 바뀌므로 프레임에 포함하지 않는다.
+ */
+public final class ErrorFingerprint {
+
+    public static final int DEFAULT_FRAMES = 5;
+
+    private final String type;
+    private final String template;
+    private final String[] frames;
+    private final String cause;
+    private final int hash;
+
+    private ErrorFingerprint(String type, String template, String[] frames, String cause) {
+        this.type = type;
+        this.template = template;
+        this.frames = frames;
+        this.cause = cause;
+        this.hash = Objects.hash(type, template, Arrays.hashCode(frames), cause);
+    }
+
+    public static ErrorFingerprint of(Throwable ex) {
+        return of(ex, DEFAULT_FRAMES);
+    }
+
+    public static ErrorFingerprint of(Throwable ex, int maxFrames) {
+        StackTraceElement[] stackTrace = ex.getStackTrace();
+        String[] frames = new String[Math.min(maxFrames, stackTrace.length)];
+        for (int i = 0; i < frames.length; i++) {
+            frames[i] = stackTrace[i].getClassName() + "." + stackTrace[i].getMethodName();
+        }
+        Throwable cause = ex.getCause();
+        return new ErrorFingerprint(ex.getClass().getName(), template(ex.getMessage()), frames,
+                cause == null || cause == ex ? null : cause.getClass().getName());
+    }
+
+    /**
+     * 숫자가 하나라도 섞인 영문자/숫자 단어를 '#' 하나로 바꾼다.
+     */
+    static String template(String message) {
+        if (message == null) {
+            return "";
+        }
+        StringBuilder sb = new StringBuilder(message.length());
+        int i = 0;
+        while (i < message.length()) {
+            char c = message.charAt(i);
+            if (!isWordChar(c)) {
+                sb.append(c);
+                i++;
+                continue;
+            }
+            int start = i;
+            boolean digit = false;
+            while (i < message.length() && isWordChar(message.charAt(i))) {
+                digit |= Character.isDigit(message.charAt(i));
+                i++;
+            }
+            if (digit) {
+                sb.append('#');
+            } else {
+                sb.append(message, start, i);
+            }
+        }
+        return sb.toString();
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    //로그에서 같은 지문을 찾을 수 있도록 짧게 표시한다.
+    public String getId() {
+        return String.format("%08x", hash);
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getTemplate() {
+        return template;
+    }
+
+    public String getTopFrame() {
+        return frames.length == 0 ? null : frames[0];
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof ErrorFingerprint that)) {
+            return false;
+        }
+        return hash == that.hash
+                && type.equals(that.type)
+                && template.equals(that.template)
+                && Arrays.equals(frames, that.frames)
+                && Objects.equals(cause, that.cause);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return type + ": " + template + (frames.length == 0 ? "" : " at " + frames[0])
+                + (cause == null ? "" : " caused by " + cause);
+    }
+}
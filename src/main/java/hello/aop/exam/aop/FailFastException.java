@@ -0,0 +1,13 @@
+package hello.aop.exam.aop;
+
+/**
+ * 대상을 호출해 보지도 않고(또는 기다리다 포기하고) 바로 거절한 예외의 공통 타입
+ * 대상의 실패가 아니라 보호 장치의 거절이므로, {@link RetryAspect} 는 재시도하지 않고
+ * {@link CircuitBreakerAspect} 는 실패율에 반영하지 않는다. 재시도하면 부하를 덜어내려던 거절이 다시 부하가 된다.
+ */
+public abstract class FailFastException extends IllegalStateException {
+
+    protected FailFastException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,141 @@
+package hello.aop.exam.aop;
+
+import hello.aop.exam.annotation.Hedge;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.Order;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 헤지 요청
+ * 첫 시도가 delay 안에 끝나지 않으면 같은 호출을 한 번 더 시작하고, 먼저 끝난 결과를 사용한다.
+ * 늦게 끝나는 시도는 취소(interrupt)한다. 꼬리 지연(p99)을 줄이기 위한 것이므로 멱등한 조회에만 사용한다.
+ *
+ * 시도들은 {@link Schedulers#workers()} 에서 실행되고, 호출자 스레드는 결과를 기다린다.
+ * 시도가 실패하면 실행 중인 다른 시도가 있을 때만 그 결과를 기다리고, 없으면 바로 실패한다.
+ */
+@Slf4j
+@Aspect
+@Order(AspectOrder.HEDGE)
+public class HedgeAspect {
+
+    private final Map<Method, HedgeState> states = new ConcurrentHashMap<>();
+
+    @Around("@annotation(hedge)")
+    public Object doHedge(ProceedingJoinPoint joinPoint, Hedge hedge) throws Throwable {
+        HedgeState state = stateOf(joinPoint, hedge);
+        long delayNanos = state.getDelayNanos();
+        if (delayNanos < 0 || hedge.maxHedges() <= 0) {
+            return proceedAndRecord(joinPoint, state);
+        }
+
+        HedgedCall call = new HedgedCall(DetachedJoinPoint.of(joinPoint), state);
+        try {
+            if (!call.launch(0)) {
+                return proceedAndRecord(joinPoint, state);
+            }
+            for (int hedgeCount = 1; hedgeCount <= hedge.maxHedges(); hedgeCount++) {
+                int attempt = hedgeCount;
+                call.track(Schedulers.shared().schedule(
+                        () -> call.launch(attempt), delayNanos * hedgeCount, TimeUnit.NANOSECONDS));
+            }
+            return call.result.get();
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } finally {
+            call.cancelAll();
+        }
+    }
+
+    private Object proceedAndRecord(ProceedingJoinPoint joinPoint, HedgeState state) throws Throwable {
+        long start = System.nanoTime();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            state.record(System.nanoTime() - start);
+        }
+    }
+
+    private HedgeState stateOf(ProceedingJoinPoint joinPoint, Hedge hedge) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        HedgeState state = states.get(method);
+        if (state == null) {
+            state = states.computeIfAbsent(method, key -> new HedgeState(hedge));
+        }
+        return state;
+    }
+
+    private static class HedgedCall {
+        private final DetachedJoinPoint joinPoint;
+        private final HedgeState state;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private final List<Future<?>> tasks = new CopyOnWriteArrayList<>();
+        private final AtomicInteger running = new AtomicInteger();
+
+        private HedgedCall(DetachedJoinPoint joinPoint, HedgeState state) {
+            this.joinPoint = joinPoint;
+            this.state = state;
+        }
+
+        private boolean launch(int attempt) {
+            if (result.isDone()) {
+                return false;
+            }
+            running.incrementAndGet();
+            try {
+                track(Schedulers.workers().submit(() -> run(attempt)));
+                return true;
+            } catch (RejectedExecutionException e) {
+                running.decrementAndGet();
+                log.debug("[hedge] {} attempt={} rejected", joinPoint.getJoinPoint().getSignature(), attempt);
+                return false;
+            }
+        }
+
+        private void run(int attempt) {
+            long start = System.nanoTime();
+            Throwable failure = null;
+            try {
+                Object value = joinPoint.proceed();
+                if (result.complete(value) && attempt > 0) {
+                    log.debug("[hedge] {} won by attempt={}", joinPoint.getJoinPoint().getSignature(), attempt);
+                }
+            } catch (Throwable e) {
+                failure = e;
+            } finally {
+                state.record(System.nanoTime() - start);
+                //마지막으로 끝난 시도까지 실패했으면 그 예외로 끝낸다.
+                if (running.decrementAndGet() == 0 && failure != null) {
+                    result.completeExceptionally(failure);
+                }
+            }
+        }
+
+        private void track(Future<?> task) {
+            tasks.add(task);
+            if (result.isDone()) {
+                task.cancel(true);
+            }
+        }
+
+        private void cancelAll() {
+            for (Future<?> task : tasks) {
+                task.cancel(true);
+            }
+        }
+    }
+}
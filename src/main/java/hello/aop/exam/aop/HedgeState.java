@@ -0,0 +1,35 @@
+package hello.aop.exam.aop;
+
+import hello.aop.exam.annotation.Hedge;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 조인 포인트 하나의 헤지 지연 시간
+ * delay 가 지정되지 않으면 최근 30초 응답 시간의 p95 를 사용한다. ({@link RollingPercentile}, 100ms 마다 다시 계산)
+ */
+public class HedgeState {
+
+    private static final int MIN_SAMPLES = 20;
+
+    private final long fixedDelayNanos;
+    private final RollingPercentile p95 = new RollingPercentile(95, 30_000, 100, TimeUnit.MILLISECONDS, MIN_SAMPLES);
+
+    public HedgeState(Hedge hedge) {
+        this.fixedDelayNanos = TimeUnit.MILLISECONDS.toNanos(hedge.delay());
+    }
+
+    public void record(long nanos) {
+        p95.record(nanos);
+    }
+
+    /**
+     * @return 다음 시도까지의 대기 시간(ns), 아직 p95 를 계산할 만큼 기록이 없으면 -1 (헤지하지 않는다)
+     */
+    public long getDelayNanos() {
+        if (fixedDelayNanos > 0) {
+            return fixedDelayNanos;
+        }
+        return p95.getNanos();
+    }
+}
@@ -0,0 +1,164 @@
+package hello.aop.exam.aop;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 키 별로 완료된 결과를 ttl 동안 보관한다.
+ * 실행 중인 호출도 미완료 future 로 보관해서, 동시에 들어온 같은 키의 호출은 같은 future 를 기다린다.
+ * 실패한 결과는 보관하지 않는다. 다음 호출(재시도)은 다시 실행된다.
+ *
+ * 크기 제한: 넣은 순서대로 큐에 기록하고, maxSize 를 넘으면 가장 오래된 완료 항목부터 제거한다.
+ * 실행 중인 항목을 제거하면 같은 키의 동시 호출이 한 번 더 실행되므로, 실행 중인 항목은 큐 뒤로 돌려 보내고 남긴다.
+ * (모두 실행 중이면 잠시 maxSize 를 넘을 수 있다)
+ * 실패해서 빠진 항목과 만료되어 새 항목으로 바뀐 항목은 큐에 남아 있어도 크기에 세지 않고, 큐의 앞에 오면 버린다.
+ * ttl 제거: 조회할 때 만료된 항목은 새로 실행하고, 넣을 때마다 큐의 앞쪽에서 만료된 항목을 조금씩 정리한다.
+ */
+public class IdempotencyStore {
+
+    private static final int SWEEP_PER_INSERT = 2;
+
+    private final long ttlNanos;
+    private final int maxSize;
+    private final ConcurrentHashMap<Object, Entry> entries = new ConcurrentHashMap<>();
+    private final Queue<Entry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final LongAdder hits = new LongAdder();
+
+    public IdempotencyStore(long ttl, TimeUnit unit, int maxSize) {
+        this.ttlNanos = unit.toNanos(ttl);
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * 같은 키의 살아있는 항목이 있으면 그 항목을, 없으면 새 항목을 등록하고 반환한다.
+     * {@link Entry#tryStart()} 에 성공한 호출자 하나만 실행하고 complete / fail 해야 하며, 나머지는 결과를 기다린다.
+     */
+    public Entry acquire(Object key) {
+        if (key == null) {
+            throw new IllegalArgumentException("멱등 키가 null 입니다.");
+        }
+        Entry fresh = new Entry(key);
+        while (true) {
+            Entry existing = entries.putIfAbsent(key, fresh);
+            if (existing == null) {
+                onInsert(fresh);
+                return fresh;
+            }
+            if (!existing.isExpired(System.nanoTime())) {
+                hits.increment();
+                return existing;
+            }
+            if (entries.replace(key, existing, fresh)) {
+                if (existing.dequeue()) {
+                    queued.decrementAndGet();
+                }
+                onInsert(fresh);
+                return fresh;
+            }
+        }
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    //크기 제한에 세는 항목 수
+    public int getQueued() {
+        return queued.get();
+    }
+
+    private void onInsert(Entry entry) {
+        insertionOrder.add(entry);
+        queued.incrementAndGet();
+        long now = System.nanoTime();
+        for (int i = 0; i < SWEEP_PER_INSERT; i++) {
+            Entry head = insertionOrder.peek();
+            if (head == null || !head.isDone() || !(head.isExpired(now) || queued.get() > maxSize)) {
+                break;
+            }
+            if (insertionOrder.remove(head)) {
+                evict(head);
+            }
+        }
+        int inFlight = 0;
+        while (queued.get() > maxSize) {
+            Entry oldest = insertionOrder.poll();
+            if (oldest == null) {
+                break;
+            }
+            if (!oldest.isDone()) {
+                insertionOrder.add(oldest);
+                if (++inFlight >= queued.get()) {
+                    break;
+                }
+                continue;
+            }
+            evict(oldest);
+        }
+    }
+
+    private void evict(Entry entry) {
+        if (entry.dequeue()) {
+            queued.decrementAndGet();
+        }
+        entries.remove(entry.key, entry);
+    }
+
+    public class Entry {
+        private final Object key;
+        private final CompletableFuture<Object> result = new CompletableFuture<>();
+        private final AtomicBoolean started = new AtomicBoolean();
+        private final AtomicBoolean counted = new AtomicBoolean(true);
+        private volatile long expiresAt = Long.MAX_VALUE;
+
+        private Entry(Object key) {
+            this.key = key;
+        }
+
+        public boolean tryStart() {
+            return !started.get() && started.compareAndSet(false, true);
+        }
+
+        public CompletableFuture<Object> getResult() {
+            return result;
+        }
+
+        public void complete(Object value) {
+            expiresAt = System.nanoTime() + ttlNanos;
+            result.complete(value);
+        }
+
+        public void fail(Throwable e) {
+            expiresAt = Long.MIN_VALUE;
+            entries.remove(key, this);
+            if (dequeue()) {
+                queued.decrementAndGet();
+            }
+            result.completeExceptionally(e);
+        }
+
+        private boolean isExpired(long now) {
+            return expiresAt - now <= 0;
+        }
+
+        private boolean isDone() {
+            return result.isDone();
+        }
+
+        //크기에서 한 번만 빼도록 처음 호출한 쪽만 true
+        private boolean dequeue() {
+            return counted.get() && counted.compareAndSet(true, false);
+        }
+    }
+}
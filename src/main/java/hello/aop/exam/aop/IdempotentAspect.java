@@ -0,0 +1,103 @@
+package hello.aop.exam.aop;
+
+import hello.aop.exam.annotation.Idempotent;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.context.expression.MethodBasedEvaluationContext;
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.annotation.Order;
+import org.springframework.expression.Expression;
+import org.springframework.expression.ExpressionParser;
+import org.springframework.expression.spel.standard.SpelExpressionParser;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 같은 키로 ttl 안에 다시 호출되면 joinPoint.proceed() 없이 보관한 결과를 반환한다.
+ * 같은 키로 동시에 들어온 호출은 먼저 시작한 호출의 결과를 함께 기다린다.
+ * {@link RetryAspect} 바깥에서 실행되어서, 재시도를 포함한 호출 전체를 한 번의 실행으로 취급한다.
+ */
+@Slf4j
+@Aspect
+@Order(AspectOrder.IDEMPOTENT)
+public class IdempotentAspect {
+
+    private static final ExpressionParser PARSER = new SpelExpressionParser();
+    private static final ParameterNameDiscoverer PARAMETER_NAMES = new DefaultParameterNameDiscoverer();
+
+    private final Map<Method, IdempotencyStore> stores = new ConcurrentHashMap<>();
+    private final Map<String, Expression> expressions = new ConcurrentHashMap<>();
+
+    @Around("@annotation(idempotent)")
+    public Object doIdempotent(ProceedingJoinPoint joinPoint, Idempotent idempotent) throws Throwable {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        IdempotencyStore store = storeOf(method, idempotent);
+        IdempotencyStore.Entry entry = store.acquire(keyOf(joinPoint, method, idempotent));
+
+        if (!entry.tryStart()) {
+            log.debug("[idempotent] {} duplicate call, reuse result", joinPoint.getSignature());
+            return await(entry.getResult(), joinPoint);
+        }
+        try {
+            Object result = joinPoint.proceed();
+            entry.complete(result);
+            return result;
+        } catch (Throwable e) {
+            entry.fail(e);
+            throw e;
+        }
+    }
+
+    public IdempotencyStore getStore(Method method) {
+        return stores.get(method);
+    }
+
+    private Object await(CompletableFuture<Object> result, ProceedingJoinPoint joinPoint) throws Throwable {
+        try {
+            Deadline deadline = Deadline.current();
+            if (deadline == null) {
+                return result.get();
+            }
+            return result.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (TimeoutException e) {
+            throw new DeadlineExceededException(joinPoint.getSignature().toShortString());
+        }
+    }
+
+    private IdempotencyStore storeOf(Method method, Idempotent idempotent) {
+        IdempotencyStore store = stores.get(method);
+        if (store == null) {
+            store = stores.computeIfAbsent(method,
+                    key -> new IdempotencyStore(idempotent.ttl(), TimeUnit.MILLISECONDS, idempotent.maxSize()));
+        }
+        return store;
+    }
+
+    private Object keyOf(ProceedingJoinPoint joinPoint, Method method, Idempotent idempotent) {
+        String key = idempotent.key();
+        if (key.isEmpty()) {
+            return new InvocationKey(method, joinPoint.getArgs());
+        }
+        Expression expression = expressions.computeIfAbsent(key, PARSER::parseExpression);
+        MethodBasedEvaluationContext context =
+                new MethodBasedEvaluationContext(joinPoint.getTarget(), method, joinPoint.getArgs(), PARAMETER_NAMES);
+        Object value = expression.getValue(context);
+        if (value == null) {
+            throw new IllegalArgumentException(
+                    "@Idempotent key 가 null 입니다. key=" + key + " method=" + joinPoint.getSignature().toShortString());
+        }
+        return value;
+    }
+}
@@ -0,0 +1,42 @@
+package hello.aop.exam.aop;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+/**
+ * 메서드와 인자로 구분하는 호출 키
+ * 인자 배열은 복사하지 않으므로 호출 중에 인자를 변경하면 안된다.
+ */
+public final class InvocationKey {
+
+    private final Method method;
+    private final Object[] args;
+    private final int hash;
+
+    public InvocationKey(Method method, Object[] args) {
+        this.method = method;
+        this.args = args;
+        this.hash = 31 * method.hashCode() + Arrays.deepHashCode(args);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof InvocationKey other)) {
+            return false;
+        }
+        return hash == other.hash && method.equals(other.method) && Arrays.deepEquals(args, other.args);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return method.getName() + Arrays.deepToString(args);
+    }
+}
@@ -0,0 +1,29 @@
+package hello.aop.exam.aop;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.TimeUnit;
+
+@Slf4j
+class LoggingSpanReporter implements SpanReporter {
+
+    static final LoggingSpanReporter INSTANCE = new LoggingSpanReporter();
+
+    @Override
+    public void report(Span root) {
+        if (log.isDebugEnabled()) {
+            log(root);
+        }
+    }
+
+    private void log(Span span) {
+        log.debug("[span] {}{} {}us self={}us {}{}",
+                "|   ".repeat(span.getDepth()), span.getName(),
+                TimeUnit.NANOSECONDS.toMicros(span.getDurationNanos()),
+                TimeUnit.NANOSECONDS.toMicros(span.getSelfNanos()),
+                span.getOutcome(), span.getError() == null ? "" : " " + span.getError());
+        for (Span child : span.getChildren()) {
+            log(child);
+        }
+    }
+}
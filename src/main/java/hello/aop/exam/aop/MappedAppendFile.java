@@ -0,0 +1,115 @@
+package hello.aop.exam.aop;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 파일 끝에 이어서 쓰는 메모리 맵 파일
+ * regionSize 크기의 구간을 매핑해서 쓰고, 구간이 부족하면 현재 위치부터 다음 구간을 매핑한다.
+ * 매핑하면서 늘어난 파일 끝은 close() 에서 실제로 쓴 위치까지 잘라낸다. 한 스레드에서만 사용한다.
+ *
+ * close() 하지 못하고 종료된 파일은 매핑한 구간의 나머지가 0 으로 남는다.
+ * 다시 열 때 그 0 뒤가 아니라 실제로 쓴 끝에서 이어 쓰도록, 이어 쓸 위치 뒤를 잘라내고 시작한다.
+ */
+public class MappedAppendFile implements Closeable {
+
+    private final FileChannel channel;
+    private final int regionSize;
+    private MappedByteBuffer region;
+    private long regionStart;
+
+    /**
+     * 파일 끝의 0 을 걷어낸 위치부터 이어 쓴다. 0 바이트를 쓰지 않는 텍스트 형식용
+     */
+    public MappedAppendFile(Path path, int regionSize) throws IOException {
+        this(path, regionSize, -1);
+    }
+
+    /**
+     * start 위치부터 이어 쓰고, 그 뒤는 잘라낸다. 음수면 파일 끝의 0 을 걷어낸 위치
+     */
+    public MappedAppendFile(Path path, int regionSize, long start) throws IOException {
+        this.channel = FileChannel.open(path,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.regionSize = regionSize;
+        try {
+            long end = start < 0 ? trimZeros() : Math.min(start, channel.size());
+            channel.truncate(end);
+            map(end);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public void put(byte value) throws IOException {
+        ensure(1);
+        region.put(value);
+    }
+
+    public void put(byte[] src, int offset, int length) throws IOException {
+        while (length > 0) {
+            ensure(1);
+            int chunk = Math.min(length, region.remaining());
+            region.put(src, offset, chunk);
+            offset += chunk;
+            length -= chunk;
+        }
+    }
+
+    //지금까지 쓴 파일 길이
+    public long position() {
+        return regionStart + region.position();
+    }
+
+    //매핑된 구간의 변경을 디스크에 반영한다.
+    public void force() {
+        region.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        long end = position();
+        region.force();
+        region = null;
+        channel.truncate(end);
+        channel.close();
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (region.remaining() < bytes) {
+            region.force();
+            map(position());
+        }
+    }
+
+    //마지막으로 0 이 아닌 바이트 다음 위치
+    private long trimZeros() throws IOException {
+        ByteBuffer chunk = ByteBuffer.allocate(64 * 1024);
+        long end = channel.size();
+        while (end > 0) {
+            long from = Math.max(0, end - chunk.capacity());
+            chunk.clear().limit((int) (end - from));
+            while (chunk.hasRemaining() && channel.read(chunk, from + chunk.position()) >= 0) {
+                //chunk 를 채운다.
+            }
+            for (int i = chunk.position() - 1; i >= 0; i--) {
+                if (chunk.get(i) != 0) {
+                    return from + i + 1;
+                }
+            }
+            end = from;
+        }
+        return 0;
+    }
+
+    private void map(long start) throws IOException {
+        regionStart = start;
+        region = channel.map(FileChannel.MapMode.READ_WRITE, start, regionSize);
+    }
+}
@@ -0,0 +1,82 @@
+package hello.aop.exam.aop;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 메서드 하나의 호출 지표
+ * 카운터는 스레드마다 나뉘어 쌓이는 LongAdder, 응답 시간은 락 없는 {@link LatencyHistogram} 에 기록한다.
+ * 기록 중에는 합계를 계산하지 않고, snapshot() 을 만들 때만 합친다.
+ * 그래서 스냅숏의 값들은 같은 순간의 값이 아닐 수 있다. (예: 호출 수가 히스토그램 기록 수보다 조금 앞설 수 있다)
+ */
+public class MethodMetrics {
+
+    private final String name;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder inFlight = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    public MethodMetrics(String name) {
+        this.name = name;
+    }
+
+    public void start() {
+        inFlight.increment();
+    }
+
+    public void end(long nanos, boolean failed) {
+        inFlight.decrement();
+        calls.increment();
+        if (failed) {
+            errors.increment();
+        }
+        totalNanos.add(nanos);
+        latency.record(nanos);
+        long max = maxNanos.get();
+        //대부분 최댓값보다 작아서 CAS 없이 끝난다.
+        while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+            max = maxNanos.get();
+        }
+    }
+
+    public MethodMetricsSnapshot snapshot() {
+        long count = calls.sum();
+        long max = maxNanos.get();
+        //버킷 상한이 실제 최댓값보다 클 수 있어서 최댓값으로 자른다.
+        long[] percentiles = latency.getPercentiles(50, 99, 99.9);
+        return new MethodMetricsSnapshot(name, count, errors.sum(), inFlight.sum(),
+                count == 0 ? 0 : totalNanos.sum() / 1_000.0 / count,
+                Math.min(percentiles[0], max) / 1_000,
+                Math.min(percentiles[1], max) / 1_000,
+                Math.min(percentiles[2], max) / 1_000,
+                max / 1_000);
+    }
+
+    //실행 중인 호출 수는 지우지 않는다.
+    public void reset() {
+        calls.reset();
+        errors.reset();
+        totalNanos.reset();
+        maxNanos.set(0);
+        latency.reset();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getInFlight() {
+        return inFlight.sum();
+    }
+}
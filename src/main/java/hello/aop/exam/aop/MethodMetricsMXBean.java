@@ -0,0 +1,20 @@
+package hello.aop.exam.aop;
+
+import java.util.List;
+
+/**
+ * jconsole, jcmd 같은 JMX 클라이언트로 메서드 호출 지표를 조회한다.
+ * ObjectName: hello.aop:type=MethodMetrics,name={registry 이름}
+ */
+public interface MethodMetricsMXBean {
+
+    //호출된 적이 있는 메서드들, 이름 순
+    List<MethodMetricsSnapshot> getSnapshots();
+
+    int getMethodCount();
+
+    //이름이 같은 메서드가 없으면 null
+    MethodMetricsSnapshot snapshot(String name);
+
+    void reset();
+}
@@ -0,0 +1,145 @@
+package hello.aop.exam.aop;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 메서드별 {@link MethodMetrics} 모음, register() 하면 플랫폼 MBeanServer 에 {@link MethodMetricsMXBean} 으로 등록된다.
+ * 웹 서버 없이 같은 호스트의 JMX 클라이언트로 조회할 수 있다.
+ * 같은 이름이 이미 등록되어 있으면 (예: 테스트마다 새로 뜬 애플리케이션 컨텍스트) 나중에 등록한 쪽으로 바꾼다.
+ * 이름마다 지금 등록된 registry 를 OWNERS 에 두고, unregister() 는 자신이 등록된 경우에만 해제한다.
+ * 바꿔 등록된 먼저 쪽이 닫히면서 나중에 등록한 쪽의 MBean 을 내리지 않게 하기 위해서다.
+ */
+public class MethodMetricsRegistry implements MethodMetricsMXBean {
+
+    private static final Map<ObjectName, MethodMetricsRegistry> OWNERS = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final Map<Method, MethodMetrics> metrics = new ConcurrentHashMap<>();
+    private ObjectName registeredName;
+
+    public MethodMetricsRegistry(String name) {
+        this.name = name;
+    }
+
+    public static ObjectName objectName(String name) {
+        try {
+            return new ObjectName("hello.aop:type=MethodMetrics,name=" + name);
+        } catch (JMException e) {
+            throw new IllegalArgumentException(name, e);
+        }
+    }
+
+    /**
+     * joinPoint 를 실행하고 시간과 예외 여부를 기록한다.
+     */
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        MethodMetrics methodMetrics = metricsOf(((MethodSignature) joinPoint.getSignature()).getMethod());
+        methodMetrics.start();
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = joinPoint.proceed();
+            failed = false;
+            return result;
+        } finally {
+            methodMetrics.end(System.nanoTime() - start, failed);
+        }
+    }
+
+    public MethodMetrics metricsOf(Method method) {
+        MethodMetrics methodMetrics = metrics.get(method);
+        if (methodMetrics == null) {
+            methodMetrics = metrics.computeIfAbsent(method, key -> new MethodMetrics(TraceAspect.render(key)));
+        }
+        return methodMetrics;
+    }
+
+    //기록된 적이 없으면 null
+    public MethodMetrics getMetrics(Method method) {
+        return metrics.get(method);
+    }
+
+    public void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName objectName = objectName(name);
+        synchronized (OWNERS) {
+            try {
+                if (server.isRegistered(objectName)) {
+                    server.unregisterMBean(objectName);
+                }
+                server.registerMBean(this, objectName);
+                OWNERS.put(objectName, this);
+                registeredName = objectName;
+            } catch (JMException e) {
+                throw new IllegalStateException("MBean 등록 실패 " + objectName, e);
+            }
+        }
+    }
+
+    /**
+     * 다른 registry 가 같은 이름으로 바꿔 등록했으면 그 MBean 은 그대로 둔다.
+     */
+    public void unregister() {
+        synchronized (OWNERS) {
+            ObjectName objectName = registeredName;
+            if (objectName == null) {
+                return;
+            }
+            registeredName = null;
+            if (!OWNERS.remove(objectName, this)) {
+                return;
+            }
+            try {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+            } catch (JMException e) {
+                //MBeanServer 에서 직접 해제된 경우
+            }
+        }
+    }
+
+    @Override
+    public List<MethodMetricsSnapshot> getSnapshots() {
+        List<MethodMetricsSnapshot> snapshots = new ArrayList<>(metrics.size());
+        for (MethodMetrics methodMetrics : metrics.values()) {
+            snapshots.add(methodMetrics.snapshot());
+        }
+        snapshots.sort(Comparator.comparing(MethodMetricsSnapshot::getName));
+        return snapshots;
+    }
+
+    @Override
+    public int getMethodCount() {
+        return metrics.size();
+    }
+
+    @Override
+    public MethodMetricsSnapshot snapshot(String name) {
+        for (MethodMetrics methodMetrics : metrics.values()) {
+            if (methodMetrics.getName().equals(name)) {
+                return methodMetrics.snapshot();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void reset() {
+        metrics.values().forEach(MethodMetrics::reset);
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,77 @@
+package hello.aop.exam.aop;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * JMX 로 내보내는 {@link MethodMetrics} 의 한 시점 값 (시간 단위: µs)
+ * MXBean 이 getter 를 CompositeData 항목으로 바꾸고, JMX.newMXBeanProxy() 는 생성자로 다시 만든다.
+ */
+public class MethodMetricsSnapshot {
+
+    private final String name;
+    private final long calls;
+    private final long errors;
+    private final long inFlight;
+    private final double meanMicros;
+    private final long p50Micros;
+    private final long p99Micros;
+    private final long p999Micros;
+    private final long maxMicros;
+
+    @ConstructorProperties({"name", "calls", "errors", "inFlight", "meanMicros",
+            "p50Micros", "p99Micros", "p999Micros", "maxMicros"})
+    public MethodMetricsSnapshot(String name, long calls, long errors, long inFlight, double meanMicros,
+                                 long p50Micros, long p99Micros, long p999Micros, long maxMicros) {
+        this.name = name;
+        this.calls = calls;
+        this.errors = errors;
+        this.inFlight = inFlight;
+        this.meanMicros = meanMicros;
+        this.p50Micros = p50Micros;
+        this.p99Micros = p99Micros;
+        this.p999Micros = p999Micros;
+        this.maxMicros = maxMicros;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public long getInFlight() {
+        return inFlight;
+    }
+
+    public double getMeanMicros() {
+        return meanMicros;
+    }
+
+    public long getP50Micros() {
+        return p50Micros;
+    }
+
+    public long getP99Micros() {
+        return p99Micros;
+    }
+
+    public long getP999Micros() {
+        return p999Micros;
+    }
+
+    public long getMaxMicros() {
+        return maxMicros;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s calls=%d errors=%d inFlight=%d mean=%.1fus p50=%dus p99=%dus p999=%dus max=%dus",
+                name, calls, errors, inFlight, meanMicros, p50Micros, p99Micros, p999Micros, maxMicros);
+    }
+}
@@ -0,0 +1,102 @@
+package hello.aop.exam.aop;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 메서드 하나의 CPU 시간, 할당량 집계
+ * 호출한 스레드에서 측정하므로 안쪽 호출(다른 프록시 메서드 포함)의 사용량을 포함하고,
+ * 다른 스레드로 넘긴 작업의 사용량은 포함하지 않는다.
+ */
+public class ProfileStats {
+
+    private final String name;
+    private final long allocationBudget;
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder cpuNanos = new LongAdder();
+    private final LongAdder allocatedBytes = new LongAdder();
+    private final LongAdder overBudget = new LongAdder();
+    private final AtomicLong maxAllocatedBytes = new AtomicLong();
+    private final AtomicBoolean flagged = new AtomicBoolean();
+
+    public ProfileStats(String name, long allocationBudget) {
+        this.name = name;
+        this.allocationBudget = allocationBudget;
+    }
+
+    /**
+     * @param cpu 측정할 수 없으면 음수
+     * @param allocated 측정할 수 없으면 음수
+     * @return 처음으로 할당 예산을 넘었으면 true
+     */
+    public boolean record(long cpu, long allocated) {
+        calls.increment();
+        if (cpu > 0) {
+            cpuNanos.add(cpu);
+        }
+        if (allocated < 0) {
+            return false;
+        }
+        allocatedBytes.add(allocated);
+        long max = maxAllocatedBytes.get();
+        while (allocated > max && !maxAllocatedBytes.compareAndSet(max, allocated)) {
+            max = maxAllocatedBytes.get();
+        }
+        if (allocationBudget > 0 && allocated > allocationBudget) {
+            overBudget.increment();
+            return !flagged.get() && flagged.compareAndSet(false, true);
+        }
+        return false;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getAllocationBudget() {
+        return allocationBudget;
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getCpuNanos() {
+        return cpuNanos.sum();
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes.sum();
+    }
+
+    public long getMeanCpuNanos() {
+        long count = calls.sum();
+        return count == 0 ? 0 : cpuNanos.sum() / count;
+    }
+
+    public long getMeanAllocatedBytes() {
+        long count = calls.sum();
+        return count == 0 ? 0 : allocatedBytes.sum() / count;
+    }
+
+    public long getMaxAllocatedBytes() {
+        return maxAllocatedBytes.get();
+    }
+
+    //할당 예산을 넘은 호출 수
+    public long getOverBudget() {
+        return overBudget.sum();
+    }
+
+    //한 번이라도 할당 예산을 넘었으면 true
+    public boolean isFlagged() {
+        return flagged.get();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s calls=%d cpu=%dns/call alloc=%dB/call maxAlloc=%dB overBudget=%d",
+                name, getCalls(), getMeanCpuNanos(), getMeanAllocatedBytes(), getMaxAllocatedBytes(), getOverBudget());
+    }
+}
@@ -0,0 +1,27 @@
+package hello.aop.exam.aop;
+
+import hello.aop.exam.annotation.Profiled;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.springframework.core.annotation.AnnotationUtils;
+
+import java.lang.reflect.Method;
+
+/**
+ * {@link Profiled} 메서드의 CPU 시간과 할당량을 집계한다.
+ * 할당 예산은 애노테이션의 allocationBudget 을 사용한다.
+ */
+@Aspect
+public class ProfiledAspect extends ProfilingAspect {
+
+    @Override
+    @Pointcut("@annotation(hello.aop.exam.annotation.Profiled)")
+    public void profiled() {
+    }
+
+    @Override
+    protected long allocationBudget(Method method) {
+        Profiled profiled = AnnotationUtils.findAnnotation(method, Profiled.class);
+        return profiled == null ? 0 : profiled.allocationBudget();
+    }
+}
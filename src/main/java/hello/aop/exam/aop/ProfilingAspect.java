@@ -0,0 +1,96 @@
+package hello.aop.exam.aop;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 호출마다 현재 스레드의 CPU 시간(ThreadMXBean.getCurrentThreadCpuTime)과
+ * 할당한 바이트 수(com.sun.management.ThreadMXBean.getCurrentThreadAllocatedBytes)의 차이를 {@link ProfileStats} 에 모은다.
+ * 대상은 하위 애스펙트가 profiled() 포인트컷을 구현해서 정한다.
+ * 호출 한 번이 할당 예산을 넘으면 메서드마다 처음 한 번만 경고를 남기고, 이후에는 횟수만 센다.
+ * 측정 자체는 할당하지 않아서 집계된 할당량에 섞이지 않는다.
+ */
+@Slf4j
+@Aspect
+public abstract class ProfilingAspect {
+
+    private static final java.lang.management.ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final com.sun.management.ThreadMXBean ALLOCATIONS = allocationBean();
+    private static final boolean CPU_SUPPORTED = THREADS.isCurrentThreadCpuTimeSupported();
+
+    private final Map<Method, ProfileStats> stats = new ConcurrentHashMap<>();
+
+    @Pointcut
+    public abstract void profiled();
+
+    @Around("profiled()")
+    public Object doProfile(ProceedingJoinPoint joinPoint) throws Throwable {
+        long cpuStart = cpuTime();
+        long allocatedStart = allocatedBytes();
+        try {
+            return joinPoint.proceed();
+        } finally {
+            long cpu = cpuStart < 0 ? -1 : cpuTime() - cpuStart;
+            long allocated = allocatedStart < 0 ? -1 : allocatedBytes() - allocatedStart;
+            ProfileStats methodStats = statsOf(((MethodSignature) joinPoint.getSignature()).getMethod());
+            if (methodStats.record(cpu, allocated)) {
+                log.warn("[alloc] {} allocated {}B in one call, budget {}B",
+                        methodStats.getName(), allocated, methodStats.getAllocationBudget());
+            }
+        }
+    }
+
+    /**
+     * 메서드의 호출 당 할당 예산(바이트), 0 이면 검사하지 않는다.
+     */
+    protected abstract long allocationBudget(Method method);
+
+    //호출된 적이 없으면 null
+    public ProfileStats getStats(Method method) {
+        return stats.get(method);
+    }
+
+    //할당량 합이 큰 순서
+    public List<ProfileStats> getAllStats() {
+        List<ProfileStats> result = new ArrayList<>(stats.values());
+        result.sort(Comparator.comparingLong(ProfileStats::getAllocatedBytes).reversed());
+        return result;
+    }
+
+    private ProfileStats statsOf(Method method) {
+        ProfileStats methodStats = stats.get(method);
+        if (methodStats == null) {
+            methodStats = stats.computeIfAbsent(method,
+                    key -> new ProfileStats(TraceAspect.render(key), allocationBudget(key)));
+        }
+        return methodStats;
+    }
+
+    private static long cpuTime() {
+        return CPU_SUPPORTED ? THREADS.getCurrentThreadCpuTime() : -1;
+    }
+
+    private static long allocatedBytes() {
+        return ALLOCATIONS == null ? -1 : ALLOCATIONS.getCurrentThreadAllocatedBytes();
+    }
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        if (THREADS instanceof com.sun.management.ThreadMXBean bean && bean.isThreadAllocatedMemorySupported()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+            return bean;
+        }
+        return null;
+    }
+}
@@ -3,29 +3,195 @@ package hello.aop.exam.aop;
 import hello.aop.exam.annotation.Retry;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.Order;
 
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 재시도 사이에 {@link Backoff} 만큼 대기한다.
+ * CompletableFuture 를 반환하는 메서드는 호출자 스레드에서 대기하지 않고, 다음 시도를 {@link Schedulers#shared()} 에 예약한다.
+ * group 이 지정되면 같은 그룹의 {@link RetryBudget} 이 허용할 때만 재시도한다.
+ * 서킷 브레이커 열림, 벌크헤드 가득 참 같은 {@link FailFastException} 은 재시도하지 않고 실패로 기록하지도 않는다.
+ * 현재 {@link Deadline} 이 지났으면 시도하지 않고, 다음 재시도까지 기다릴 시간이 남아 있지 않으면 재시도를 멈춘다.
+ * 실패한 시도는 {@link ErrorAggregator} 로 모아서, 같은 원인의 실패는 윈도우마다 처음 한 번만 스택 트레이스와 함께 남긴다.
+ */
 @Slf4j
 @Aspect
+@Order(AspectOrder.RETRY)
 public class RetryAspect {
 
-    private int retryCount = 0;
+    private final Map<String, RetryBudget> budgets = new ConcurrentHashMap<>();
+    private volatile ErrorAggregator errors = ErrorAggregator.shared();
 
     @Around("@annotation(retry)")
     public Object doExceptionRetry(ProceedingJoinPoint joinPoint, Retry retry) throws Throwable {
+        Deadline deadline = Deadline.current();
+        if (deadline != null && deadline.isExpired()) {
+            throw new DeadlineExceededException(joinPoint.getSignature().toShortString());
+        }
+        if (returnsCompletableFuture(joinPoint)) {
+            return doAsyncRetry(joinPoint, retry);
+        }
+
         Exception exceptionHolder = null;
         int maxRetry = retry.value();
+        long delay = 0;
+        RetryBudget budget = recordCall(retry);
 
         for (int retryCount = 1; retryCount <= maxRetry; retryCount++) {
             try {
                 log.info("[retry] try count {}/{}", retryCount, maxRetry);
                 return joinPoint.proceed();
+            } catch (FailFastException e) {
+                throw e;
             } catch (Exception e) {
-                log.error("[retry] {} retry={}", joinPoint.getSignature(), retry);
+                logFailure(joinPoint.getSignature(), retry, e);
                 exceptionHolder = e;
             }
+            if (retryCount < maxRetry) {
+                delay = Backoff.nextDelay(retry, retryCount, delay);
+                if (!meetsDeadline(deadline, delay, joinPoint.getSignature())
+                        || !acquireRetry(budget, joinPoint.getSignature())) {
+                    break;
+                }
+                if (!sleep(delay)) {
+                    break;
+                }
+            }
         }
         throw exceptionHolder;
     }
+
+    /**
+     * 애노테이션의 budgetPercent 대신 윈도우, 최소 재시도 수까지 직접 지정한 예산을 사용한다.
+     */
+    public void registerBudget(RetryBudget budget) {
+        budgets.put(budget.getName(), budget);
+    }
+
+    public RetryBudget getBudget(String group) {
+        return budgets.get(group);
+    }
+
+    public void setErrorAggregator(ErrorAggregator errors) {
+        this.errors = errors;
+    }
+
+    private void logFailure(Signature signature, Retry retry, Throwable ex) {
+        if (errors.record(ErrorFingerprint.of(ex))) {
+            log.error("[retry] {} retry={}", signature, retry, ex);
+        } else {
+            log.debug("[retry] {} retry={} message={}", signature, retry, ex.getMessage());
+        }
+    }
+
+    private RetryBudget recordCall(Retry retry) {
+        String group = retry.group();
+        if (group.isEmpty()) {
+            return null;
+        }
+        RetryBudget budget = budgets.get(group);
+        if (budget == null) {
+            budget = budgets.computeIfAbsent(group, name -> new RetryBudget(name, retry.budgetPercent()));
+        }
+        budget.recordCall();
+        return budget;
+    }
+
+    private boolean meetsDeadline(Deadline deadline, long delay, Signature signature) {
+        if (deadline == null || deadline.remainingNanos() > TimeUnit.MILLISECONDS.toNanos(delay)) {
+            return true;
+        }
+        log.warn("[retry] {} deadline too close for delay={}ms, stop retrying", signature, delay);
+        return false;
+    }
+
+    private boolean acquireRetry(RetryBudget budget, Signature signature) {
+        if (budget == null || budget.tryAcquire()) {
+            return true;
+        }
+        log.warn("[retry] {} budget exhausted group={} denied={}", signature, budget.getName(), budget.getDenied());
+        return false;
+    }
+
+    private boolean returnsCompletableFuture(ProceedingJoinPoint joinPoint) {
+        return joinPoint.getSignature() instanceof MethodSignature signature
+                && CompletableFuture.class.isAssignableFrom(signature.getReturnType());
+    }
+
+    private boolean sleep(long delay) {
+        if (delay <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(delay);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private CompletableFuture<Object> doAsyncRetry(ProceedingJoinPoint joinPoint, Retry retry) {
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        attempt(DetachedJoinPoint.of(joinPoint), retry, recordCall(retry), 1, 0, result);
+        return result;
+    }
+
+    private void attempt(DetachedJoinPoint joinPoint, Retry retry, RetryBudget budget, int retryCount,
+                         long previousDelay, CompletableFuture<Object> result) {
+        int maxRetry = retry.value();
+        log.info("[retry] try count {}/{}", retryCount, maxRetry);
+
+        CompletableFuture<?> future;
+        try {
+            future = (CompletableFuture<?>) joinPoint.proceed();
+        } catch (Throwable e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        if (future == null) {
+            result.complete(null);
+            return;
+        }
+
+        future.whenComplete((value, ex) -> {
+            if (ex == null) {
+                result.complete(value);
+                return;
+            }
+            Throwable cause = unwrap(ex);
+            if (cause instanceof FailFastException) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            Signature signature = joinPoint.getJoinPoint().getSignature();
+            logFailure(signature, retry, cause);
+            long delay = Backoff.nextDelay(retry, retryCount, previousDelay);
+            if (!(cause instanceof Exception) || retryCount >= maxRetry
+                    || !meetsDeadline(joinPoint.getDeadline(), delay, signature)
+                    || !acquireRetry(budget, signature)) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            Schedulers.shared().schedule(
+                    () -> attempt(joinPoint, retry, budget, retryCount + 1, delay, result),
+                    delay, TimeUnit.MILLISECONDS);
+        });
+    }
+
+    private static Throwable unwrap(Throwable ex) {
+        if ((ex instanceof CompletionException || ex instanceof ExecutionException) && ex.getCause() != null) {
+            return ex.getCause();
+        }
+        return ex;
+    }
 }
@@ -0,0 +1,61 @@
+package hello.aop.exam.aop;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 재시도 예산
+ * 슬라이딩 윈도우 안에서 (재시도 수 / 호출 수) 비율이 percent 를 넘지 않을 때만 재시도를 허용한다.
+ * 백엔드 장애로 실패가 늘어날 때 재시도가 부하를 몇 배로 늘리는 재시도 폭풍을 막는다.
+ *
+ * 락을 사용하지 않기 때문에 동시에 판단한 재시도가 비율을 조금 넘길 수 있다.
+ * 호출이 적을 때도 재시도를 할 수 있도록 윈도우마다 minRetries 만큼은 비율과 상관 없이 허용한다.
+ */
+public class RetryBudget {
+
+    private static final int CALLS = 0;
+    private static final int RETRIES = 1;
+
+    private final String name;
+    private final int percent;
+    private final long minRetries;
+    private final SlidingWindowCounter window;
+    private final LongAdder denied = new LongAdder();
+
+    public RetryBudget(String name, int percent) {
+        this(name, percent, 10, Duration.ofSeconds(10));
+    }
+
+    public RetryBudget(String name, int percent, long minRetries, Duration window) {
+        this.name = name;
+        this.percent = percent;
+        this.minRetries = minRetries;
+        this.window = new SlidingWindowCounter(2, 10, window);
+    }
+
+    public void recordCall() {
+        window.increment(CALLS);
+    }
+
+    /**
+     * 재시도 해도 되면 재시도 수를 기록하고 true 를 반환한다.
+     */
+    public boolean tryAcquire() {
+        long calls = window.sum(CALLS);
+        long retries = window.sum(RETRIES);
+        if (retries * 100 < calls * percent + minRetries * 100) {
+            window.increment(RETRIES);
+            return true;
+        }
+        denied.increment();
+        return false;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getDenied() {
+        return denied.sum();
+    }
+}
@@ -0,0 +1,70 @@
+package hello.aop.exam.aop;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 최근 응답 시간의 백분위
+ * {@link LatencyHistogram} 두 개를 window 마다 번갈아 사용해서 메모리가 고정되고, 오래된 응답 시간이 섞이지 않는다.
+ * 백분위 계산은 히스토그램 전체를 읽어야 하므로 refresh 마다 한 번만 계산해서 캐시한다.
+ * 기록은 히스토그램 버킷 하나를 증가시키는 것이 전부다.
+ * window 교체는 windowStartedAt 을 CAS 로 바꾼 스레드 하나만 한다. 둘이 교체하면 방금 채운 히스토그램이 지워진다.
+ */
+public class RollingPercentile {
+
+    private final double percentile;
+    private final long windowNanos;
+    private final long refreshNanos;
+    private final int minSamples;
+    private volatile LatencyHistogram current = new LatencyHistogram();
+    private volatile LatencyHistogram previous = new LatencyHistogram();
+    private final AtomicLong windowStartedAt = new AtomicLong(System.nanoTime());
+    private volatile long refreshedAt;
+    private volatile long cachedNanos = -1;
+
+    public RollingPercentile(double percentile, long window, long refresh, TimeUnit unit, int minSamples) {
+        this.percentile = percentile;
+        this.windowNanos = unit.toNanos(window);
+        this.refreshNanos = unit.toNanos(refresh);
+        this.minSamples = minSamples;
+        this.refreshedAt = System.nanoTime() - refreshNanos;
+    }
+
+    public void record(long nanos) {
+        current.record(nanos);
+    }
+
+    /**
+     * @return 캐시된 백분위 값(ns), 아직 계산할 만큼 기록이 없으면 -1
+     */
+    public long getNanos() {
+        long now = System.nanoTime();
+        if (now - refreshedAt >= refreshNanos) {
+            refreshedAt = now;
+            rotateIfExpired(now);
+            cachedNanos = compute();
+        }
+        return cachedNanos;
+    }
+
+    private void rotateIfExpired(long now) {
+        long startedAt = windowStartedAt.get();
+        if (now - startedAt >= windowNanos && windowStartedAt.compareAndSet(startedAt, now)) {
+            LatencyHistogram recycled = previous;
+            recycled.reset();
+            previous = current;
+            current = recycled;
+        }
+    }
+
+    private long compute() {
+        LatencyHistogram histogram = current;
+        if (histogram.getCount() < minSamples) {
+            histogram = previous;
+        }
+        if (histogram.getCount() < minSamples) {
+            return -1;
+        }
+        return histogram.getPercentile(percentile);
+    }
+}
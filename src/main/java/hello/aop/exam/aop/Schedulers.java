@@ -0,0 +1,47 @@
+package hello.aop.exam.aop;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 애스펙트들이 함께 사용하는 스레드
+ * shared(): 비동기 재시도처럼 대기가 필요한 작업을 호출자 스레드를 붙잡지 않고 예약한다.
+ * workers(): 헤지 시도, 제한 시간이 있는 호출처럼 호출자 대신 joinPoint.proceed() 를 실행한다.
+ *      스레드 수에 상한이 있고 대기열이 없어서, 가득 차면 RejectedExecutionException 이 발생한다.
+ * 모두 데몬 스레드라서 애플리케이션 종료를 막지 않는다.
+ */
+public class Schedulers {
+
+    private static final ScheduledExecutorService SHARED = Executors.newScheduledThreadPool(
+            Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+            daemonThreadFactory("aop-scheduler"));
+
+    private static final ExecutorService WORKERS = new ThreadPoolExecutor(
+            0, 256, 60, TimeUnit.SECONDS, new SynchronousQueue<>(), daemonThreadFactory("aop-worker"));
+
+    private Schedulers() {
+    }
+
+    public static ScheduledExecutorService shared() {
+        return SHARED;
+    }
+
+    public static ExecutorService workers() {
+        return WORKERS;
+    }
+
+    public static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger sequence = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,64 @@
+package hello.aop.exam.aop;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 키 별로 실행 중인 호출 하나만 유지한다.
+ * 실행이 끝나면 결과를 넘기기 전에 키를 제거하므로, 완료 후에 들어온 호출은 새로 실행된다.
+ * 결과를 보관하지 않는다는 점이 {@link IdempotencyStore} 와 다르다.
+ */
+public class SingleFlight {
+
+    private final String name;
+    private final ConcurrentHashMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public SingleFlight(String name) {
+        this.name = name;
+    }
+
+    /**
+     * 같은 키로 실행 중인 호출이 있으면 그 future 를, 없으면 null 을 반환하고 호출자를 실행자로 등록한다.
+     * null 을 받은 호출자는 반드시 {@link #complete} 또는 {@link #fail} 을 호출해야 한다.
+     */
+    public CompletableFuture<Object> join(Object key, CompletableFuture<Object> flight) {
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return existing;
+    }
+
+    public void complete(Object key, CompletableFuture<Object> flight, Object value) {
+        inFlight.remove(key, flight);
+        flight.complete(value);
+    }
+
+    public void fail(Object key, CompletableFuture<Object> flight, Throwable e) {
+        inFlight.remove(key, flight);
+        flight.completeExceptionally(e);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    //실행 중인 호출에 합류한 수
+    public long getHits() {
+        return hits.sum();
+    }
+
+    //직접 실행한 수
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,80 @@
+package hello.aop.exam.aop;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 최근 window 동안의 카운터 합계
+ * window 를 bucketCount 개의 버킷으로 나누고, 시간이 지난 버킷은 CAS 로 새 버킷과 교체한다.
+ * 버킷의 카운터는 {@link LongAdder} 라서 여러 스레드가 동시에 증가시켜도 경합이 적다.
+ * 합계는 락 없이 읽기 때문에 동시에 증가하는 값이 일부 빠질 수 있는 근사값이다.
+ */
+public class SlidingWindowCounter {
+
+    private final int counterCount;
+    private final int bucketCount;
+    private final long bucketNanos;
+    private final AtomicReferenceArray<Bucket> buckets;
+
+    public SlidingWindowCounter(int counterCount, int bucketCount, Duration window) {
+        this.counterCount = counterCount;
+        this.bucketCount = bucketCount;
+        this.bucketNanos = Math.max(1, window.toNanos() / bucketCount);
+        this.buckets = new AtomicReferenceArray<>(bucketCount);
+    }
+
+    public void increment(int counter) {
+        current(epoch()).counters[counter].increment();
+    }
+
+    public long sum(int counter) {
+        long epoch = epoch();
+        long sum = 0;
+        for (int i = 0; i < bucketCount; i++) {
+            Bucket bucket = buckets.get(i);
+            if (bucket != null && epoch - bucket.epoch < bucketCount) {
+                sum += bucket.counters[counter].sum();
+            }
+        }
+        return sum;
+    }
+
+    public void reset() {
+        for (int i = 0; i < bucketCount; i++) {
+            buckets.set(i, null);
+        }
+    }
+
+    private Bucket current(long epoch) {
+        int index = (int) Math.floorMod(epoch, bucketCount);
+        while (true) {
+            Bucket bucket = buckets.get(index);
+            if (bucket != null && bucket.epoch >= epoch) {
+                return bucket;
+            }
+            //지난 버킷은 새 버킷으로 교체한다. 교체에 실패하면 다른 스레드가 교체한 버킷을 다시 읽는다.
+            Bucket fresh = new Bucket(epoch, counterCount);
+            if (buckets.compareAndSet(index, bucket, fresh)) {
+                return fresh;
+            }
+        }
+    }
+
+    private long epoch() {
+        return Math.floorDiv(System.nanoTime(), bucketNanos);
+    }
+
+    private static class Bucket {
+        private final long epoch;
+        private final LongAdder[] counters;
+
+        private Bucket(long epoch, int counterCount) {
+            this.epoch = epoch;
+            this.counters = new LongAdder[counterCount];
+            for (int i = 0; i < counterCount; i++) {
+                counters[i] = new LongAdder();
+            }
+        }
+    }
+}
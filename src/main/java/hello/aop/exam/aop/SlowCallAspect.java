@@ -0,0 +1,80 @@
+package hello.aop.exam.aop;
+
+import hello.aop.exam.annotation.SlowCall;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.core.annotation.Order;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 느린 호출만 로그로 남긴다.
+ * 평소에는 System.nanoTime() 두 번과 히스토그램 기록 한 번만 하고, 느린 호출일 때만 인자와 호출 트리를 만든다.
+ * 호출 트리는 같은 스레드에서 {@link TraceAspect} 가 기록한 구간이 있을 때만 함께 남긴다.
+ * (샘플링되지 않았거나 다른 스레드에서 실행된 호출은 트리 없이 남긴다)
+ */
+@Slf4j
+@Aspect
+@Order(AspectOrder.SLOW_CALL)
+public class SlowCallAspect {
+
+    private final Map<Method, SlowCallState> states = new ConcurrentHashMap<>();
+
+    @Around("@annotation(slowCall)")
+    public Object doSlowCall(ProceedingJoinPoint joinPoint, SlowCall slowCall) throws Throwable {
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            Object result = joinPoint.proceed();
+            failed = false;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            SlowCallState state = stateOf(joinPoint, slowCall);
+            if (state.record(elapsed)) {
+                report(joinPoint, state, start, elapsed, failed);
+            }
+        }
+    }
+
+    public SlowCallState getState(Method method) {
+        return states.get(method);
+    }
+
+    private void report(ProceedingJoinPoint joinPoint, SlowCallState state, long start, long elapsed, boolean failed) {
+        if (!log.isWarnEnabled()) {
+            return;
+        }
+        log.warn("[slow] {} took {}ms (limit {}ms) failed={} args={}{}",
+                joinPoint.getSignature(),
+                TimeUnit.NANOSECONDS.toMillis(elapsed),
+                TimeUnit.NANOSECONDS.toMillis(state.getLimitNanos()),
+                failed,
+                Arrays.deepToString(joinPoint.getArgs()),
+                nestedTrace(start));
+    }
+
+    private String nestedTrace(long start) {
+        Span span = TraceContext.lastEnded();
+        if (span == null || span.getStartNanos() - start < 0) {
+            return "";
+        }
+        return System.lineSeparator() + span.toTreeString();
+    }
+
+    private SlowCallState stateOf(ProceedingJoinPoint joinPoint, SlowCall slowCall) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        SlowCallState state = states.get(method);
+        if (state == null) {
+            state = states.computeIfAbsent(method, key -> new SlowCallState(key.toGenericString(), slowCall));
+        }
+        return state;
+    }
+}
@@ -0,0 +1,58 @@
+package hello.aop.exam.aop;
+
+import hello.aop.exam.annotation.SlowCall;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 조인 포인트 하나의 느린 호출 기준
+ * 최근 1분 응답 시간의 백분위({@link RollingPercentile}, 1초 마다 다시 계산) 또는 고정 기준 중 먼저 넘는 값을 사용한다.
+ * 백분위를 계산할 만큼 기록이 쌓이기 전에는 고정 기준만 사용한다.
+ */
+public class SlowCallState {
+
+    private static final int MIN_SAMPLES = 100;
+
+    private final String name;
+    private final long thresholdNanos;
+    private final RollingPercentile percentile;
+    private final LongAdder reported = new LongAdder();
+
+    public SlowCallState(String name, SlowCall slowCall) {
+        this.name = name;
+        this.thresholdNanos = slowCall.thresholdMillis() <= 0
+                ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(slowCall.thresholdMillis());
+        this.percentile = new RollingPercentile(slowCall.percentile(), 60, 1, TimeUnit.SECONDS, MIN_SAMPLES);
+    }
+
+    /**
+     * 응답 시간을 기록하고 느린 호출이면 true
+     */
+    public boolean record(long nanos) {
+        percentile.record(nanos);
+        long limit = percentile.getNanos();
+        if (nanos >= thresholdNanos || (limit > 0 && nanos > limit)) {
+            reported.increment();
+            return true;
+        }
+        return false;
+    }
+
+    //현재 기준(ns), 백분위와 고정 기준 중 작은 값, 아직 기준이 없으면 -1
+    public long getLimitNanos() {
+        long limit = percentile.getNanos();
+        if (limit < 0) {
+            return thresholdNanos == Long.MAX_VALUE ? -1 : thresholdNanos;
+        }
+        return Math.min(limit, thresholdNanos);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getReported() {
+        return reported.sum();
+    }
+}
@@ -0,0 +1,164 @@
+package hello.aop.exam.aop;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link hello.aop.exam.annotation.Trace} 호출 하나의 구간
+ * 시작한 스레드에서만 변경되고, 루트 구간이 끝난 뒤에는 더 이상 변경되지 않는다.
+ * 다른 스레드로 넘어간 작업의 구간은 부모 구간을 변경하지 않도록 remoteParent 로만 연결하고, 그 스레드의 루트로 따로 보고된다.
+ * childNanos 는 바로 아래 자식 구간들의 실행 시간 합이고, selfNanos 는 자식을 뺀 자신의 실행 시간이다.
+ */
+public final class Span {
+
+    public enum Outcome {
+        OK, ERROR
+    }
+
+    private final String name;
+    private final Span parent;
+    private final Span remoteParent;
+    private final int depth;
+    private final long startNanos;
+    private long endNanos;
+    private long childNanos;
+    private Outcome outcome;
+    private String error;
+    private List<Span> children = Collections.emptyList();
+    private Object owner;
+
+    Span(String name, Span parent, Span remoteParent, Object owner) {
+        this.name = name;
+        this.parent = parent;
+        this.remoteParent = remoteParent;
+        this.depth = parent != null ? parent.depth + 1 : remoteParent != null ? remoteParent.depth + 1 : 0;
+        this.owner = owner;
+        this.startNanos = System.nanoTime();
+    }
+
+    //샘플링되지 않은 루트 호출을 끝날 때 기록하기 위해 시작 시각을 지정한다.
+    Span(String name, long startNanos) {
+        this.name = name;
+        this.parent = null;
+        this.remoteParent = null;
+        this.depth = 0;
+        this.startNanos = startNanos;
+    }
+
+    boolean isOwnedBy(Object invocation) {
+        return owner == invocation;
+    }
+
+    void end(Outcome outcome, Throwable error) {
+        this.endNanos = System.nanoTime();
+        this.outcome = outcome;
+        this.error = error == null ? null : error.getClass().getName();
+        this.owner = null;
+        if (parent != null) {
+            parent.childNanos += getDurationNanos();
+            parent.addChild(this);
+        }
+    }
+
+    private void addChild(Span child) {
+        if (children.isEmpty()) {
+            children = new ArrayList<>(2);
+        }
+        children.add(child);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    //이 스레드에서 가장 바깥 구간인지, 다른 스레드에서 이어진 구간도 이 스레드에서는 루트로 보고한다.
+    public boolean isRoot() {
+        return parent == null;
+    }
+
+    /**
+     * 다른 스레드에서 이 구간을 시작시킨 구간, 없으면 null
+     * 그 구간은 다른 스레드에서 아직 진행 중일 수 있으므로 이름과 깊이만 사용해야 한다.
+     */
+    public Span getRemoteParent() {
+        return remoteParent;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getEndNanos() {
+        return endNanos;
+    }
+
+    public long getDurationNanos() {
+        return endNanos - startNanos;
+    }
+
+    public long getChildNanos() {
+        return childNanos;
+    }
+
+    public long getSelfNanos() {
+        return getDurationNanos() - childNanos;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    //실패했으면 예외 클래스 이름, 아니면 null
+    public String getError() {
+        return error;
+    }
+
+    //끝난 순서대로
+    public List<Span> getChildren() {
+        return Collections.unmodifiableList(children);
+    }
+
+    //getChildren() 과 달리 감싸는 리스트를 만들지 않는다.
+    public int getChildCount() {
+        return children.size();
+    }
+
+    public Span getChild(int index) {
+        return children.get(index);
+    }
+
+    /**
+     * 이 구간과 자식 구간들을 한 줄에 하나씩, 깊이만큼 들여 쓴 문자열
+     */
+    public String toTreeString() {
+        StringBuilder sb = new StringBuilder();
+        appendTree(sb, depth);
+        return sb.toString();
+    }
+
+    private void appendTree(StringBuilder sb, int rootDepth) {
+        sb.append("|   ".repeat(depth - rootDepth)).append(name)
+                .append(' ').append(TimeUnit.NANOSECONDS.toMicros(getDurationNanos())).append("us")
+                .append(" self=").append(TimeUnit.NANOSECONDS.toMicros(getSelfNanos())).append("us ")
+                .append(outcome);
+        if (error != null) {
+            sb.append(' ').append(error);
+        }
+        sb.append('\n');
+        for (Span child : children) {
+            child.appendTree(sb, rootDepth);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return name + " depth=" + depth + " duration=" + getDurationNanos() + "ns self=" + getSelfNanos()
+                + "ns outcome=" + outcome + (error == null ? "" : " error=" + error);
+    }
+}
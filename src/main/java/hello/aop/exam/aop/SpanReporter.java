@@ -0,0 +1,16 @@
+package hello.aop.exam.aop;
+
+/**
+ * 루트 구간이 끝나면 호출 트리 전체를 받는다.
+ * 루트 구간을 시작한 스레드에서 호출되므로 오래 걸리는 작업은 하지 않아야 한다.
+ */
+@FunctionalInterface
+public interface SpanReporter {
+
+    void report(Span root);
+
+    //DEBUG 로그로 호출 트리를 출력한다.
+    static SpanReporter logging() {
+        return LoggingSpanReporter.INSTANCE;
+    }
+}
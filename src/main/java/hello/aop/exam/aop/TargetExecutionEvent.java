@@ -0,0 +1,33 @@
+package hello.aop.exam.aop;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 어드바이스 체인 끝에서 대상 메서드를 실행한 시간과 결과 (JFR 이벤트)
+ * 같은 스레드에서 이 구간을 감싸는 {@link AdviceExecutionEvent} 시간과 비교하면 어드바이스가 더한 시간을 알 수 있다.
+ */
+@Name(TargetExecutionEvent.NAME)
+@Label("Target Execution")
+@Category({"hello.aop", "AOP"})
+@Description("어드바이스 체인 끝의 대상 메서드 실행")
+@Enabled(false)
+@StackTrace(false)
+public class TargetExecutionEvent extends Event {
+
+    public static final String NAME = "hello.aop.TargetExecution";
+
+    @Label("Join Point")
+    String joinPoint;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Exception")
+    String exception;
+}
@@ -0,0 +1,44 @@
+package hello.aop.exam.aop;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+/**
+ * 이벤트 하나를 한 줄로 기록한다.
+ * 형식: startNanos threadId depth durationNanos selfNanos outcome signature
+ */
+public class TextTraceEventWriter implements TraceEventWriter {
+
+    private static final int REGION_SIZE = 8 * 1024 * 1024;
+
+    private final MappedAppendFile file;
+    private final StringBuilder line = new StringBuilder(256);
+
+    public TextTraceEventWriter(Path path) throws IOException {
+        this.file = new MappedAppendFile(path, REGION_SIZE);
+    }
+
+    @Override
+    public void write(TraceEvent event) throws IOException {
+        line.setLength(0);
+        line.append(event.getStartNanos()).append(' ')
+                .append(event.getThreadId()).append(' ')
+                .append(event.getDepth()).append(' ')
+                .append(event.getDurationNanos()).append(' ')
+                .append(event.getSelfNanos()).append(' ')
+                .append(event.isError() ? event.getError() : "OK").append(' ')
+                .append(event.getName()).append('\n');
+        byte[] bytes = line.toString().getBytes(StandardCharsets.UTF_8);
+        file.put(bytes, 0, bytes.length);
+    }
+
+    @Override
+    public void endBatch() {
+    }
+
+    @Override
+    public void close() throws IOException {
+        file.close();
+    }
+}
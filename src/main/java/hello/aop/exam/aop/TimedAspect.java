@@ -0,0 +1,36 @@
+package hello.aop.exam.aop;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.annotation.Order;
+
+/**
+ * {@link hello.aop.exam.annotation.Timed} 메서드의 호출 지표를 기록한다.
+ * 지표는 "hello.aop:type=MethodMetrics,name=timed" MBean 으로 조회한다.
+ */
+@Aspect
+@Order(AspectOrder.TIMED)
+public class TimedAspect implements DisposableBean {
+
+    private final MethodMetricsRegistry registry = new MethodMetricsRegistry("timed");
+
+    public TimedAspect() {
+        registry.register();
+    }
+
+    @Around("@annotation(hello.aop.exam.annotation.Timed)")
+    public Object doTimed(ProceedingJoinPoint joinPoint) throws Throwable {
+        return registry.measure(joinPoint);
+    }
+
+    public MethodMetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    @Override
+    public void destroy() {
+        registry.unregister();
+    }
+}
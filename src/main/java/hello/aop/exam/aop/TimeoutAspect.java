@@ -0,0 +1,86 @@
+package hello.aop.exam.aop;
+
+import hello.aop.exam.annotation.Timeout;
+import lombok.extern.slf4j.Slf4j;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.annotation.Order;
+
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * joinPoint.proceed() 를 {@link Schedulers#workers()} 에서 실행하고 데드라인까지만 기다린다.
+ * 데드라인이 지나면 실행 중인 시도를 취소(interrupt)하고 {@link DeadlineExceededException} 을 발생시킨다.
+ *
+ * 데드라인은 현재 스레드에 연결되어 안쪽 호출로 전파된다.
+ * 안쪽 @Timeout 은 바깥 데드라인과 자신의 제한 시간 중 빠른 것을 사용하고,
+ * 바깥 데드라인이 이미 지났으면 대상을 호출하지 않고 바로 실패한다.
+ */
+@Slf4j
+@Aspect
+@Order(AspectOrder.TIMEOUT)
+public class TimeoutAspect {
+
+    @Around("@annotation(timeout)")
+    public Object doTimeout(ProceedingJoinPoint joinPoint, Timeout timeout) throws Throwable {
+        Deadline outer = Deadline.current();
+        if (outer != null && outer.isExpired()) {
+            throw new DeadlineExceededException(joinPoint.getSignature().toShortString());
+        }
+        Deadline deadline = Deadline.after(timeout.value(), TimeUnit.MILLISECONDS).earlier(outer);
+        if (deadline == outer) {
+            //바깥 데드라인이 더 빠르면 바깥에서 이미 시간을 재고 있으므로 스레드를 바꾸지 않는다.
+            return joinPoint.proceed();
+        }
+        return proceedWithin(joinPoint, deadline);
+    }
+
+    private Object proceedWithin(ProceedingJoinPoint joinPoint, Deadline deadline) throws Throwable {
+        Future<Object> future;
+        Deadline previous = Deadline.attach(deadline);
+        try {
+            future = submit(DetachedJoinPoint.of(joinPoint));
+            if (future == null) {
+                //여유 스레드가 없으면 호출자 스레드에서 실행한다. 이때 데드라인은 안쪽 호출의 빠른 실패에만 사용된다.
+                return joinPoint.proceed();
+            }
+        } finally {
+            Deadline.restore(previous);
+        }
+
+        try {
+            return future.get(deadline.remainingNanos(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            log.warn("[timeout] {} deadline exceeded", joinPoint.getSignature());
+            throw new DeadlineExceededException(joinPoint.getSignature().toShortString());
+        } catch (ExecutionException e) {
+            throw e.getCause();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        }
+    }
+
+    private Future<Object> submit(DetachedJoinPoint joinPoint) {
+        try {
+            return Schedulers.workers().submit(() -> {
+                try {
+                    return joinPoint.proceed();
+                } catch (Exception | Error e) {
+                    throw e;
+                } catch (Throwable e) {
+                    throw new UndeclaredThrowableException(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+}
@@ -1,16 +1,177 @@
 package hello.aop.exam.aop;
 
+import hello.aop.exam.annotation.Trace;
 import lombok.extern.slf4j.Slf4j;
-import org.aspectj.lang.JoinPoint;
+import org.aopalliance.intercept.MethodInvocation;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
+import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
+import org.springframework.core.annotation.AnnotationUtils;
 
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 로그가 꺼져 있으면 아무것도 만들지 않고 바로 반환한다.
+ * JoinPoint 를 받지 않고 현재 MethodInvocation 에서 메서드와 인자 배열을 그대로 꺼내서,
+ * getArgs() 의 배열 복사와 Signature 생성을 피한다.
+ * 시그니처 문자열은 메서드 별로 한 번만 만들고, 인자 배열은 로그가 실제로 출력될 때 로거가 문자열로 바꾼다.
+ * (어드바이스 본문에 한한 것이다. 프록시가 호출마다 만드는 MethodInvocation 과 JoinPoint 는 스프링 AOP 의 비용이다)
+ *
+ * 로그가 켜져 있으면 호출마다 {@link Span} 을 스레드 별 스택({@link TraceContext})에 쌓아서 호출 트리를 만들고,
+ * 루트 구간이 끝나면 {@link SpanReporter} 에 넘긴다.
+ * setLogLines(false) 이면 로그 레벨과 상관없이 구간만 만든다.
+ * 구간은 시작한 MethodInvocation 이 끝날 때만 닫아서, 시작할 때와 끝날 때 로그 레벨이 달라도 스택이 어긋나지 않는다.
+ *
+ * 루트 호출에서만 {@link TraceSampler} 로 샘플링을 정하고, 중첩된 호출은 루트의 결정을 따른다.
+ * 샘플링되지 않은 호출은 로그도 구간도 만들지 않고, 루트의 시작 시각과 중첩 깊이만 센다.
+ * 그 루트가 예외로 끝나거나 느리면 루트 구간 하나만 기록한다.
+ */
 @Slf4j
 @Aspect
 public class TraceAspect {
 
+    private final Map<Method, TraceSampler> samplers = new ConcurrentHashMap<>();
+    private volatile SpanReporter reporter = SpanReporter.logging();
+    private volatile boolean logLines = true;
+
     @Before("@annotation(hello.aop.exam.annotation.Trace)")
-    public void doTrace(JoinPoint joinPoint) {
-        log.info("[trace] {} args={}",joinPoint.getSignature(), joinPoint.getArgs());
+    public void doTrace() {
+        boolean logLine = logLines;
+        if (logLine && !log.isInfoEnabled()) {
+            return;
+        }
+        TraceContext context = TraceContext.current();
+        if (context.isUnsampled()) {
+            context.enterUnsampled();
+            return;
+        }
+        MethodInvocation invocation = ExposeInvocationInterceptor.currentInvocation();
+        TraceSampler sampler = samplerOf(invocation.getMethod());
+        if (context.isRoot() && !sampler.sample()) {
+            context.startUnsampled(invocation, sampler);
+            return;
+        }
+        if (logLine) {
+            log.info("[trace] {} args={}", sampler.getSignature(), invocation.getArguments());
+        }
+        context.push(sampler.getSignature(), invocation);
+    }
+
+    @AfterReturning("@annotation(hello.aop.exam.annotation.Trace)")
+    public void doTraceReturn() {
+        end(Span.Outcome.OK, null);
+    }
+
+    @AfterThrowing(value = "@annotation(hello.aop.exam.annotation.Trace)", throwing = "ex")
+    public void doTraceThrow(Throwable ex) {
+        end(Span.Outcome.ERROR, ex);
+    }
+
+    public TraceSampler getSampler(Method method) {
+        return samplers.get(method);
+    }
+
+    public void setReporter(SpanReporter reporter) {
+        this.reporter = reporter;
+    }
+
+    /**
+     * false 면 요청 스레드에서 [trace] 로그를 남기지 않고 구간만 만들어서 reporter 에 넘긴다.
+     * {@link TraceExporter} 와 함께 쓰면 요청 스레드에서 트레이스 I/O 가 없어진다.
+     */
+    public void setLogLines(boolean logLines) {
+        this.logLines = logLines;
+    }
+
+    /**
+     * 로그가 꺼져 있으면 doTrace() 가 아무것도 쌓지 않으므로, 진행 중인 구간이 없으면 MethodInvocation 도 꺼내지 않고 바로 반환한다.
+     * 로그 레벨 대신 스택을 보고 판단해서, 로그가 켜져 있을 때 시작한 구간은 도중에 꺼져도 닫는다.
+     */
+    private void end(Span.Outcome outcome, Throwable ex) {
+        TraceContext context = TraceContext.peek();
+        if (context == null) {
+            return;
+        }
+        if (!context.isActive()) {
+            return;
+        }
+        MethodInvocation invocation = ExposeInvocationInterceptor.currentInvocation();
+        if (context.isUnsampled()) {
+            endUnsampled(context, invocation, outcome, ex);
+            return;
+        }
+        Span span = context.top();
+        if (span == null || !span.isOwnedBy(invocation)) {
+            return;
+        }
+        context.pop();
+        span.end(outcome, ex);
+        if (span.isRoot()) {
+            report(span);
+        }
+    }
+
+    private void endUnsampled(TraceContext context, MethodInvocation invocation, Span.Outcome outcome, Throwable ex) {
+        if (!context.isUnsampledRoot(invocation)) {
+            context.exitUnsampled();
+            return;
+        }
+        TraceSampler sampler = context.unsampledSampler();
+        long start = context.unsampledStart();
+        context.endUnsampled();
+        if (sampler.shouldCapture(System.nanoTime() - start, ex)) {
+            Span root = new Span(sampler.getSignature(), start);
+            root.end(outcome, ex);
+            report(root);
+        }
+    }
+
+    private void report(Span root) {
+        try {
+            reporter.report(root);
+        } catch (RuntimeException e) {
+            log.warn("[trace] span reporter failed", e);
+        }
+    }
+
+    private TraceSampler samplerOf(Method method) {
+        TraceSampler sampler = samplers.get(method);
+        if (sampler == null) {
+            sampler = samplers.computeIfAbsent(method,
+                    key -> new TraceSampler(render(key), AnnotationUtils.findAnnotation(key, Trace.class)));
+        }
+        return sampler;
+    }
+
+    /**
+     * MethodSignature.toString() 과 같은 형식: "void hello.aop.exam.ExamService.request(String)"
+     */
+    static String render(Method method) {
+        StringBuilder sb = new StringBuilder();
+        appendType(sb, method.getReturnType(), false);
+        sb.append(' ');
+        appendType(sb, method.getDeclaringClass(), true);
+        sb.append('.').append(method.getName()).append('(');
+        Class<?>[] parameterTypes = method.getParameterTypes();
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            appendType(sb, parameterTypes[i], false);
+        }
+        return sb.append(')').toString();
+    }
+
+    private static void appendType(StringBuilder sb, Class<?> type, boolean longName) {
+        if (type.isArray()) {
+            appendType(sb, type.getComponentType(), longName);
+            sb.append("[]");
+            return;
+        }
+        sb.append(longName ? type.getName() : type.getSimpleName());
     }
 }
@@ -0,0 +1,138 @@
+package hello.aop.exam.aop;
+
+/**
+ * 스레드 별로 진행 중인 {@link Span} 스택
+ * 배열로 관리해서 push / pop 에 할당이 없고, 스레드 당 한 번만 만들어진다.
+ * 샘플링되지 않은 루트 호출이 진행 중이면 구간을 만들지 않고, 루트의 시작 시각과 중첩 깊이만 기록한다.
+ *
+ * 컨텍스트는 스레드에서 떼어내지 않고 재사용한다. pop() 과 endUnsampled() 가 끝난 호출의 상태를 지우므로,
+ * 루트 호출이 끝나면 isActive() 가 false 인 빈 상태로 돌아간다. (가장 최근에 끝난 구간만 남는다)
+ *
+ * 다른 스레드에서 넘어온 작업은 {@link ContextSnapshot} 이 넘긴 쪽의 상태(remote)를 연결한다.
+ * remote 가 구간이면 이 스레드의 첫 구간이 그 구간에 이어지고, 샘플링되지 않은 상태면 이 스레드의 호출도 기록하지 않는다.
+ */
+final class TraceContext {
+
+    private static final ThreadLocal<TraceContext> CURRENT = new ThreadLocal<>();
+    private static final Object UNSAMPLED = new Object();
+
+    private Span[] stack = new Span[16];
+    private int size;
+
+    private Object unsampledOwner;
+    private TraceSampler unsampledSampler;
+    private long unsampledStart;
+    private int unsampledDepth;
+    private Object remote;
+    private Span lastEnded;
+
+    static TraceContext current() {
+        TraceContext context = CURRENT.get();
+        if (context == null) {
+            context = new TraceContext();
+            CURRENT.set(context);
+        }
+        return context;
+    }
+
+    //아직 만들어지지 않았으면 null
+    static TraceContext peek() {
+        return CURRENT.get();
+    }
+
+    //이 스레드에서 가장 최근에 끝난 구간, 없으면 null
+    static Span lastEnded() {
+        TraceContext context = CURRENT.get();
+        return context == null ? null : context.lastEnded;
+    }
+
+    /**
+     * 다른 스레드로 넘길 상태: 진행 중인 구간, 샘플링되지 않은 상태, 또는 null
+     */
+    Object capture() {
+        if (unsampledOwner != null) {
+            return UNSAMPLED;
+        }
+        Span top = top();
+        return top != null ? top : remote;
+    }
+
+    //이전 값을 반환한다.
+    Object attachRemote(Object value) {
+        Object previous = remote;
+        remote = value;
+        return previous;
+    }
+
+    //샘플링을 정해야 하는 루트 호출인지
+    boolean isRoot() {
+        return size == 0 && remote == null;
+    }
+
+    Span push(String name, Object owner) {
+        Span parent = top();
+        Span remoteParent = parent == null && remote instanceof Span span ? span : null;
+        Span span = new Span(name, parent, remoteParent, owner);
+        if (size == stack.length) {
+            Span[] grown = new Span[size * 2];
+            System.arraycopy(stack, 0, grown, 0, size);
+            stack = grown;
+        }
+        stack[size++] = span;
+        return span;
+    }
+
+    Span top() {
+        return size == 0 ? null : stack[size - 1];
+    }
+
+    Span pop() {
+        Span span = stack[--size];
+        stack[size] = null;
+        lastEnded = span;
+        return span;
+    }
+
+    //끝나지 않은 구간이나 샘플링되지 않은 호출이 있는지
+    boolean isActive() {
+        return size > 0 || unsampledOwner != null || unsampledDepth > 0;
+    }
+
+    boolean isUnsampled() {
+        return unsampledOwner != null || (size == 0 && remote == UNSAMPLED);
+    }
+
+    void startUnsampled(Object owner, TraceSampler sampler) {
+        unsampledOwner = owner;
+        unsampledSampler = sampler;
+        unsampledStart = System.nanoTime();
+    }
+
+    boolean isUnsampledRoot(Object invocation) {
+        return unsampledOwner == invocation;
+    }
+
+    void enterUnsampled() {
+        unsampledDepth++;
+    }
+
+    void exitUnsampled() {
+        if (unsampledDepth > 0) {
+            unsampledDepth--;
+        }
+    }
+
+    TraceSampler unsampledSampler() {
+        return unsampledSampler;
+    }
+
+    long unsampledStart() {
+        return unsampledStart;
+    }
+
+    void endUnsampled() {
+        unsampledOwner = null;
+        unsampledSampler = null;
+        unsampledDepth = 0;
+    }
+}
@@ -0,0 +1,59 @@
+package hello.aop.exam.aop;
+
+/**
+ * {@link TraceRingBuffer} 의 슬롯, 미리 만들어 두고 값만 덮어써서 재사용한다.
+ * 생산자가 값을 채운 뒤 발행하고, 소비자는 발행된 슬롯만 읽는다. 소비자 밖으로 참조를 넘기면 안된다.
+ */
+public final class TraceEvent {
+
+    String name;
+    int depth;
+    long threadId;
+    long startNanos;
+    long durationNanos;
+    long selfNanos;
+    String error;
+
+    void set(Span span, long threadId) {
+        this.name = span.getName();
+        this.depth = span.getDepth();
+        this.threadId = threadId;
+        this.startNanos = span.getStartNanos();
+        this.durationNanos = span.getDurationNanos();
+        this.selfNanos = span.getSelfNanos();
+        this.error = span.getError();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getThreadId() {
+        return threadId;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public long getSelfNanos() {
+        return selfNanos;
+    }
+
+    //실패했으면 예외 클래스 이름, 아니면 null
+    public String getError() {
+        return error;
+    }
+
+    public boolean isError() {
+        return error != null;
+    }
+}
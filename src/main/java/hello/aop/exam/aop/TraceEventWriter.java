@@ -0,0 +1,16 @@
+package hello.aop.exam.aop;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * {@link TraceExporter} 의 소비자 스레드에서 이벤트를 파일 형식으로 기록한다.
+ * 한 스레드에서만 호출되고, 넘겨받은 이벤트는 반환한 뒤에 재사용되므로 보관하면 안된다.
+ */
+public interface TraceEventWriter extends Closeable {
+
+    void write(TraceEvent event) throws IOException;
+
+    //배치 하나를 다 쓴 뒤에 호출된다.
+    void endBatch() throws IOException;
+}
@@ -0,0 +1,124 @@
+package hello.aop.exam.aop;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 끝난 호출 트리를 {@link TraceRingBuffer} 에 넣고, 백그라운드 스레드 하나가 배치로 꺼내서 {@link TraceEventWriter} 로 기록한다.
+ * 요청 스레드는 슬롯에 값을 복사하기만 하고 I/O 를 하지 않는다.
+ * 버퍼가 가득 차면 기다리지 않고 이벤트를 버리고 dropped 를 증가시킨다.
+ * 소비자는 버퍼가 비면 잠깐 park 한다. 생산자가 소비자를 깨우지 않으므로 발행에 시스템 콜이 없다.
+ */
+@Slf4j
+public class TraceExporter implements SpanReporter, AutoCloseable {
+
+    private static final int BATCH_SIZE = 512;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final TraceRingBuffer buffer;
+    private final TraceEventWriter writer;
+    private final Thread consumer;
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder exported = new LongAdder();
+    private volatile boolean running = true;
+
+    public TraceExporter(int capacity, TraceEventWriter writer) {
+        this.buffer = new TraceRingBuffer(capacity);
+        this.writer = writer;
+        this.consumer = Schedulers.daemonThreadFactory("trace-exporter").newThread(this::drainLoop);
+        consumer.start();
+    }
+
+    /**
+     * 부모부터 자식 순서(전위 순회)로 넣는다.
+     */
+    @Override
+    public void report(Span root) {
+        offer(root, Thread.currentThread().getId());
+    }
+
+    private void offer(Span span, long threadId) {
+        long sequence = buffer.tryClaim();
+        if (sequence < 0) {
+            dropped.increment();
+        } else {
+            buffer.slot(sequence).set(span, threadId);
+            buffer.publish(sequence);
+        }
+        for (int i = 0; i < span.getChildCount(); i++) {
+            offer(span.getChild(i), threadId);
+        }
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    //파일에 기록한 이벤트 수
+    public long getExported() {
+        return exported.sum();
+    }
+
+    //아직 기록하지 않은 이벤트 수
+    public int getPending() {
+        return buffer.size();
+    }
+
+    /**
+     * 버퍼에 남은 이벤트를 모두 기록하고 파일을 닫는다.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        LockSupport.unpark(consumer);
+        consumer.join();
+    }
+
+    private void drainLoop() {
+        try {
+            while (running) {
+                if (drainBatch() == 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+            while (drainBatch() > 0) {
+                //남은 이벤트를 모두 기록한다.
+            }
+        } finally {
+            closeWriter();
+        }
+    }
+
+    private int drainBatch() {
+        int count = buffer.drain(this::write, BATCH_SIZE);
+        if (count > 0) {
+            try {
+                writer.endBatch();
+            } catch (IOException e) {
+                log.warn("[trace-exporter] end batch failed", e);
+            }
+            exported.add(count);
+        }
+        return count;
+    }
+
+    private void write(TraceEvent event) {
+        try {
+            writer.write(event);
+        } catch (IOException e) {
+            log.warn("[trace-exporter] write failed", e);
+        }
+    }
+
+    private void closeWriter() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.warn("[trace-exporter] close failed", e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package hello.aop.exam.aop;
+
+/**
+ * {@link BinaryTraceReader} 가 읽은 이벤트 하나, 다음 레코드를 읽을 때 덮어써서 재사용한다.
+ */
+public final class TraceRecord {
+
+    String name;
+    long threadId;
+    int depth;
+    long startNanos;
+    long durationNanos;
+    long selfNanos;
+    String error;
+
+    public String getName() {
+        return name;
+    }
+
+    public long getThreadId() {
+        return threadId;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    public long getSelfNanos() {
+        return selfNanos;
+    }
+
+    //실패했으면 예외 클래스 이름, 아니면 null
+    public String getError() {
+        return error;
+    }
+
+    public boolean isError() {
+        return error != null;
+    }
+}
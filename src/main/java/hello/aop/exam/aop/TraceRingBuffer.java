@@ -0,0 +1,81 @@
+package hello.aop.exam.aop;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Consumer;
+
+/**
+ * 여러 생산자, 하나의 소비자를 위한 고정 크기 링 버퍼
+ * 생산자는 tail 을 CAS 로 증가시켜 슬롯을 예약하고, 값을 채운 뒤 published 에 순번을 기록해서 발행한다.
+ * 소비자는 head 부터 발행된 슬롯을 순서대로 읽고, 다 읽은 뒤에 head 를 옮겨서 슬롯을 돌려준다.
+ * 빈 슬롯이 없으면 기다리지 않고 바로 실패한다. 슬롯은 미리 만들어 두므로 발행에 할당이 없다.
+ */
+final class TraceRingBuffer {
+
+    private final TraceEvent[] slots;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+
+    TraceRingBuffer(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity 는 2의 거듭제곱이어야 합니다: " + capacity);
+        }
+        this.slots = new TraceEvent[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new TraceEvent();
+        }
+        this.published = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * 예약한 순번, 빈 슬롯이 없으면 -1
+     */
+    long tryClaim() {
+        while (true) {
+            long current = tail.get();
+            if (current - head >= slots.length) {
+                return -1;
+            }
+            if (tail.compareAndSet(current, current + 1)) {
+                return current;
+            }
+        }
+    }
+
+    TraceEvent slot(long sequence) {
+        return slots[(int) sequence & mask];
+    }
+
+    void publish(long sequence) {
+        //0 은 비어 있다는 뜻이므로 순번 + 1 을 기록한다.
+        published.lazySet((int) sequence & mask, sequence + 1);
+    }
+
+    /**
+     * 발행된 이벤트를 최대 max 개까지 순서대로 handler 에 넘기고 넘긴 수를 반환한다. 소비자 스레드에서만 호출한다.
+     */
+    int drain(Consumer<TraceEvent> handler, int max) {
+        long sequence = head;
+        int count = 0;
+        while (count < max && published.get((int) sequence & mask) == sequence + 1) {
+            handler.accept(slots[(int) sequence & mask]);
+            sequence++;
+            count++;
+        }
+        if (count > 0) {
+            head = sequence;
+        }
+        return count;
+    }
+
+    int size() {
+        return (int) (tail.get() - head);
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+}
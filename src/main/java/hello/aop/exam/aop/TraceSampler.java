@@ -0,0 +1,107 @@
+package hello.aop.exam.aop;
+
+import hello.aop.exam.annotation.Trace;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link Trace} 메서드 하나의 시그니처와 루트 호출 샘플링 결정
+ * 초당 상한은 (초, 그 초에 추적한 수)를 long 하나에 담아서 CAS 로 갱신한다.
+ */
+public class TraceSampler {
+
+    private static final int COUNT_BITS = 24;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final String signature;
+    private final double sampleRate;
+    private final int maxPerSecond;
+    private final long slowNanos;
+    private final long originNanos = System.nanoTime();
+    private final AtomicLong window = new AtomicLong();
+    private final LongAdder sampled = new LongAdder();
+    private final LongAdder unsampled = new LongAdder();
+    private final LongAdder captured = new LongAdder();
+
+    TraceSampler(String signature, Trace trace) {
+        this(signature,
+                trace == null ? 1.0 : trace.sampleRate(),
+                trace == null ? 0 : trace.maxPerSecond(),
+                trace == null ? 0 : trace.slowMillis());
+    }
+
+    TraceSampler(String signature, double sampleRate, int maxPerSecond, long slowMillis) {
+        this.signature = signature;
+        this.sampleRate = sampleRate;
+        this.maxPerSecond = (int) Math.min(maxPerSecond, COUNT_MASK);
+        this.slowNanos = slowMillis <= 0 ? Long.MAX_VALUE : TimeUnit.MILLISECONDS.toNanos(slowMillis);
+    }
+
+    /**
+     * 루트 호출을 추적할지 정하고 sampled / unsampled 를 센다.
+     */
+    boolean sample() {
+        if (passesRate() && acquirePerSecond()) {
+            sampled.increment();
+            return true;
+        }
+        unsampled.increment();
+        return false;
+    }
+
+    //샘플링되지 않은 루트 호출을 끝날 때 기록해야 하는지
+    boolean shouldCapture(long durationNanos, Throwable error) {
+        if (error != null || durationNanos >= slowNanos) {
+            captured.increment();
+            return true;
+        }
+        return false;
+    }
+
+    public String getSignature() {
+        return signature;
+    }
+
+    public long getSampled() {
+        return sampled.sum();
+    }
+
+    public long getUnsampled() {
+        return unsampled.sum();
+    }
+
+    //샘플링되지 않았지만 예외나 느린 호출이라 기록한 수
+    public long getCaptured() {
+        return captured.sum();
+    }
+
+    private boolean passesRate() {
+        return sampleRate >= 1.0 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    private boolean acquirePerSecond() {
+        if (maxPerSecond <= 0) {
+            return true;
+        }
+        long second = (System.nanoTime() - originNanos) / 1_000_000_000L;
+        while (true) {
+            long current = window.get();
+            long currentSecond = current >>> COUNT_BITS;
+            long count = current & COUNT_MASK;
+            long next;
+            if (currentSecond != second) {
+                next = second << COUNT_BITS | 1;
+            } else if (count < maxPerSecond) {
+                next = current + 1;
+            } else {
+                return false;
+            }
+            if (window.compareAndSet(current, next)) {
+                return true;
+            }
+        }
+    }
+}
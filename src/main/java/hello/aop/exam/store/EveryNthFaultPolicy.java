@@ -0,0 +1,27 @@
+package hello.aop.exam.store;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 전체 호출 순번이 n 의 배수일 때 예외를 발생시킨다.
+ * 순번은 원자적으로 증가하므로 여러 스레드가 동시에 호출해도 정확히 n 번에 한 번 실패한다.
+ */
+class EveryNthFaultPolicy implements FaultPolicy {
+
+    private final int n;
+    private final AtomicLong seq = new AtomicLong();
+
+    EveryNthFaultPolicy(int n) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n 은 1 이상이어야 합니다: " + n);
+        }
+        this.n = n;
+    }
+
+    @Override
+    public void beforeSave(String itemId) {
+        if (seq.incrementAndGet() % n == 0) {
+            throw new IllegalStateException("예외 발생");
+        }
+    }
+}
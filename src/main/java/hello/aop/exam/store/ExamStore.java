@@ -0,0 +1,125 @@
+package hello.aop.exam.store;
+
+import java.util.HashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * itemId 별 저장 횟수(version)와 마지막 저장 시각을 보관하는 메모리 저장소
+ * 키의 해시로 세그먼트를 고르고, 세그먼트마다 락을 따로 잡아서 다른 세그먼트의 저장과 경합하지 않는다.
+ * 세그먼트 수는 CPU 수의 4배 이상인 2의 거듭제곱이다.
+ * 항목의 값은 long 필드로 보관해서 저장할 때 박싱이나 새 객체 할당이 없다. (처음 저장하는 키만 항목을 만든다)
+ */
+public class ExamStore {
+
+    private final Segment[] segments;
+    private final int mask;
+    private final LongAdder saves = new LongAdder();
+
+    public ExamStore() {
+        this(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    public ExamStore(int concurrency) {
+        int size = concurrency <= 1 ? 1 : Integer.highestOneBit(concurrency - 1) << 1;
+        this.segments = new Segment[size];
+        for (int i = 0; i < size; i++) {
+            segments[i] = new Segment();
+        }
+        this.mask = size - 1;
+    }
+
+    /**
+     * 저장하고 저장 후의 version 을 반환한다.
+     */
+    public long save(String itemId) {
+        long version = segmentFor(itemId).save(itemId, System.currentTimeMillis());
+        saves.increment();
+        return version;
+    }
+
+    /**
+     * 저장된 적이 없으면 0 을 반환한다.
+     */
+    public long version(String itemId) {
+        return segmentFor(itemId).version(itemId);
+    }
+
+    public long lastSavedAt(String itemId) {
+        return segmentFor(itemId).lastSavedAt(itemId);
+    }
+
+    public long getSaves() {
+        return saves.sum();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    int segmentCount() {
+        return segments.length;
+    }
+
+    private Segment segmentFor(String itemId) {
+        int h = itemId.hashCode();
+        return segments[(h ^ (h >>> 16)) & mask];
+    }
+
+    private static final class Segment extends ReentrantLock {
+        private final HashMap<String, Item> items = new HashMap<>();
+
+        long save(String itemId, long now) {
+            lock();
+            try {
+                Item item = items.get(itemId);
+                if (item == null) {
+                    item = new Item();
+                    items.put(itemId, item);
+                }
+                item.lastSavedAt = now;
+                return ++item.version;
+            } finally {
+                unlock();
+            }
+        }
+
+        long version(String itemId) {
+            lock();
+            try {
+                Item item = items.get(itemId);
+                return item == null ? 0 : item.version;
+            } finally {
+                unlock();
+            }
+        }
+
+        long lastSavedAt(String itemId) {
+            lock();
+            try {
+                Item item = items.get(itemId);
+                return item == null ? 0 : item.lastSavedAt;
+            } finally {
+                unlock();
+            }
+        }
+
+        int size() {
+            lock();
+            try {
+                return items.size();
+            } finally {
+                unlock();
+            }
+        }
+    }
+
+    private static final class Item {
+        private long version;
+        private long lastSavedAt;
+    }
+}
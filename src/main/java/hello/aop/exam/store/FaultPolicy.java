@@ -0,0 +1,21 @@
+package hello.aop.exam.store;
+
+/**
+ * 저장 직전에 호출되어서 예외를 발생시킬지 정한다.
+ * 재시도, 서킷 브레이커 등을 확인하기 위한 장애 주입용이며, 여러 스레드에서 동시에 호출된다.
+ */
+@FunctionalInterface
+public interface FaultPolicy {
+
+    void beforeSave(String itemId);
+
+    static FaultPolicy none() {
+        return itemId -> {
+        };
+    }
+
+    //n 번째 호출마다 IllegalStateException 을 발생시킨다.
+    static FaultPolicy everyNth(int n) {
+        return new EveryNthFaultPolicy(n);
+    }
+}
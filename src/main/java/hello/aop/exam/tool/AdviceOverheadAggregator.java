@@ -0,0 +1,201 @@
+package hello.aop.exam.tool;
+
+import hello.aop.exam.aop.AdviceExecutionEvent;
+import hello.aop.exam.aop.TargetExecutionEvent;
+import jdk.jfr.consumer.RecordedEvent;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JFR 녹화의 AdviceExecution, TargetExecution 이벤트를 어드바이스 별, 조인 포인트 별로 집계한다.
+ * 같은 스레드에서 시간 구간이 포함 관계인 이벤트를 부모-자식으로 보고, 자식 시간을 뺀 self 시간을 계산한다.
+ * 그래서 @Around 의 self 시간은 joinPoint.proceed() 바깥에서 어드바이스가 쓴 시간이고,
+ * 대상의 self 시간은 대상이 다른 프록시를 호출하며 거친 어드바이스 시간을 뺀 시간이다.
+ */
+public class AdviceOverheadAggregator {
+
+    private final Map<Long, List<Interval>> threads = new HashMap<>();
+    private Map<String, AdviceStats> adviceStats;
+    private Map<String, JoinPointStats> joinPointStats;
+
+    public void add(RecordedEvent event) {
+        String type = event.getEventType().getName();
+        boolean target = TargetExecutionEvent.NAME.equals(type);
+        if (!target && !AdviceExecutionEvent.NAME.equals(type)) {
+            return;
+        }
+        long threadId = event.getThread() == null ? -1 : event.getThread().getJavaThreadId();
+        Interval interval = new Interval(nanosOf(event.getStartTime()), nanosOf(event.getEndTime()),
+                event.getString("joinPoint"));
+        if (target) {
+            interval.error = "ERROR".equals(event.getString("outcome"));
+        } else {
+            interval.advice = event.getString("aspect") + " " + event.getString("kind") + " " + event.getString("advice");
+        }
+        threads.computeIfAbsent(threadId, id -> new ArrayList<>()).add(interval);
+        adviceStats = null;
+        joinPointStats = null;
+    }
+
+    //self 시간 합이 큰 순서
+    public List<AdviceStats> getAdviceStats() {
+        resolve();
+        List<AdviceStats> result = new ArrayList<>(adviceStats.values());
+        result.sort(Comparator.comparingLong(AdviceStats::getSelfNanos).reversed());
+        return result;
+    }
+
+    //어드바이스 self 시간 합이 큰 순서
+    public List<JoinPointStats> getJoinPointStats() {
+        resolve();
+        List<JoinPointStats> result = new ArrayList<>(joinPointStats.values());
+        result.sort(Comparator.comparingLong(JoinPointStats::getAdviceSelfNanos).reversed());
+        return result;
+    }
+
+    private void resolve() {
+        if (adviceStats != null) {
+            return;
+        }
+        adviceStats = new HashMap<>();
+        joinPointStats = new HashMap<>();
+        for (List<Interval> intervals : threads.values()) {
+            intervals.sort(Comparator.comparingLong((Interval i) -> i.start).thenComparingLong(i -> -i.end));
+            Deque<Interval> stack = new ArrayDeque<>();
+            for (Interval interval : intervals) {
+                interval.childNanos = 0;
+                while (!stack.isEmpty() && stack.peek().end <= interval.start) {
+                    stack.pop();
+                }
+                if (!stack.isEmpty()) {
+                    stack.peek().childNanos += interval.duration();
+                }
+                stack.push(interval);
+            }
+            for (Interval interval : intervals) {
+                JoinPointStats stats = joinPointStats.computeIfAbsent(interval.joinPoint, JoinPointStats::new);
+                if (interval.advice == null) {
+                    stats.addTarget(interval);
+                } else {
+                    adviceStats.computeIfAbsent(interval.advice, AdviceStats::new).add(interval);
+                    stats.adviceSelfNanos += interval.selfNanos();
+                }
+            }
+        }
+    }
+
+    private static long nanosOf(Instant instant) {
+        return instant.getEpochSecond() * 1_000_000_000L + instant.getNano();
+    }
+
+    private static final class Interval {
+        private final long start;
+        private final long end;
+        private final String joinPoint;
+        private String advice;
+        private boolean error;
+        private long childNanos;
+
+        private Interval(long start, long end, String joinPoint) {
+            this.start = start;
+            this.end = end;
+            this.joinPoint = joinPoint;
+        }
+
+        private long duration() {
+            return end - start;
+        }
+
+        private long selfNanos() {
+            return Math.max(0, duration() - childNanos);
+        }
+    }
+
+    public static class AdviceStats {
+        private final String name;
+        private long count;
+        private long totalNanos;
+        private long selfNanos;
+
+        private AdviceStats(String name) {
+            this.name = name;
+        }
+
+        private void add(Interval interval) {
+            count++;
+            totalNanos += interval.duration();
+            selfNanos += interval.selfNanos();
+        }
+
+        //"aspect kind adviceMethod"
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public long getSelfNanos() {
+            return selfNanos;
+        }
+    }
+
+    public static class JoinPointStats {
+        private final String name;
+        private long targetCount;
+        private long errorCount;
+        private long targetSelfNanos;
+        private long adviceSelfNanos;
+
+        private JoinPointStats(String name) {
+            this.name = name;
+        }
+
+        private void addTarget(Interval interval) {
+            targetCount++;
+            if (interval.error) {
+                errorCount++;
+            }
+            targetSelfNanos += interval.selfNanos();
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        //대상 실행 수, 재시도와 헤지 시도는 각각 센다.
+        public long getTargetCount() {
+            return targetCount;
+        }
+
+        public long getErrorCount() {
+            return errorCount;
+        }
+
+        public long getTargetSelfNanos() {
+            return targetSelfNanos;
+        }
+
+        public long getAdviceSelfNanos() {
+            return adviceSelfNanos;
+        }
+
+        //어드바이스 self 시간 / (어드바이스 self 시간 + 대상 self 시간)
+        public double getOverhead() {
+            long total = adviceSelfNanos + targetSelfNanos;
+            return total == 0 ? 0 : (double) adviceSelfNanos / total;
+        }
+    }
+}
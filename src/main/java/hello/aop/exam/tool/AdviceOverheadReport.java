@@ -0,0 +1,59 @@
+package hello.aop.exam.tool;
+
+import jdk.jfr.consumer.RecordingFile;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+
+/**
+ * JFR 녹화 파일에서 어드바이스가 대상 실행에 더한 시간을 요약한다.
+ * 녹화할 때 hello.aop.AdviceExecution, hello.aop.TargetExecution 이벤트를 켜고
+ * {@link hello.aop.exam.aop.AdviceEventPostProcessor} 를 등록해야 한다.
+ *
+ * 사용법: AdviceOverheadReport <jfr 파일>
+ */
+public class AdviceOverheadReport {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("usage: AdviceOverheadReport <jfr-file>");
+            System.exit(2);
+        }
+        print(aggregate(Path.of(args[0])), System.out);
+    }
+
+    public static AdviceOverheadAggregator aggregate(Path file) throws IOException {
+        AdviceOverheadAggregator aggregator = new AdviceOverheadAggregator();
+        try (RecordingFile recording = new RecordingFile(file)) {
+            while (recording.hasMoreEvents()) {
+                aggregator.add(recording.readEvent());
+            }
+        }
+        return aggregator;
+    }
+
+    public static void print(AdviceOverheadAggregator aggregator, PrintStream out) {
+        out.printf("%10s %12s %12s %14s  %s%n", "count", "total(us)", "self(us)", "self-mean(ns)", "advice");
+        for (AdviceOverheadAggregator.AdviceStats stats : aggregator.getAdviceStats()) {
+            out.printf("%10d %12d %12d %14d  %s%n",
+                    stats.getCount(),
+                    stats.getTotalNanos() / 1_000,
+                    stats.getSelfNanos() / 1_000,
+                    stats.getSelfNanos() / stats.getCount(),
+                    stats.getName());
+        }
+        out.println();
+        out.printf("%10s %14s %14s %9s %7s  %s%n", "targets", "target(ns)", "advice(ns)", "overhead", "error%", "join point");
+        for (AdviceOverheadAggregator.JoinPointStats stats : aggregator.getJoinPointStats()) {
+            long count = Math.max(1, stats.getTargetCount());
+            out.printf("%10d %14d %14d %8.1f%% %6.2f%%  %s%n",
+                    stats.getTargetCount(),
+                    stats.getTargetSelfNanos() / count,
+                    stats.getAdviceSelfNanos() / count,
+                    stats.getOverhead() * 100,
+                    stats.getErrorCount() * 100.0 / count,
+                    stats.getName());
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package hello.aop.exam.tool;
+
+import hello.aop.exam.aop.LatencyHistogram;
+import hello.aop.exam.aop.TraceRecord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * 트레이스 레코드를 메서드 별 통계와 collapsed stack 으로 집계한다.
+ * 레코드는 스레드 별로 부모가 자식보다 먼저 오는 순서(전위 순회)라고 가정하고, 스레드 별 깊이 스택으로 호출 경로를 복원한다.
+ * 스택은 마지막 레코드의 깊이까지만 유효하다. 전위 순회에서 자식은 부모보다 한 단계만 깊으므로,
+ * 깊이가 한 번에 여러 단계 깊어지면 다른 스레드에서 이어진 새 루트로 보고 조상 프레임을 모두 "?" 로 남긴다.
+ */
+public class TraceAggregator {
+
+    private final Map<String, MethodStats> stats = new HashMap<>();
+    private final Map<Long, FrameStack> stacks = new HashMap<>();
+    private final Map<String, Long> collapsed = new TreeMap<>();
+
+    public void add(TraceRecord record) {
+        stats.computeIfAbsent(record.getName(), MethodStats::new).add(record);
+
+        FrameStack stack = stacks.computeIfAbsent(record.getThreadId(), id -> new FrameStack());
+        int depth = record.getDepth();
+        stack.set(depth, frameOf(record.getName()));
+        StringBuilder path = new StringBuilder();
+        for (int i = 0; i <= depth; i++) {
+            if (i > 0) {
+                path.append(';');
+            }
+            path.append(stack.frames[i] == null ? "?" : stack.frames[i]);
+        }
+        collapsed.merge(path.toString(), record.getSelfNanos() / 1_000, Long::sum);
+    }
+
+    //호출 수가 많은 순서
+    public List<MethodStats> getStats() {
+        List<MethodStats> result = new ArrayList<>(stats.values());
+        result.sort(Comparator.comparingLong(MethodStats::getCount).reversed());
+        return result;
+    }
+
+    /**
+     * flame graph 도구(flamegraph.pl, speedscope 등)가 읽는 "frame;frame;frame value" 형식, value 는 self 시간(us)
+     */
+    public List<String> getCollapsedStacks() {
+        List<String> lines = new ArrayList<>(collapsed.size());
+        collapsed.forEach((path, micros) -> lines.add(path + " " + micros));
+        return lines;
+    }
+
+    //"void hello.aop.exam.ExamService.request(String)" -> "hello.aop.exam.ExamService.request(String)"
+    private static String frameOf(String signature) {
+        int space = signature.indexOf(' ');
+        return space < 0 ? signature : signature.substring(space + 1);
+    }
+
+    private static final class FrameStack {
+        private String[] frames = new String[16];
+        private int height;
+
+        //depth 의 프레임을 바꾸고 그보다 깊은 프레임은 버린다. 새 루트면 조상 프레임을 비운다.
+        private void set(int depth, String frame) {
+            if (depth >= frames.length) {
+                frames = Arrays.copyOf(frames, Math.max(depth + 1, frames.length * 2));
+            }
+            if (depth > height) {
+                Arrays.fill(frames, 0, depth, null);
+            }
+            frames[depth] = frame;
+            height = depth + 1;
+        }
+    }
+
+    public static class MethodStats {
+        private final String name;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+        private long count;
+        private long errors;
+        private long totalNanos;
+        private long maxNanos;
+
+        MethodStats(String name) {
+            this.name = name;
+        }
+
+        void add(TraceRecord record) {
+            count++;
+            if (record.isError()) {
+                errors++;
+            }
+            totalNanos += record.getDurationNanos();
+            maxNanos = Math.max(maxNanos, record.getDurationNanos());
+            histogram.record(record.getDurationNanos());
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getErrors() {
+            return errors;
+        }
+
+        public double getErrorRate() {
+            return count == 0 ? 0 : (double) errors / count;
+        }
+
+        public long getMeanNanos() {
+            return count == 0 ? 0 : totalNanos / count;
+        }
+
+        //버킷 상한 값이므로 실제 최대값을 넘지 않도록 자른다.
+        public long getPercentileNanos(double percentile) {
+            return Math.min(histogram.getPercentile(percentile), maxNanos);
+        }
+
+        public long getMaxNanos() {
+            return maxNanos;
+        }
+    }
+}
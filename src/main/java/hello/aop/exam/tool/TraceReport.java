@@ -0,0 +1,55 @@
+package hello.aop.exam.tool;
+
+import hello.aop.exam.aop.BinaryTraceReader;
+import hello.aop.exam.aop.TraceRecord;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 바이너리 트레이스 파일을 읽어서 메서드 별 통계를 출력한다.
+ *
+ * 사용법: TraceReport <trace 파일> [--collapsed <출력 파일>]
+ * --collapsed 를 주면 flame graph 용 collapsed stack 도 파일로 쓴다.
+ */
+public class TraceReport {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1 && !(args.length == 3 && "--collapsed".equals(args[1]))) {
+            System.err.println("usage: TraceReport <trace-file> [--collapsed <output-file>]");
+            System.exit(2);
+        }
+        TraceAggregator aggregator = aggregate(Path.of(args[0]));
+        print(aggregator, System.out);
+        if (args.length == 3) {
+            Files.write(Path.of(args[2]), aggregator.getCollapsedStacks());
+        }
+    }
+
+    public static TraceAggregator aggregate(Path file) throws IOException {
+        TraceAggregator aggregator = new TraceAggregator();
+        TraceRecord record = new TraceRecord();
+        try (BinaryTraceReader reader = new BinaryTraceReader(file)) {
+            while (reader.next(record)) {
+                aggregator.add(record);
+            }
+        }
+        return aggregator;
+    }
+
+    public static void print(TraceAggregator aggregator, PrintStream out) {
+        out.printf("%10s %10s %10s %10s %10s %7s  %s%n", "count", "mean(us)", "p50(us)", "p99(us)", "max(us)", "error%", "method");
+        for (TraceAggregator.MethodStats stats : aggregator.getStats()) {
+            out.printf("%10d %10d %10d %10d %10d %6.2f%%  %s%n",
+                    stats.getCount(),
+                    stats.getMeanNanos() / 1_000,
+                    stats.getPercentileNanos(50) / 1_000,
+                    stats.getPercentileNanos(99) / 1_000,
+                    stats.getMaxNanos() / 1_000,
+                    stats.getErrorRate() * 100,
+                    stats.getName());
+        }
+    }
+}
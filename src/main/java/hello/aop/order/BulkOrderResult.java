@@ -0,0 +1,94 @@
+package hello.aop.order;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 여러 항목을 한 번에 주문한 결과, 항목마다 성공 여부를 담는다.
+ * 일부 항목이 실패해도 나머지 항목은 저장되고, 실패한 항목은 예외 대신 여기에 남는다.
+ */
+public class BulkOrderResult {
+
+    private final List<ItemResult> items;
+
+    public BulkOrderResult(List<ItemResult> items) {
+        this.items = Collections.unmodifiableList(items);
+    }
+
+    //요청한 순서
+    public List<ItemResult> getItems() {
+        return items;
+    }
+
+    public int getSucceeded() {
+        int count = 0;
+        for (ItemResult item : items) {
+            if (item.isSuccess()) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public List<ItemResult> getFailures() {
+        List<ItemResult> failures = new ArrayList<>();
+        for (ItemResult item : items) {
+            if (!item.isSuccess()) {
+                failures.add(item);
+            }
+        }
+        return failures;
+    }
+
+    public boolean hasFailures() {
+        return getSucceeded() < items.size();
+    }
+
+    @Override
+    public String toString() {
+        List<String> failed = new ArrayList<>();
+        for (ItemResult failure : getFailures()) {
+            failed.add(failure.getItemName());
+        }
+        return "BulkOrderResult{items=" + items.size() + ", succeeded=" + getSucceeded() + ", failed=" + failed + "}";
+    }
+
+    public static class ItemResult {
+        private final String itemName;
+        private final String result;
+        private final RuntimeException error;
+
+        private ItemResult(String itemName, String result, RuntimeException error) {
+            this.itemName = itemName;
+            this.result = result;
+            this.error = error;
+        }
+
+        public static ItemResult success(String itemName, String result) {
+            return new ItemResult(itemName, result, null);
+        }
+
+        public static ItemResult failure(String itemName, RuntimeException error) {
+            return new ItemResult(itemName, null, error);
+        }
+
+        public String getItemName() {
+            return itemName;
+        }
+
+        //실패했으면 null
+        public String getResult() {
+            return result;
+        }
+
+        //성공했으면 null
+        public RuntimeException getError() {
+            return error;
+        }
+
+        public boolean isSuccess() {
+            return error == null;
+        }
+    }
+}
@@ -1,17 +1,168 @@
 package hello.aop.order;
 
+import hello.aop.order.batch.WriteBehindQueue;
+import hello.aop.order.index.OrderIndex;
+import hello.aop.order.store.OrderStore;
+import hello.aop.order.tx.Transaction;
+import hello.aop.order.tx.TransactionSynchronization;
+import hello.aop.order.tx.Transactions;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.stereotype.Repository;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 저장한 주문은 {@link OrderStore} 빈에 보관한다. 빈이 없으면 보관하지 않는 OrderStore.noop() 을 사용한다.
+ * 보관할 때 {@link OrderIndex} 도 함께 갱신한다. 빈이 없으면 새 인덱스를 만든다.
+ * (재시작할 때 인덱스를 복구하려면 OrderIndex 빈을 등록하고 SegmentOrderStore 를 열 때 그 인덱스에 다시 기록하면 된다)
+ * 트랜잭션 안에서 저장하면 커밋된 뒤에 보관하고, 롤백되면 보관하지 않는다.
+ */
 @Slf4j
 @Repository
-public class OrderRepository {
+public class OrderRepository implements DisposableBean {
+
+    private final WriteBehindQueue<String> writeBehind = new WriteBehindQueue<>(
+            "order-write-behind", 1024, 64, 5, 100, TimeUnit.MILLISECONDS, this::writeBatch);
+    private final LongAdder written = new LongAdder();
+    private final OrderStore store;
+    private final OrderIndex index;
+
+    public OrderRepository(ObjectProvider<OrderStore> store, ObjectProvider<OrderIndex> index) {
+        this.store = store.getIfAvailable(OrderStore::noop);
+        this.index = index.getIfAvailable(OrderIndex::new);
+    }
 
     public String save(String itemName) {
         log.info("[OrderRepository] 실행");
+        String result = saveItem(itemName);
+        store(List.of(itemName));
+        return result;
+    }
+
+    /**
+     * 여러 항목을 한 번의 호출로 저장한다. 프록시와 어드바이스는 항목 수와 상관없이 한 번만 거친다.
+     * 항목의 실패("ex")는 예외를 던지지 않고 결과에 남기므로, 나머지 항목은 같은 트랜잭션에서 저장된다.
+     */
+    public BulkOrderResult saveAll(List<String> itemNames) {
+        log.info("[OrderRepository] 실행 items={}", itemNames.size());
+        List<BulkOrderResult.ItemResult> results = new ArrayList<>(itemNames.size());
+        List<String> saved = new ArrayList<>(itemNames.size());
+        for (String itemName : itemNames) {
+            try {
+                results.add(BulkOrderResult.ItemResult.success(itemName, saveItem(itemName)));
+                saved.add(itemName);
+            } catch (IllegalStateException e) {
+                results.add(BulkOrderResult.ItemResult.failure(itemName, e));
+            }
+        }
+        if (!saved.isEmpty()) {
+            store(saved);
+        }
+        return new BulkOrderResult(results);
+    }
+
+    /**
+     * 쓰기 지연 저장, 검증은 save() 와 같이 호출한 스레드에서 바로 하고 기록은 배치로 모아서 한다.
+     * "ex" 는 save() 와 같이 바로 예외가 발생하므로 트랜잭션 롤백과 예외 어드바이스는 그대로 동작한다.
+     * 트랜잭션 안에서 호출하면 커밋된 뒤에 큐에 넣고, 롤백되면 핸들은 취소된다.
+     * 큐가 가득 차 있으면 잠깐 기다리고, 그래도 자리가 없으면 WriteBehindFullException 이 발생한다.
+     * (트랜잭션 안에서는 커밋 뒤에 큐에 넣으므로 핸들이 그 예외로 완료된다)
+     */
+    public CompletableFuture<String> saveAsync(String itemName) {
+        log.info("[OrderRepository] 실행");
+        if ("ex".equals(itemName)) {
+            throw new IllegalStateException("예외 발생");
+        }
+        Transaction transaction = Transactions.current();
+        if (transaction == null) {
+            return writeBehind.enqueue(itemName).thenApply(written -> "ok");
+        }
+        transaction.write("order", itemName);
+        CompletableFuture<String> result = new CompletableFuture<>();
+        transaction.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    writeBehind.enqueue(itemName).whenComplete((written, ex) -> {
+                        if (ex == null) {
+                            result.complete("ok");
+                        } else {
+                            result.completeExceptionally(ex);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+
+            @Override
+            public void afterRollback() {
+                result.completeExceptionally(new CancellationException("트랜잭션 롤백 itemName=" + itemName));
+            }
+        });
+        return result;
+    }
+
+    //쓰기 지연 저장으로 기록된 항목 수
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public WriteBehindQueue<String> getWriteBehind() {
+        return writeBehind;
+    }
+
+    public OrderIndex getIndex() {
+        return index;
+    }
+
+    @Override
+    public void destroy() throws InterruptedException {
+        writeBehind.close();
+    }
+
+    private String saveItem(String itemName) {
         if ("ex".equals(itemName)) {
             throw new IllegalStateException("예외 발생");
         }
+        Transaction transaction = Transactions.current();
+        if (transaction != null) {
+            transaction.write("order", itemName);
+        }
         return "ok";
     }
+
+    private void store(List<String> itemNames) {
+        Transaction transaction = Transactions.current();
+        if (transaction == null) {
+            append(itemNames);
+            return;
+        }
+        transaction.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                append(itemNames);
+            }
+        });
+    }
+
+    //저장소와 인덱스에 같은 주문 시각을 기록한다.
+    private void append(List<String> itemNames) {
+        long timestamp = System.currentTimeMillis();
+        store.append(itemNames, timestamp);
+        index.record(itemNames, timestamp);
+    }
+
+    private void writeBatch(List<String> itemNames) {
+        log.debug("[OrderRepository] write-behind batch size={}", itemNames.size());
+        append(itemNames);
+        written.add(itemNames.size());
+    }
 }
@@ -4,6 +4,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Slf4j
 @Service
 @RequiredArgsConstructor
@@ -15,4 +17,13 @@ public class OrderService {
         log.info("[OrderService] 실행");
         orderRepository.save(itemName);
     }
+
+    /**
+     * 여러 항목을 한 번에 주문한다. 트랜잭션과 어드바이스는 항목마다가 아니라 호출 한 번에 한 번 적용된다.
+     * 일부 항목이 실패해도 예외를 던지지 않고 결과에 항목별로 남긴다.
+     */
+    public BulkOrderResult orderItems(List<String> itemNames) {
+        log.info("[OrderService] 실행 items={}", itemNames.size());
+        return orderRepository.saveAll(itemNames);
+    }
 }
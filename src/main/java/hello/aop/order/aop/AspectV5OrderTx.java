@@ -1,9 +1,13 @@
 package hello.aop.order.aop;
 
+import hello.aop.order.tx.Transaction;
+import hello.aop.order.tx.TransactionManager;
+import hello.aop.order.tx.Transactions;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.core.annotation.Order;
 
 /**
@@ -15,22 +19,42 @@ import org.springframework.core.annotation.Order;
  * 현재 로그를 남기는 순서가 아마도 [ doLog() doTransaction() ] 이 순서로 남을 것이다.
  * (참고로 이 순서로 실행되지 않을 수 있다. JVM이나 실행 환경에 따라 달라질 수도 있다.)
  * 로그를 남기는 순서를 바꾸어서 [ doTransaction() doLog() ] 트랜잭션이 먼저 처리되고, 이후에 로그가 남도록 변경해보자.
+ *
+ * 트랜잭션 작업은 {@link TransactionManager} 빈에 맡긴다. 빈이 없으면 경계만 만드는 TransactionManager.noop() 을 사용한다.
+ * 이미 진행 중인 트랜잭션이 있으면 새로 시작하지 않고 참여한다.
  */
 @Slf4j
 @Aspect
 @Order(1)
 public class AspectV5OrderTx {
+
+    private final TransactionManager transactionManager;
+
+    public AspectV5OrderTx(ObjectProvider<TransactionManager> transactionManager) {
+        this.transactionManager = transactionManager.getIfAvailable(TransactionManager::noop);
+    }
+
     @Around("hello.aop.order.aop.Pointcuts.orderAndService()")
     public Object doTransaction(ProceedingJoinPoint joinPoint) throws Throwable {
+        Transaction transaction = Transactions.current() == null ? transactionManager.begin() : null;
         try {
             log.info("[트랜잭션 시작] {}", joinPoint.getSignature());
             Object result = joinPoint.proceed();
+            if (transaction != null) {
+                transaction.commit();
+            }
             log.info("[트랜잭션 커밋] {}", joinPoint.getSignature());
             return result;
         } catch (Exception e) {
+            if (transaction != null) {
+                transaction.rollback();
+            }
             log.info("[트랜잭션 롤백] {}", joinPoint.getSignature());
             throw e;
         } finally {
+            if (transaction != null) {
+                transaction.close();
+            }
             log.info("[리소스 릴리즈] {}", joinPoint.getSignature());
         }
     }
@@ -1,9 +1,14 @@
 package hello.aop.order.aop;
 
+import hello.aop.exam.aop.ErrorAggregator;
+import hello.aop.exam.aop.ErrorFingerprint;
 import lombok.extern.slf4j.Slf4j;
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.*;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.util.concurrent.TimeUnit;
 
 /**
  * 참고 정보 획득
@@ -61,7 +66,18 @@ import org.aspectj.lang.annotation.*;
  */
 @Slf4j
 @Aspect
-public class AspectV6Advice {
+public class AspectV6Advice implements DisposableBean {
+
+    //다른 애스펙트의 예외와 섞이지 않도록 이 애스펙트만의 집계기를 둔다.
+    private final ErrorAggregator errors;
+
+    public AspectV6Advice() {
+        this(new ErrorAggregator("aspectV6", 1, TimeUnit.MINUTES));
+    }
+
+    public AspectV6Advice(ErrorAggregator errors) {
+        this.errors = errors.start();
+    }
 
     /**
      * {@link Around}
@@ -132,10 +148,15 @@ public class AspectV6Advice {
      * : 메서드 실행이 예외를 던져서 종료될 때 실행
      * : throwing 속성에 사용된 이름은 어드바이스 메서드의 매개변수 이름과 일치해야 한다.
      * : throwing 절에 지정된 타입과 맞는 예외를 대상으로 실행한다. (부모 타입을 지정하면 모든 자식 타입은 인정된다.)
+     * : 같은 원인의 예외는 윈도우마다 처음 한 번만 스택 트레이스를 남기고, 나머지는 {@link ErrorAggregator} 가 요약한다.
      */
     @AfterThrowing(value = "hello.aop.order.aop.Pointcuts.orderAndService()", throwing = "ex")
     public void doAfterThrowing(JoinPoint joinPoint, Throwable ex) throws Throwable {
-        log.info("[ex] {} message={}", joinPoint.getSignature(), ex.getMessage(), ex);//ex 값을 @Around 처럼 조작하지는 못한다.
+        if (errors.record(ErrorFingerprint.of(ex))) {
+            log.info("[ex] {} message={}", joinPoint.getSignature(), ex.getMessage(), ex);//ex 값을 @Around 처럼 조작하지는 못한다.
+        } else {
+            log.info("[ex] {} message={}", joinPoint.getSignature(), ex.getMessage());
+        }
         throw ex;
     }
 
@@ -149,4 +170,13 @@ public class AspectV6Advice {
     public void doAfterThrowing(JoinPoint joinPoint) {
         log.info("[after] {}", joinPoint.getSignature());
     }
+
+    public ErrorAggregator getErrorAggregator() {
+        return errors;
+    }
+
+    @Override
+    public void destroy() {
+        errors.stop();
+    }
 }
@@ -0,0 +1,39 @@
+package hello.aop.order.aop;
+
+import hello.aop.exam.aop.MethodMetricsRegistry;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.annotation.Order;
+
+/**
+ * 애노테이션을 붙이지 않고 기존 포인트컷으로 호출 지표를 기록한다.
+ * allOrder() 와 allService() 에 해당하는 모든 메서드가 대상이고, 로그는 남기지 않는다.
+ * 지표는 "hello.aop:type=MethodMetrics,name=order" MBean 으로 조회한다.
+ * 다른 애스펙트보다 바깥에서 실행되어야 어드바이스에 걸린 시간까지 포함되므로 @Order 를 가장 작게 둔다.
+ */
+@Aspect
+@Order(0)
+public class AspectV7Metrics implements DisposableBean {
+
+    private final MethodMetricsRegistry registry = new MethodMetricsRegistry("order");
+
+    public AspectV7Metrics() {
+        registry.register();
+    }
+
+    @Around("hello.aop.order.aop.Pointcuts.allOrder() || hello.aop.order.aop.Pointcuts.allService()")
+    public Object doMetrics(ProceedingJoinPoint joinPoint) throws Throwable {
+        return registry.measure(joinPoint);
+    }
+
+    public MethodMetricsRegistry getRegistry() {
+        return registry;
+    }
+
+    @Override
+    public void destroy() {
+        registry.unregister();
+    }
+}
@@ -0,0 +1,36 @@
+package hello.aop.order.aop;
+
+import hello.aop.exam.aop.ProfilingAspect;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+
+import java.lang.reflect.Method;
+
+/**
+ * 추상 애스펙트의 포인트컷을 구현해서 대상을 정할 수 있다.
+ * ProfilingAspect 의 profiled() 를 orderAndService() 로 구현해서, 애노테이션 없이 주문 서비스의 CPU 시간과 할당량을 집계한다.
+ * 호출 당 할당 예산은 생성자로 받는다.
+ */
+@Aspect
+public class AspectV8Profile extends ProfilingAspect {
+
+    private final long allocationBudget;
+
+    public AspectV8Profile() {
+        this(64 * 1024);
+    }
+
+    public AspectV8Profile(long allocationBudget) {
+        this.allocationBudget = allocationBudget;
+    }
+
+    @Override
+    @Pointcut("hello.aop.order.aop.Pointcuts.orderAndService()")
+    public void profiled() {
+    }
+
+    @Override
+    protected long allocationBudget(Method method) {
+        return allocationBudget;
+    }
+}
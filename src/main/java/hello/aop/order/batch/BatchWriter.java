@@ -0,0 +1,13 @@
+package hello.aop.order.batch;
+
+import java.util.List;
+
+/**
+ * {@link WriteBehindQueue} 가 모은 항목을 한 번에 기록한다.
+ * 예외를 던지면 배치의 모든 항목이 실패한다.
+ */
+@FunctionalInterface
+public interface BatchWriter<T> {
+
+    void write(List<T> batch) throws Exception;
+}
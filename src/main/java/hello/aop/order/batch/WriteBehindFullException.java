@@ -0,0 +1,17 @@
+package hello.aop.order.batch;
+
+/**
+ * 쓰기 지연 큐가 maxWait 동안 가득 차 있어서 넣지 못했다.
+ * 과부하 상황에서 대량으로 발생하므로 스택 트레이스를 만들지 않는다.
+ */
+public class WriteBehindFullException extends IllegalStateException {
+
+    public WriteBehindFullException(String name) {
+        super("쓰기 지연 큐 가득 참: " + name);
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -0,0 +1,268 @@
+package hello.aop.order.batch;
+
+import hello.aop.exam.aop.Schedulers;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 쓰기 지연(write-behind) 큐
+ * 호출자는 항목을 넣고 바로 완료 핸들(CompletableFuture)을 받는다.
+ * 플러셔 스레드 하나가 batchSize 개가 모이거나 가장 오래된 항목이 maxDelay 만큼 기다렸을 때 {@link BatchWriter} 로 한 번에 기록하고,
+ * 배치의 모든 핸들을 완료한다. 핸들은 플러셔 스레드에서 완료되므로 오래 걸리는 후속 작업은 *Async 메서드로 연결한다.
+ *
+ * 큐는 고정 크기 배열이고, 생산자는 tail 을 CAS 로 증가시켜 슬롯을 예약한 뒤 published 에 순번을 기록해서 발행한다.
+ * 큐가 가득 차면 생산자는 maxWait 동안 점점 길게 park 하면서 기다리고(역압), 그래도 자리가 없으면 {@link WriteBehindFullException} 이 발생한다.
+ * 플러셔는 할 일이 없으면 wakeAt 에 기다리는 순번을 적고 park 한다. 비어 있으면 head, 배치를 모으는 중이면 배치를 채울 순번이다.
+ * 생산자는 그 순번 이상을 발행했을 때만 unpark 하므로, 대부분의 넣기에는 시스템 콜이 없다.
+ * 드물게 순번이 뒤섞여 발행되면 배치가 찼는데도 maxDelay 까지 기다릴 수 있다.
+ * 플러셔 스레드는 처음 항목을 넣을 때 시작한다.
+ *
+ * 넣는 중인 생산자 수(producers)를 세어서, close() 와 플러셔는 running 을 끈 뒤 넣는 중인 항목까지 기록하고 끝낸다.
+ * 생산자는 producers 를 올린 뒤에 running 을 확인하므로, 그 사이에 닫혀도 항목이 버려지거나 핸들이 완료되지 않는 일이 없다.
+ */
+@Slf4j
+public class WriteBehindQueue<T> implements AutoCloseable {
+
+    private static final long MAX_BACKOFF_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final String name;
+    private final Object[] items;
+    private final CompletableFuture<?>[] futures;
+    private final AtomicLongArray published;
+    private final int mask;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    private final long maxWaitNanos;
+    private final BatchWriter<T> writer;
+    private final AtomicLong tail = new AtomicLong();
+    private volatile long head;
+    private volatile long wakeAt = Long.MAX_VALUE;
+
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final Thread flusher;
+    private volatile boolean running = true;
+    private final AtomicInteger producers = new AtomicInteger();
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder written = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+
+    /**
+     * @param capacity 2의 거듭제곱
+     * @param maxDelay 첫 항목을 넣은 뒤 배치를 기록하기까지 기다리는 최대 시간
+     * @param maxWait 큐가 가득 찼을 때 생산자가 기다리는 최대 시간, 0 이면 기다리지 않는다.
+     */
+    public WriteBehindQueue(String name, int capacity, int batchSize, long maxDelay, long maxWait, TimeUnit unit,
+                            BatchWriter<T> writer) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity 는 2의 거듭제곱이어야 합니다: " + capacity);
+        }
+        if (batchSize <= 0 || batchSize > capacity) {
+            throw new IllegalArgumentException("batchSize 는 1 ~ capacity 사이여야 합니다: " + batchSize);
+        }
+        this.name = name;
+        this.items = new Object[capacity];
+        this.futures = new CompletableFuture<?>[capacity];
+        this.published = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+        this.batchSize = batchSize;
+        this.maxDelayNanos = unit.toNanos(maxDelay);
+        this.maxWaitNanos = unit.toNanos(maxWait);
+        this.writer = writer;
+        this.flusher = Schedulers.daemonThreadFactory(name).newThread(this::flushLoop);
+    }
+
+    /**
+     * @return 항목이 기록되면 완료되고, 배치 기록이 실패하면 그 예외로 완료되는 핸들
+     * @throws WriteBehindFullException maxWait 동안 큐에 자리가 없을 때
+     */
+    public CompletableFuture<Void> enqueue(T item) {
+        producers.incrementAndGet();
+        try {
+            if (!running) {
+                throw new IllegalStateException("닫힌 쓰기 지연 큐입니다: " + name);
+            }
+            if (!started.get() && started.compareAndSet(false, true)) {
+                flusher.start();
+            }
+            long sequence = claim();
+            int index = (int) sequence & mask;
+            CompletableFuture<Void> future = new CompletableFuture<>();
+            items[index] = item;
+            futures[index] = future;
+            //0 은 비어 있다는 뜻이므로 순번 + 1 을 기록한다. 뒤에서 읽는 wakeAt 보다 먼저 보여야 하므로 lazySet 이 아니다.
+            published.set(index, sequence + 1);
+            if (sequence >= wakeAt) {
+                LockSupport.unpark(flusher);
+            }
+            return future;
+        } finally {
+            producers.decrementAndGet();
+        }
+    }
+
+    //아직 기록하지 않은 항목 수
+    public int getPending() {
+        return (int) (tail.get() - head);
+    }
+
+    public long getRejected() {
+        return rejected.sum();
+    }
+
+    public long getWritten() {
+        return written.sum();
+    }
+
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    public long getBatches() {
+        return batches.sum();
+    }
+
+    /**
+     * 남은 항목을 모두 기록한 뒤에 반환한다.
+     */
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        while (producers.get() > 0) {
+            //running 을 보기 전에 들어온 생산자가 발행을 마칠 때까지
+            Thread.yield();
+        }
+        if (started.get()) {
+            LockSupport.unpark(flusher);
+            flusher.join();
+        }
+    }
+
+    private long claim() {
+        long deadline = 0;
+        long backoff = 1_000;
+        while (true) {
+            long current = tail.get();
+            if (current - head < items.length) {
+                if (tail.compareAndSet(current, current + 1)) {
+                    return current;
+                }
+                continue;
+            }
+            long now = System.nanoTime();
+            if (deadline == 0) {
+                deadline = now + maxWaitNanos;
+            }
+            if (now - deadline >= 0) {
+                rejected.increment();
+                throw new WriteBehindFullException(name);
+            }
+            LockSupport.parkNanos(Math.min(backoff, deadline - now));
+            backoff = Math.min(backoff * 2, MAX_BACKOFF_NANOS);
+        }
+    }
+
+    private void flushLoop() {
+        List<T> batch = new ArrayList<>(batchSize);
+        List<CompletableFuture<?>> handles = new ArrayList<>(batchSize);
+        long firstAt = 0;
+        while (true) {
+            //넣는 중인 생산자가 없을 때 닫혔으면 이번 drain 이 마지막이다.
+            boolean stopping = !running && producers.get() == 0;
+            boolean drained = drain(batch, handles);
+            if (drained && firstAt == 0) {
+                firstAt = System.nanoTime();
+            }
+            if (batch.isEmpty()) {
+                if (stopping) {
+                    return;
+                }
+                await(head, 0);
+                continue;
+            }
+            long waited = System.nanoTime() - firstAt;
+            if (batch.size() < batchSize && waited < maxDelayNanos && !stopping) {
+                //새로 옮긴 항목이 없으면 head 가 비어 있는 것이므로 head 를 기다린다.
+                long target = drained ? head + batchSize - batch.size() - 1 : head;
+                await(target, maxDelayNanos - waited);
+                continue;
+            }
+            write(batch, handles);
+            batch.clear();
+            handles.clear();
+            firstAt = 0;
+        }
+    }
+
+    /**
+     * target 이상의 순번이 발행되거나 timeoutNanos 가 지날 때까지 park 한다. timeoutNanos 가 0 이면 시간 제한이 없다.
+     * wakeAt 을 쓴 뒤에 head 를 다시 확인해서, 그 사이에 발행된 항목을 놓치고 잠들지 않는다.
+     */
+    private void await(long target, long timeoutNanos) {
+        wakeAt = target;
+        long sequence = head;
+        if (!running) {
+            //닫히는 중이면 넣는 중인 생산자가 끝나기를 기다린다.
+            Thread.yield();
+        } else if (published.get((int) sequence & mask) != sequence + 1) {
+            if (timeoutNanos > 0) {
+                LockSupport.parkNanos(this, timeoutNanos);
+            } else {
+                LockSupport.park(this);
+            }
+        }
+        wakeAt = Long.MAX_VALUE;
+    }
+
+    /**
+     * 발행된 항목을 batchSize 까지 옮기고, 하나라도 옮겼으면 true
+     */
+    @SuppressWarnings("unchecked")
+    private boolean drain(List<T> batch, List<CompletableFuture<?>> handles) {
+        long sequence = head;
+        int before = batch.size();
+        while (batch.size() < batchSize && published.get((int) sequence & mask) == sequence + 1) {
+            int index = (int) sequence & mask;
+            batch.add((T) items[index]);
+            handles.add(futures[index]);
+            items[index] = null;
+            futures[index] = null;
+            sequence++;
+        }
+        if (batch.size() > before) {
+            head = sequence;
+            return true;
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private void write(List<T> batch, List<CompletableFuture<?>> handles) {
+        batches.increment();
+        try {
+            writer.write(batch);
+        } catch (Throwable e) {
+            failed.add(batch.size());
+            log.warn("[write-behind] {} batch failed size={}", name, batch.size(), e);
+            for (CompletableFuture<?> handle : handles) {
+                handle.completeExceptionally(e);
+            }
+            return;
+        }
+        written.add(batch.size());
+        for (CompletableFuture<?> handle : handles) {
+            ((CompletableFuture<Void>) handle).complete(null);
+        }
+    }
+}
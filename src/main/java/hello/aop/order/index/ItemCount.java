@@ -0,0 +1,35 @@
+package hello.aop.order.index;
+
+/**
+ * 상품별 주문 수와 마지막 주문 시각
+ */
+public class ItemCount {
+
+    private final String itemName;
+    private final long count;
+    private final long lastOrderedAt;
+
+    public ItemCount(String itemName, long count, long lastOrderedAt) {
+        this.itemName = itemName;
+        this.count = count;
+        this.lastOrderedAt = lastOrderedAt;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    //epoch millis
+    public long getLastOrderedAt() {
+        return lastOrderedAt;
+    }
+
+    @Override
+    public String toString() {
+        return itemName + "=" + count;
+    }
+}
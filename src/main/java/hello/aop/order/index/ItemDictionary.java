@@ -0,0 +1,111 @@
+package hello.aop.order.index;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 상품 이름에 0 부터 차례로 int id 를 붙인다. (인터닝) 한 번 붙인 id 는 바뀌지 않는다.
+ * 이름 -> id 는 개방 주소법(선형 탐사) 테이블이고, 조회는 락 없이 한다.
+ * 새 이름 등록만 락을 잡는다. 상품 종류는 주문 수보다 훨씬 적으므로 등록은 드물다.
+ * 슬롯에 id 를 먼저 쓰고 이름을 volatile 로 쓰므로, 이름이 보이는 슬롯의 id 는 항상 온전하다.
+ */
+public class ItemDictionary {
+
+    public static final int MISSING = -1;
+
+    private volatile Table table = new Table(16);
+    private volatile String[] names = new String[16];
+    private volatile int size;
+
+    /**
+     * @return 등록되지 않은 이름이면 MISSING
+     */
+    public int idOf(String name) {
+        return table.get(name);
+    }
+
+    public int intern(String name) {
+        int id = table.get(name);
+        if (id != MISSING) {
+            return id;
+        }
+        return register(name);
+    }
+
+    public String nameOf(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("id=" + id + " size=" + size);
+        }
+        return names[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private synchronized int register(String name) {
+        int id = table.get(name);
+        if (id != MISSING) {
+            return id;
+        }
+        id = size;
+        if (id == names.length) {
+            names = Arrays.copyOf(names, id * 2);
+        }
+        names[id] = name;
+        if ((id + 1) * 2 > table.capacity()) {
+            Table grown = new Table(table.capacity() * 2);
+            for (int i = 0; i < id; i++) {
+                grown.put(names[i], i);
+            }
+            grown.put(name, id);
+            table = grown;
+        } else {
+            table.put(name, id);
+        }
+        size = id + 1;
+        return id;
+    }
+
+    private static final class Table {
+        private final AtomicReferenceArray<String> keys;
+        private final int[] ids;
+        private final int mask;
+
+        private Table(int capacity) {
+            this.keys = new AtomicReferenceArray<>(capacity);
+            this.ids = new int[capacity];
+            this.mask = capacity - 1;
+        }
+
+        private int capacity() {
+            return ids.length;
+        }
+
+        private int get(String name) {
+            for (int i = spread(name.hashCode()) & mask; ; i = (i + 1) & mask) {
+                String key = keys.get(i);
+                if (key == null) {
+                    return MISSING;
+                }
+                if (key.equals(name)) {
+                    return ids[i];
+                }
+            }
+        }
+
+        //락을 잡은 상태로 호출된다. 테이블은 절반 넘게 차지 않는다.
+        private void put(String name, int id) {
+            int i = spread(name.hashCode()) & mask;
+            while (keys.get(i) != null) {
+                i = (i + 1) & mask;
+            }
+            ids[i] = id;
+            keys.set(i, name);
+        }
+
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+}
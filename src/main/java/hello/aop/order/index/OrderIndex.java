@@ -0,0 +1,220 @@
+package hello.aop.order.index;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 주문을 저장할 때마다 갱신하는 메모리 인덱스, 상품별 주문 수와 마지막 주문 시각을 가진다.
+ * 상품 이름은 {@link ItemDictionary} 로 id 를 붙이고, 값은 id 로 인덱스한 long 배열에 둔다.
+ * id 가 0 부터 빈틈없이 붙으므로 id -> long 맵은 배열 그 자체다. 배열은 CHUNK_SIZE 단위 조각으로 늘려서
+ * 갱신 중인 스레드가 있어도 조각을 옮기지 않는다.
+ *
+ * 쓰기: 락 없이 CAS 로 갱신한다. record() 호출 전후로 started, finished 를 하나씩 늘린다.
+ * 단건 조회(getCount, getLastOrderedAt): 락 없이 배열을 바로 읽는다.
+ * 스냅샷: started == finished 인 (진행 중인 쓰기가 없는) 순간에 복사를 시작하고, 복사하는 동안 started 가 그대로이면
+ * 그 복사본은 record() 호출 단위로 일관된다. SPINS 번 실패하면 drainLock 을 잡고 쓰기를 잠깐 세운 뒤 복사한다.
+ * 세워진 쓰기는 SPINS 번까지만 돌며 기다리고, 그 뒤에는 drainLock 에서 블록되어 스냅샷이 끝날 때 깨어난다.
+ * 쓰기가 없었으면 이전 스냅샷을 그대로 돌려주므로, 읽기가 많은 트래픽에서는 복사하지 않는다.
+ */
+public class OrderIndex {
+
+    private static final int CHUNK_BITS = 10;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int SPINS = 64;
+
+    private final ItemDictionary items = new ItemDictionary();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder finished = new LongAdder();
+    private final Object drainLock = new Object();
+    private volatile Chunk[] chunks = {new Chunk()};
+    private volatile boolean draining;
+    private volatile Cached cached;
+
+    public void record(String itemName, long timestamp) {
+        int id = items.intern(itemName);
+        Chunk chunk = chunkOf(id);
+        begin();
+        try {
+            chunk.add(id & (CHUNK_SIZE - 1), timestamp);
+        } finally {
+            finished.increment();
+        }
+    }
+
+    /**
+     * 같은 호출의 주문은 스냅샷에 모두 들어가거나 하나도 들어가지 않는다.
+     */
+    public void record(List<String> itemNames, long timestamp) {
+        int[] ids = new int[itemNames.size()];
+        int maxId = 0;
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = items.intern(itemNames.get(i));
+            maxId = Math.max(maxId, ids[i]);
+        }
+        chunkOf(maxId);
+        Chunk[] current = chunks;
+        begin();
+        try {
+            for (int id : ids) {
+                current[id >>> CHUNK_BITS].add(id & (CHUNK_SIZE - 1), timestamp);
+            }
+        } finally {
+            finished.increment();
+        }
+    }
+
+    public long getCount(String itemName) {
+        int id = items.idOf(itemName);
+        if (id == ItemDictionary.MISSING) {
+            return 0;
+        }
+        Chunk[] current = chunks;
+        int index = id >>> CHUNK_BITS;
+        return index < current.length ? current[index].counts.get(id & (CHUNK_SIZE - 1)) : 0;
+    }
+
+    //epoch millis, 주문이 없으면 0
+    public long getLastOrderedAt(String itemName) {
+        int id = items.idOf(itemName);
+        if (id == ItemDictionary.MISSING) {
+            return 0;
+        }
+        Chunk[] current = chunks;
+        int index = id >>> CHUNK_BITS;
+        return index < current.length ? current[index].lastOrderedAt.get(id & (CHUNK_SIZE - 1)) : 0;
+    }
+
+    public List<ItemCount> top(int n) {
+        return snapshot().top(n);
+    }
+
+    public OrderIndexSnapshot snapshot() {
+        for (int spin = 0; spin < SPINS; spin++) {
+            long version = finished.sum();
+            if (started.sum() == version) {
+                Cached previous = cached;
+                if (previous != null && previous.version == version) {
+                    return previous.snapshot;
+                }
+                OrderIndexSnapshot snapshot = copy();
+                if (started.sum() == version) {
+                    cached = new Cached(version, snapshot);
+                    return snapshot;
+                }
+            }
+            Thread.onSpinWait();
+        }
+        synchronized (drainLock) {
+            draining = true;
+            try {
+                long version;
+                do {
+                    Thread.onSpinWait();
+                    version = finished.sum();
+                } while (started.sum() != version);
+                OrderIndexSnapshot snapshot = copy();
+                cached = new Cached(version, snapshot);
+                return snapshot;
+            } finally {
+                draining = false;
+            }
+        }
+    }
+
+    public ItemDictionary getItems() {
+        return items;
+    }
+
+    /**
+     * 스냅샷이 쓰기를 세운 동안에는 기다린다. started 를 늘린 뒤에 한 번 더 확인해서,
+     * 스냅샷이 진행 중인 쓰기가 끝났다고 본 뒤에 쓰기가 끼어들지 않게 한다.
+     */
+    private void begin() {
+        while (true) {
+            if (draining) {
+                awaitDrained();
+            }
+            started.increment();
+            if (!draining) {
+                return;
+            }
+            finished.increment();
+        }
+    }
+
+    /**
+     * 복사는 짧으므로 조금 돌며 기다려 보고, 그래도 끝나지 않으면 스냅샷이 잡고 있는 drainLock 에서 블록된다.
+     * 여기까지 온 쓰기는 started 와 finished 를 맞춰 둔 상태이므로 스냅샷이 이 쓰기를 기다리는 일은 없다.
+     */
+    private void awaitDrained() {
+        for (int spin = 0; spin < SPINS && draining; spin++) {
+            Thread.onSpinWait();
+        }
+        while (draining) {
+            synchronized (drainLock) {
+                //스냅샷이 drainLock 을 놓을 때까지 기다린다.
+            }
+        }
+    }
+
+    private OrderIndexSnapshot copy() {
+        int size = items.size();
+        long[] counts = new long[size];
+        long[] lastOrderedAt = new long[size];
+        Chunk[] current = chunks;
+        for (int id = 0; id < size; id++) {
+            int index = id >>> CHUNK_BITS;
+            if (index >= current.length) {
+                break;
+            }
+            counts[id] = current[index].counts.get(id & (CHUNK_SIZE - 1));
+            lastOrderedAt[id] = current[index].lastOrderedAt.get(id & (CHUNK_SIZE - 1));
+        }
+        return new OrderIndexSnapshot(items, counts, lastOrderedAt);
+    }
+
+    private Chunk chunkOf(int id) {
+        int index = id >>> CHUNK_BITS;
+        Chunk[] current = chunks;
+        if (index < current.length) {
+            return current[index];
+        }
+        synchronized (this) {
+            current = chunks;
+            if (index >= current.length) {
+                Chunk[] grown = Arrays.copyOf(current, index + 1);
+                for (int i = current.length; i < grown.length; i++) {
+                    grown[i] = new Chunk();
+                }
+                chunks = grown;
+                current = grown;
+            }
+            return current[index];
+        }
+    }
+
+    private static final class Chunk {
+        private final AtomicLongArray counts = new AtomicLongArray(CHUNK_SIZE);
+        private final AtomicLongArray lastOrderedAt = new AtomicLongArray(CHUNK_SIZE);
+
+        private void add(int offset, long timestamp) {
+            counts.incrementAndGet(offset);
+            long last = lastOrderedAt.get(offset);
+            while (last < timestamp && !lastOrderedAt.compareAndSet(offset, last, timestamp)) {
+                last = lastOrderedAt.get(offset);
+            }
+        }
+    }
+
+    private static final class Cached {
+        private final long version;
+        private final OrderIndexSnapshot snapshot;
+
+        private Cached(long version, OrderIndexSnapshot snapshot) {
+            this.version = version;
+            this.snapshot = snapshot;
+        }
+    }
+}
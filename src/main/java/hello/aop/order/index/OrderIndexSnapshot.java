@@ -0,0 +1,129 @@
+package hello.aop.order.index;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 어느 한 시점의 {@link OrderIndex}, 그 시점까지 기록된 주문 묶음(record 호출)이 모두 들어 있고 그 뒤의 것은 하나도 없다.
+ * 상품 id 로 인덱스한 long 배열이라서 조회와 상위 N 계산에 박싱이 없다.
+ */
+public class OrderIndexSnapshot {
+
+    private final ItemDictionary items;
+    private final long[] counts;
+    private final long[] lastOrderedAt;
+    private final long total;
+
+    OrderIndexSnapshot(ItemDictionary items, long[] counts, long[] lastOrderedAt) {
+        this.items = items;
+        this.counts = counts;
+        this.lastOrderedAt = lastOrderedAt;
+        long sum = 0;
+        for (long count : counts) {
+            sum += count;
+        }
+        this.total = sum;
+    }
+
+    public long getCount(String itemName) {
+        int id = items.idOf(itemName);
+        return id == ItemDictionary.MISSING || id >= counts.length ? 0 : counts[id];
+    }
+
+    //epoch millis, 주문이 없으면 0
+    public long getLastOrderedAt(String itemName) {
+        int id = items.idOf(itemName);
+        return id == ItemDictionary.MISSING || id >= lastOrderedAt.length ? 0 : lastOrderedAt[id];
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    //주문이 한 번이라도 있는 상품 수
+    public int getItems() {
+        int count = 0;
+        for (long c : counts) {
+            if (c > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * 주문 수가 많은 순서로 n 개, 주문 수가 같으면 먼저 등록된 상품이 앞이다.
+     * 크기 n 의 최소 힙(int id 배열)으로 고르므로 상품 수 m 에 대해 O(m log n) 이다.
+     */
+    public List<ItemCount> top(int n) {
+        if (n <= 0) {
+            return List.of();
+        }
+        int[] heap = new int[Math.min(n, counts.length)];
+        int size = 0;
+        for (int id = 0; id < counts.length; id++) {
+            if (counts[id] == 0) {
+                continue;
+            }
+            if (size < heap.length) {
+                heap[size] = id;
+                siftUp(heap, size++);
+            } else if (before(id, heap[0])) {
+                heap[0] = id;
+                siftDown(heap, size);
+            }
+        }
+        List<ItemCount> result = new ArrayList<>(size);
+        while (size > 0) {
+            int id = heap[0];
+            heap[0] = heap[--size];
+            siftDown(heap, size);
+            result.add(new ItemCount(items.nameOf(id), counts[id], lastOrderedAt[id]));
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    //a 가 b 보다 순위가 높으면 true
+    private boolean before(int a, int b) {
+        return counts[a] != counts[b] ? counts[a] > counts[b] : a < b;
+    }
+
+    //힙의 루트는 순위가 가장 낮은 상품이다.
+    private void siftUp(int[] heap, int index) {
+        int id = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (!before(heap[parent], id)) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = id;
+    }
+
+    private void siftDown(int[] heap, int size) {
+        if (size == 0) {
+            return;
+        }
+        int id = heap[0];
+        int index = 0;
+        while (true) {
+            int child = index * 2 + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && before(heap[child], heap[child + 1])) {
+                child++;
+            }
+            if (!before(id, heap[child])) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = id;
+    }
+}
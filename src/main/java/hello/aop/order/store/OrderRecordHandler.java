@@ -0,0 +1,10 @@
+package hello.aop.order.store;
+
+/**
+ * {@link SegmentOrderStore} 를 열 때 복구한 주문을 순서대로 받는다.
+ */
+@FunctionalInterface
+public interface OrderRecordHandler {
+
+    void handle(long sequence, long timestamp, String itemName);
+}
@@ -0,0 +1,21 @@
+package hello.aop.order.store;
+
+import java.util.List;
+
+/**
+ * OrderRepository 가 저장한 주문을 보관하는 저장소
+ * 스프링 빈으로 등록하면 OrderRepository 가 사용하고, 없으면 아무것도 보관하지 않는 noop() 을 사용한다.
+ */
+public interface OrderStore {
+
+    /**
+     * 주문을 순서대로 보관한다. 같은 호출의 주문은 모두 timestamp(epoch millis) 로 기록된다.
+     * 호출하는 쪽이 시각을 정해서 넘기므로, 같은 주문을 다른 곳(인덱스 등)에 기록할 때도 같은 시각을 쓸 수 있다.
+     */
+    void append(List<String> itemNames, long timestamp);
+
+    static OrderStore noop() {
+        return (itemNames, timestamp) -> {
+        };
+    }
+}
@@ -0,0 +1,13 @@
+package hello.aop.order.store;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link SegmentLog} 를 열 때 복구한 레코드를 순서대로 받는다.
+ * payload 는 세그먼트를 매핑한 메모리를 그대로 보여주는 읽기 전용 버퍼라서, 반환한 뒤에도 쓰려면 복사해야 한다.
+ */
+@FunctionalInterface
+public interface RecordHandler {
+
+    void handle(long sequence, ByteBuffer payload);
+}
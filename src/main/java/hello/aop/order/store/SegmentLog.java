@@ -0,0 +1,372 @@
+package hello.aop.order.store;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * 메모리 매핑한 세그먼트 파일에 레코드를 덧붙이기만 하는 로그
+ * 세그먼트 파일은 segmentBytes 크기로 매핑해서 만들고, 이름은 첫 레코드의 순번이다. (00000000000000000000.seg)
+ * 레코드 형식: [payload 길이 int][payload 의 CRC32C int][payload], 길이가 0 이면 세그먼트의 끝이다.
+ * 다음 레코드가 들어갈 자리가 없으면 현재 세그먼트를 force() 해서 봉인하고 다음 세그먼트를 만든다.
+ *
+ * 쓰기는 매핑한 메모리에 복사하는 것뿐이라 시스템 콜이 없다. 프로세스가 죽어도 페이지 캐시에 남은 레코드는 보존되지만,
+ * OS 가 죽었을 때까지 보존하려면 force() 를 호출해야 한다. (봉인된 세그먼트는 이미 force() 되어 있다)
+ *
+ * 열 때 세그먼트를 처음부터 읽으면서 CRC 를 확인하고, 온전한 레코드를 RecordHandler 로 넘겨서 상태를 다시 만들게 한다.
+ * 길이나 CRC 가 맞지 않는 레코드를 만나면 그 뒤는 모두 버린다. 그 세그먼트의 나머지는 0 으로 지우고, 뒤의 세그먼트는 삭제한다.
+ * 마지막 세그먼트의 끝 뒤에 0 이 아닌 바이트가 남아 있으면(페이지가 순서 없이 기록된 채로 OS 가 죽은 경우)
+ * 나중에 덧붙인 레코드 뒤에서 옛 레코드가 되살아나지 않도록 함께 지운다.
+ */
+@Slf4j
+public class SegmentLog implements Closeable {
+
+    public static final int DEFAULT_SEGMENT_BYTES = 64 * 1024 * 1024;
+    static final int HEADER_BYTES = 8;
+    private static final String SUFFIX = ".seg";
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final long recovered;
+    private final long recoveryNanos;
+    private final Object forceLock = new Object();
+
+    private Segment active;
+    private long nextSequence;
+    private int segments;
+    private long rolls;
+    private boolean closed;
+
+    private SegmentLog(Path dir, int segmentBytes, RecordHandler handler) throws IOException {
+        if (segmentBytes <= HEADER_BYTES) {
+            throw new IllegalArgumentException("segmentBytes must be greater than " + HEADER_BYTES);
+        }
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(dir);
+        long begin = System.nanoTime();
+        this.recovered = recover(handler);
+        this.recoveryNanos = System.nanoTime() - begin;
+        log.info("[segment-log] {} recovered={} segments={} next={} elapsed={}ms",
+                dir, recovered, segments, nextSequence, recoveryNanos / 1_000_000);
+    }
+
+    public static SegmentLog open(Path dir) throws IOException {
+        return open(dir, DEFAULT_SEGMENT_BYTES, (sequence, payload) -> {
+        });
+    }
+
+    /**
+     * 남아 있는 레코드를 handler 로 모두 넘긴 뒤에 반환한다.
+     * 이미 있는 세그먼트는 만들 때의 크기를 그대로 사용하고, 새 세그먼트만 segmentBytes 로 만든다.
+     */
+    public static SegmentLog open(Path dir, int segmentBytes, RecordHandler handler) throws IOException {
+        return new SegmentLog(dir, segmentBytes, handler);
+    }
+
+    /**
+     * @return 레코드의 순번
+     */
+    public long append(ByteBuffer payload) {
+        checkLength(payload);
+        int crc = crc(payload);
+        synchronized (this) {
+            checkOpen();
+            return write(payload, crc);
+        }
+    }
+
+    /**
+     * 여러 레코드를 락을 한 번만 잡고 이어서 기록한다.
+     * 길이가 맞지 않는 레코드가 하나라도 있으면 아무것도 기록하지 않는다.
+     * @return 첫 레코드의 순번
+     */
+    public long appendAll(List<ByteBuffer> payloads) {
+        int[] crcs = new int[payloads.size()];
+        for (int i = 0; i < crcs.length; i++) {
+            checkLength(payloads.get(i));
+        }
+        for (int i = 0; i < crcs.length; i++) {
+            crcs[i] = crc(payloads.get(i));
+        }
+        synchronized (this) {
+            checkOpen();
+            long first = nextSequence;
+            for (int i = 0; i < crcs.length; i++) {
+                write(payloads.get(i), crcs[i]);
+            }
+            return first;
+        }
+    }
+
+    /**
+     * 마지막 force() 이후에 기록한 범위를 디스크에 반영한다. 반영하는 동안 쓰기를 막지 않는다.
+     * force() 끼리는 차례로 실행하고 forced 는 반영이 끝난 뒤에 옮긴다.
+     * 먼저 시작한 force() 가 아직 반영 중인 범위를 다른 force() 가 건너뛰고 먼저 반환하지 않게 하기 위해서다.
+     */
+    public void force() {
+        synchronized (forceLock) {
+            Segment segment;
+            int from;
+            int to;
+            synchronized (this) {
+                checkOpen();
+                segment = active;
+                from = segment.forced;
+                to = segment.position;
+            }
+            if (to <= from) {
+                return;
+            }
+            segment.buffer.force(from, to - from);
+            synchronized (this) {
+                segment.forced = to;
+            }
+        }
+    }
+
+    //다음에 기록할 레코드의 순번, 기록된 레코드 수와 같다.
+    public synchronized long getNextSequence() {
+        return nextSequence;
+    }
+
+    public synchronized int getSegments() {
+        return segments;
+    }
+
+    //열고 나서 새로 만든 세그먼트 수
+    public synchronized long getRolls() {
+        return rolls;
+    }
+
+    //열 때 복구한 레코드 수
+    public long getRecovered() {
+        return recovered;
+    }
+
+    public long getRecoveryNanos() {
+        return recoveryNanos;
+    }
+
+    public Path getDir() {
+        return dir;
+    }
+
+    /**
+     * 기록한 범위를 force() 하고 닫는다. 매핑은 GC 가 버퍼를 수거할 때 해제된다.
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        if (active.position > active.forced) {
+            active.buffer.force(active.forced, active.position - active.forced);
+        }
+        closed = true;
+        active = null;
+    }
+
+    private void checkLength(ByteBuffer payload) {
+        int length = payload.remaining();
+        if (length == 0 || length > segmentBytes - HEADER_BYTES) {
+            throw new IllegalArgumentException("payload length must be between 1 and " + (segmentBytes - HEADER_BYTES) + ": " + length);
+        }
+    }
+
+    private long write(ByteBuffer payload, int crc) {
+        int length = payload.remaining();
+        if (active.buffer.capacity() - active.position < HEADER_BYTES + length) {
+            roll();
+        }
+        MappedByteBuffer buffer = active.buffer;
+        int position = active.position;
+        buffer.put(position + HEADER_BYTES, payload, payload.position(), length);
+        buffer.putInt(position + 4, crc);
+        buffer.putInt(position, length);
+        active.position = position + HEADER_BYTES + length;
+        active.records++;
+        return nextSequence++;
+    }
+
+    private void roll() {
+        active.buffer.force();
+        try {
+            if (active.records == 0) {
+                //레코드가 없는 세그먼트는 같은 이름으로 다시 만든다. (더 작은 segmentBytes 로 만들어진 경우)
+                Files.delete(active.file);
+                segments--;
+            }
+            active = Segment.create(segmentFile(nextSequence), segmentBytes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("세그먼트를 만들 수 없습니다. next=" + nextSequence, e);
+        }
+        segments++;
+        rolls++;
+    }
+
+    private long recover(RecordHandler handler) throws IOException {
+        List<Path> files = segmentFiles();
+        long count = 0;
+        for (int i = 0; i < files.size(); i++) {
+            Path file = files.get(i);
+            long base = baseSequence(file);
+            if (i > 0 && base != nextSequence) {
+                log.warn("[segment-log] {} expected base={}, drop this and following segments", file, nextSequence);
+                deleteFrom(files, i);
+                break;
+            }
+            Segment segment = Segment.open(file);
+            int position = 0;
+            boolean corrupted = false;
+            MappedByteBuffer buffer = segment.buffer;
+            int limit = buffer.capacity();
+            while (position + HEADER_BYTES <= limit) {
+                int length = buffer.getInt(position);
+                if (length == 0) {
+                    break;
+                }
+                if (length < 0 || length > limit - position - HEADER_BYTES
+                        || buffer.getInt(position + 4) != crc(buffer.slice(position + HEADER_BYTES, length))) {
+                    corrupted = true;
+                    break;
+                }
+                handler.handle(base + segment.records, buffer.slice(position + HEADER_BYTES, length).asReadOnlyBuffer());
+                segment.records++;
+                position += HEADER_BYTES + length;
+            }
+            segment.position = position;
+            segment.forced = position;
+            nextSequence = base + segment.records;
+            count += segment.records;
+            active = segment;
+            segments++;
+            boolean last = i == files.size() - 1;
+            if (corrupted || last) {
+                if (corrupted) {
+                    log.warn("[segment-log] {} corrupted record at position={}, truncate after sequence={}",
+                            file, position, nextSequence);
+                    deleteFrom(files, i + 1);
+                }
+                zeroTail(segment);
+                break;
+            }
+        }
+        if (active == null) {
+            active = Segment.create(segmentFile(0), segmentBytes);
+            segments++;
+        }
+        return count;
+    }
+
+    /**
+     * 마지막 레코드 뒤에 남은 바이트를 지운다. 이미 0 이면 페이지를 더럽히지 않는다.
+     */
+    private static void zeroTail(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int limit = buffer.capacity();
+        int dirty = -1;
+        int i = segment.position;
+        for (; i < limit && (i & 7) != 0; i++) {
+            if (buffer.get(i) != 0) {
+                dirty = i;
+                break;
+            }
+        }
+        for (; dirty < 0 && i + 8 <= limit; i += 8) {
+            if (buffer.getLong(i) != 0) {
+                dirty = i;
+            }
+        }
+        for (; dirty < 0 && i < limit; i++) {
+            if (buffer.get(i) != 0) {
+                dirty = i;
+            }
+        }
+        if (dirty < 0) {
+            return;
+        }
+        for (int j = segment.position; j < limit; j++) {
+            buffer.put(j, (byte) 0);
+        }
+        buffer.force();
+    }
+
+    private void deleteFrom(List<Path> files, int from) throws IOException {
+        for (int i = from; i < files.size(); i++) {
+            log.warn("[segment-log] delete {}", files.get(i));
+            Files.delete(files.get(i));
+        }
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> stream = Files.list(dir)) {
+            return stream.filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentFile(long baseSequence) {
+        return dir.resolve(String.format("%020d%s", baseSequence, SUFFIX));
+    }
+
+    private static long baseSequence(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("닫힌 로그입니다. dir=" + dir);
+        }
+    }
+
+    private static int crc(ByteBuffer payload) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        return (int) crc.getValue();
+    }
+
+    private static final class Segment {
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        private int position;
+        private int forced;
+        private long records;
+
+        private Segment(Path file, MappedByteBuffer buffer) {
+            this.file = file;
+            this.buffer = buffer;
+        }
+
+        private static Segment create(Path file, int size) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                return new Segment(file, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+
+        private static Segment open(Path file) throws IOException {
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                long size = channel.size();
+                if (size > Integer.MAX_VALUE) {
+                    throw new IOException("segment is too large: " + file + " size=" + size);
+                }
+                return new Segment(file, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+            }
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package hello.aop.order.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 주문을 {@link SegmentLog} 에 한 건씩 레코드로 덧붙이는 저장소
+ * 레코드 payload 형식: [주문 시각 epoch millis long][상품 이름 UTF-8]
+ * 열 때 남아 있는 주문을 OrderRecordHandler 로 넘기므로, 메모리의 상태(집계, 인덱스)를 다시 만들 수 있다.
+ */
+public class SegmentOrderStore implements OrderStore, Closeable {
+
+    private static final int TIMESTAMP_BYTES = 8;
+
+    private final SegmentLog log;
+
+    private SegmentOrderStore(SegmentLog log) {
+        this.log = log;
+    }
+
+    public static SegmentOrderStore open(Path dir) throws IOException {
+        return open(dir, SegmentLog.DEFAULT_SEGMENT_BYTES, (sequence, timestamp, itemName) -> {
+        });
+    }
+
+    public static SegmentOrderStore open(Path dir, int segmentBytes, OrderRecordHandler handler) throws IOException {
+        return new SegmentOrderStore(SegmentLog.open(dir, segmentBytes, (sequence, payload) -> {
+            long timestamp = payload.getLong(payload.position());
+            byte[] name = new byte[payload.remaining() - TIMESTAMP_BYTES];
+            payload.get(payload.position() + TIMESTAMP_BYTES, name);
+            handler.handle(sequence, timestamp, new String(name, StandardCharsets.UTF_8));
+        }));
+    }
+
+    @Override
+    public void append(List<String> itemNames, long timestamp) {
+        if (itemNames.size() == 1) {
+            log.append(encode(timestamp, itemNames.get(0)));
+            return;
+        }
+        List<ByteBuffer> payloads = new ArrayList<>(itemNames.size());
+        for (String itemName : itemNames) {
+            payloads.add(encode(timestamp, itemName));
+        }
+        log.appendAll(payloads);
+    }
+
+    //OS 가 죽어도 남도록 지금까지 기록한 주문을 디스크에 반영한다.
+    public void force() {
+        log.force();
+    }
+
+    public SegmentLog getLog() {
+        return log;
+    }
+
+    @Override
+    public void close() {
+        log.close();
+    }
+
+    private static ByteBuffer encode(long timestamp, String itemName) {
+        byte[] name = itemName.getBytes(StandardCharsets.UTF_8);
+        return ByteBuffer.allocate(TIMESTAMP_BYTES + name.length).putLong(timestamp).put(name).flip();
+    }
+}
@@ -0,0 +1,104 @@
+package hello.aop.order.tx;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 변경을 메모리에 모았다가 commit() 할 때 doCommit() 으로 넘기는 트랜잭션
+ * 시작한 스레드에서만 사용하므로 동기화하지 않는다.
+ * 등록된 {@link TransactionSynchronization} 에서 발생한 예외는 트랜잭션 결과를 바꾸지 않고 로그만 남긴다.
+ */
+@Slf4j
+abstract class AbstractTransaction implements Transaction {
+
+    private final long id;
+    private final List<String[]> writes = new ArrayList<>();
+    private final List<TransactionSynchronization> synchronizations = new ArrayList<>();
+    private boolean active = true;
+
+    AbstractTransaction(long id) {
+        this.id = id;
+        Transactions.bind(this);
+    }
+
+    @Override
+    public long getId() {
+        return id;
+    }
+
+    @Override
+    public void write(String key, String value) {
+        checkActive();
+        writes.add(new String[]{key, value});
+    }
+
+    @Override
+    public void registerSynchronization(TransactionSynchronization synchronization) {
+        checkActive();
+        synchronizations.add(synchronization);
+    }
+
+    @Override
+    public void commit() {
+        checkActive();
+        active = false;
+        try {
+            if (!writes.isEmpty()) {
+                doCommit(writes);
+            }
+        } catch (RuntimeException e) {
+            completed(false);
+            throw e;
+        }
+        completed(true);
+    }
+
+    @Override
+    public void rollback() {
+        if (!active) {
+            return;
+        }
+        active = false;
+        writes.clear();
+        completed(false);
+    }
+
+    @Override
+    public boolean isActive() {
+        return active;
+    }
+
+    @Override
+    public void close() {
+        if (active) {
+            rollback();
+        }
+        Transactions.unbind(this);
+    }
+
+    //변경이 없는 트랜잭션은 호출하지 않는다.
+    protected abstract void doCommit(List<String[]> writes);
+
+    private void completed(boolean committed) {
+        for (TransactionSynchronization synchronization : synchronizations) {
+            try {
+                if (committed) {
+                    synchronization.afterCommit();
+                } else {
+                    synchronization.afterRollback();
+                }
+            } catch (RuntimeException e) {
+                log.warn("[tx] synchronization failed id={} committed={}", id, committed, e);
+            }
+        }
+        synchronizations.clear();
+    }
+
+    private void checkActive() {
+        if (!active) {
+            throw new IllegalStateException("이미 끝난 트랜잭션입니다. id=" + id);
+        }
+    }
+}
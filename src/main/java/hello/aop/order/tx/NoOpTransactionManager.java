@@ -0,0 +1,23 @@
+package hello.aop.order.tx;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 변경을 어디에도 기록하지 않는 트랜잭션 관리자, 트랜잭션 경계만 만든다.
+ */
+class NoOpTransactionManager implements TransactionManager {
+
+    static final NoOpTransactionManager INSTANCE = new NoOpTransactionManager();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Override
+    public Transaction begin() {
+        return new AbstractTransaction(sequence.incrementAndGet()) {
+            @Override
+            protected void doCommit(List<String[]> writes) {
+            }
+        };
+    }
+}
@@ -0,0 +1,27 @@
+package hello.aop.order.tx;
+
+/**
+ * {@link TransactionManager#begin()} 으로 시작한 트랜잭션, 시작한 스레드에 묶인다.
+ * write() 로 모은 변경은 commit() 할 때 한 번에 반영되고, rollback() 하면 버린다.
+ * close() 는 끝나지 않은 트랜잭션을 롤백하고 스레드에서 떼어낸다.
+ */
+public interface Transaction extends AutoCloseable {
+
+    long getId();
+
+    void write(String key, String value);
+
+    /**
+     * 트랜잭션이 끝나면 시작한 스레드에서 등록한 순서대로 호출된다.
+     */
+    void registerSynchronization(TransactionSynchronization synchronization);
+
+    void commit();
+
+    void rollback();
+
+    boolean isActive();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,17 @@
+package hello.aop.order.tx;
+
+/**
+ * AspectV5OrderTx 가 사용하는 트랜잭션 관리자
+ * 스프링 빈으로 등록하면 AspectV5OrderTx 가 사용하고, 없으면 아무것도 기록하지 않는 noop() 을 사용한다.
+ */
+public interface TransactionManager {
+
+    /**
+     * 새 트랜잭션을 시작해서 현재 스레드에 묶는다. ({@link Transactions#current()})
+     */
+    Transaction begin();
+
+    static TransactionManager noop() {
+        return NoOpTransactionManager.INSTANCE;
+    }
+}
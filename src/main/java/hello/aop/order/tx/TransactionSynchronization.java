@@ -0,0 +1,15 @@
+package hello.aop.order.tx;
+
+/**
+ * 트랜잭션이 끝난 뒤에 실행할 작업
+ * 커밋이 확정된 뒤에만 밖으로 내보내야 하는 작업(예: 쓰기 지연 큐에 넣기)에 사용한다.
+ */
+public interface TransactionSynchronization {
+
+    default void afterCommit() {
+    }
+
+    //커밋이 실패한 경우도 포함한다.
+    default void afterRollback() {
+    }
+}
@@ -0,0 +1,31 @@
+package hello.aop.order.tx;
+
+/**
+ * 현재 스레드에 묶인 트랜잭션
+ * 리포지토리는 트랜잭션이 있으면 변경을 트랜잭션에 기록한다.
+ */
+public class Transactions {
+
+    private static final ThreadLocal<Transaction> CURRENT = new ThreadLocal<>();
+
+    private Transactions() {
+    }
+
+    //없으면 null
+    public static Transaction current() {
+        return CURRENT.get();
+    }
+
+    static void bind(Transaction transaction) {
+        if (CURRENT.get() != null) {
+            throw new IllegalStateException("이미 진행 중인 트랜잭션이 있습니다. id=" + CURRENT.get().getId());
+        }
+        CURRENT.set(transaction);
+    }
+
+    static void unbind(Transaction transaction) {
+        if (CURRENT.get() == transaction) {
+            CURRENT.remove();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package hello.aop.order.tx;
+
+import java.util.List;
+
+/**
+ * 로그에 기록된 커밋 한 건
+ */
+public class WalRecord {
+
+    private final long transactionId;
+    private final List<String[]> writes;
+
+    WalRecord(long transactionId, List<String[]> writes) {
+        this.transactionId = transactionId;
+        this.writes = writes;
+    }
+
+    public long getTransactionId() {
+        return transactionId;
+    }
+
+    //{key, value} 목록, 트랜잭션에서 write() 한 순서
+    public List<String[]> getWrites() {
+        return writes;
+    }
+}
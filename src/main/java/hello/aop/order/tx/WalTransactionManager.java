@@ -0,0 +1,41 @@
+package hello.aop.order.tx;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 커밋을 {@link WriteAheadLog} 에 기록하는 트랜잭션 관리자
+ * commit() 은 레코드가 fsync 된 뒤에 반환한다. 변경이 없는 트랜잭션은 로그에 기록하지 않는다.
+ * 트랜잭션 id 는 로그에 이미 있는 가장 큰 id 다음부터 매긴다.
+ */
+public class WalTransactionManager implements TransactionManager, Closeable {
+
+    private final WriteAheadLog log;
+    private final AtomicLong sequence;
+
+    public WalTransactionManager(WriteAheadLog log) {
+        this.log = log;
+        this.sequence = new AtomicLong(log.getLastTransactionId());
+    }
+
+    @Override
+    public Transaction begin() {
+        return new AbstractTransaction(sequence.incrementAndGet()) {
+            @Override
+            protected void doCommit(List<String[]> writes) {
+                log.append(getId(), writes);
+            }
+        };
+    }
+
+    public WriteAheadLog getLog() {
+        return log;
+    }
+
+    @Override
+    public void close() throws IOException {
+        log.close();
+    }
+}
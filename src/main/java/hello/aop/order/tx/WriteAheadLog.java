@@ -0,0 +1,287 @@
+package hello.aop.order.tx;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * 커밋을 파일 끝에 덧붙이고 fsync 한 뒤에 반환하는 쓰기 전 로그(WAL)
+ * 레코드 형식: [payload 길이 int][payload][payload 의 CRC32 int], payload = [트랜잭션 id long][쓰기 수 int][key UTF][value UTF]...
+ *
+ * 그룹 커밋: 커밋하는 스레드는 레코드를 대기 버퍼에 넣고, fsync 중인 스레드가 없으면 자신이 리더가 된다.
+ * 리더는 groupWindow 만큼 기다려서 다른 커밋이 모이게 한 뒤, 대기 버퍼 전체를 한 번에 쓰고 한 번 fsync 한다.
+ * 직전 배치가 커밋 하나뿐이었으면 동시에 커밋하는 스레드가 없다고 보고 기다리지 않는다.
+ * 리더가 fsync 하는 동안 도착한 커밋은 다음 리더의 배치가 되므로, groupWindow 가 0 이어도 동시 커밋은 fsync 를 나눠 쓴다.
+ * 호출마다 커밋(perCall)은 락을 잡은 채로 자기 레코드만 쓰고 fsync 한다.
+ *
+ * 쓰기나 fsync 가 한 번이라도 실패하면 어디까지 기록됐는지 알 수 없으므로, 이후의 모든 커밋은 실패한다.
+ * 열 때 끝부분의 잘린 레코드나 CRC 가 맞지 않는 레코드는 잘라낸다.
+ * 남은 레코드 중 가장 큰 트랜잭션 id 를 기억해서, 다시 연 뒤의 트랜잭션 id 가 이전 id 와 겹치지 않게 한다.
+ */
+public class WriteAheadLog implements Closeable {
+
+    private static final int HEADER_BYTES = 4;
+    private static final int TRAILER_BYTES = 4;
+    //payload 의 최소 길이: 트랜잭션 id long + 쓰기 수 int
+    private static final int MIN_PAYLOAD_BYTES = Long.BYTES + Integer.BYTES;
+
+    private final FileChannel channel;
+    private final boolean groupCommit;
+    private final long groupWindowNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition flushed = lock.newCondition();
+    private final AtomicLong syncs = new AtomicLong();
+    private final AtomicLong commits = new AtomicLong();
+    private final long lastTransactionId;
+
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer spare = ByteBuffer.allocate(64 * 1024);
+    private long appended;
+    private long durable;
+    private long lastBatchSize;
+    private boolean flushing;
+    private IOException failure;
+
+    private WriteAheadLog(Path file, boolean groupCommit, long groupWindowNanos) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.groupCommit = groupCommit;
+        this.groupWindowNanos = groupWindowNanos;
+        ScanResult scanned = scan(channel, null);
+        channel.truncate(scanned.validLength);
+        channel.position(scanned.validLength);
+        this.lastTransactionId = scanned.lastTransactionId;
+    }
+
+    public static WriteAheadLog groupCommit(Path file, long groupWindow, TimeUnit unit) throws IOException {
+        return new WriteAheadLog(file, true, unit.toNanos(groupWindow));
+    }
+
+    public static WriteAheadLog perCall(Path file) throws IOException {
+        return new WriteAheadLog(file, false, 0);
+    }
+
+    /**
+     * 파일의 온전한 레코드를 순서대로 읽는다.
+     */
+    public static List<WalRecord> replay(Path file) throws IOException {
+        List<WalRecord> records = new ArrayList<>();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            scan(channel, records);
+        }
+        return records;
+    }
+
+    /**
+     * 커밋 레코드를 기록하고, fsync 로 디스크에 반영된 뒤에 반환한다.
+     */
+    public void append(long transactionId, List<String[]> writes) {
+        byte[] record = encode(transactionId, writes);
+        lock.lock();
+        try {
+            checkFailure();
+            pending = ensureCapacity(pending, record.length);
+            pending.put(record);
+            long lsn = ++appended;
+            if (!groupCommit) {
+                try {
+                    write(pending);
+                } catch (IOException e) {
+                    failure = e;
+                    checkFailure();
+                }
+                durable = lsn;
+            }
+            while (durable < lsn) {
+                checkFailure();
+                if (flushing) {
+                    flushed.awaitUninterruptibly();
+                    continue;
+                }
+                lead();
+            }
+        } finally {
+            lock.unlock();
+        }
+        commits.incrementAndGet();
+    }
+
+    //fsync 호출 수
+    public long getSyncs() {
+        return syncs.get();
+    }
+
+    //기록된 커밋 수
+    public long getCommits() {
+        return commits.get();
+    }
+
+    //열 때 로그에 있던 가장 큰 트랜잭션 id, 비어 있으면 0
+    public long getLastTransactionId() {
+        return lastTransactionId;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * 락을 잡은 상태로 호출되고, 쓰기와 fsync 를 하는 동안에는 락을 놓는다.
+     */
+    private void lead() {
+        flushing = true;
+        if (groupWindowNanos > 0 && lastBatchSize > 1) {
+            lock.unlock();
+            try {
+                LockSupport.parkNanos(groupWindowNanos);
+            } finally {
+                lock.lock();
+            }
+        }
+        ByteBuffer batch = pending;
+        pending = spare;
+        long batchEnd = appended;
+        lastBatchSize = batchEnd - durable;
+        IOException error = null;
+        lock.unlock();
+        try {
+            write(batch);
+        } catch (IOException e) {
+            error = e;
+        } finally {
+            lock.lock();
+            spare = batch;
+            flushing = false;
+            if (error == null) {
+                durable = batchEnd;
+            } else {
+                failure = error;
+            }
+            flushed.signalAll();
+        }
+    }
+
+    private void write(ByteBuffer batch) throws IOException {
+        batch.flip();
+        while (batch.hasRemaining()) {
+            channel.write(batch);
+        }
+        channel.force(false);
+        syncs.incrementAndGet();
+        batch.clear();
+    }
+
+    private void checkFailure() {
+        if (failure != null) {
+            throw new UncheckedIOException("이전 WAL 기록이 실패해서 더 이상 커밋할 수 없습니다.", failure);
+        }
+    }
+
+    private static ByteBuffer ensureCapacity(ByteBuffer buffer, int length) {
+        if (buffer.remaining() >= length) {
+            return buffer;
+        }
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + length));
+        buffer.flip();
+        grown.put(buffer);
+        return grown;
+    }
+
+    private static byte[] encode(long transactionId, List<String[]> writes) {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(0);
+            out.writeLong(transactionId);
+            out.writeInt(writes.size());
+            for (String[] write : writes) {
+                out.writeUTF(write[0]);
+                out.writeUTF(write[1]);
+            }
+            out.writeInt(0);
+            byte[] record = bytes.toByteArray();
+            int payloadLength = record.length - HEADER_BYTES - TRAILER_BYTES;
+            CRC32 crc = new CRC32();
+            crc.update(record, HEADER_BYTES, payloadLength);
+            ByteBuffer.wrap(record).putInt(0, payloadLength).putInt(record.length - TRAILER_BYTES, (int) crc.getValue());
+            return record;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * 처음부터 온전한 레코드를 읽고, 마지막 온전한 레코드가 끝나는 위치와 가장 큰 트랜잭션 id 를 반환한다.
+     * 그룹 커밋은 id 순서대로 기록되지 않으므로 마지막 레코드의 id 가 아니라 최댓값을 쓴다.
+     */
+    private static ScanResult scan(FileChannel channel, List<WalRecord> records) throws IOException {
+        long size = channel.size();
+        long position = 0;
+        long lastTransactionId = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+        while (position + HEADER_BYTES + TRAILER_BYTES <= size) {
+            header.clear();
+            if (channel.read(header, position) < HEADER_BYTES) {
+                break;
+            }
+            int payloadLength = header.getInt(0);
+            //0 으로 채워진 끝부분은 길이 0, CRC 0 으로 CRC 검사를 통과하므로 길이로 걸러낸다.
+            if (payloadLength < MIN_PAYLOAD_BYTES || position + HEADER_BYTES + payloadLength + TRAILER_BYTES > size) {
+                break;
+            }
+            ByteBuffer body = ByteBuffer.allocate(payloadLength + TRAILER_BYTES);
+            while (body.hasRemaining() && channel.read(body, position + HEADER_BYTES + body.position()) > 0) {
+                //body 를 다 채울 때까지 읽는다.
+            }
+            CRC32 crc = new CRC32();
+            crc.update(body.array(), 0, payloadLength);
+            if (body.getInt(payloadLength) != (int) crc.getValue()) {
+                break;
+            }
+            if (records != null) {
+                records.add(decode(body.array(), payloadLength));
+            }
+            lastTransactionId = Math.max(lastTransactionId, body.getLong(0));
+            position += HEADER_BYTES + payloadLength + TRAILER_BYTES;
+        }
+        return new ScanResult(position, lastTransactionId);
+    }
+
+    private static WalRecord decode(byte[] payload, int length) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload, 0, length));
+        long transactionId = in.readLong();
+        int count = in.readInt();
+        List<String[]> writes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            writes.add(new String[]{in.readUTF(), in.readUTF()});
+        }
+        return new WalRecord(transactionId, writes);
+    }
+
+    private static final class ScanResult {
+
+        private final long validLength;
+        private final long lastTransactionId;
+
+        private ScanResult(long validLength, long lastTransactionId) {
+            this.validLength = validLength;
+            this.lastTransactionId = lastTransactionId;
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package hello.aop;
 
+import hello.aop.exam.aop.ErrorAggregator;
+import hello.aop.exam.aop.ErrorFingerprint;
 import hello.aop.order.OrderRepository;
 import hello.aop.order.OrderService;
 import hello.aop.order.aop.AspectV4Pointcut;
@@ -12,8 +14,11 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
 
 @Slf4j
 @SpringBootTest
@@ -26,6 +31,9 @@ public class AopTestV6 extends LogAppenders {
     @Autowired
     OrderRepository orderRepository;
 
+    @Autowired
+    AspectV6Advice aspectV6Advice;
+
     /**
      * {@link AopUtils#isAopProxy(Object)}
      * 이 메서드를 통해서 AOP 프록시가 적용되었는지 확인할 수 있다.
@@ -55,6 +63,16 @@ public class AopTestV6 extends LogAppenders {
         assertThat(getOrderedLogs().get(7)).contains("[리소스 릴리즈] void hello.aop.order.OrderService.orderItem(String)");
     }
 
+    @Test
+    void ownErrorAggregator() {
+        //when
+        Throwable ex = catchThrowable(() -> orderService.orderItem("ex"));
+        //then
+        ErrorFingerprint fingerprint = ErrorFingerprint.of(ex);
+        assertThat(aspectV6Advice.getErrorAggregator()).isNotSameAs(ErrorAggregator.shared());
+        assertThat(aspectV6Advice.getErrorAggregator().getCount(fingerprint)).isPositive();
+    }
+
     @Test
     void exception() {
         //when,then
@@ -70,4 +88,20 @@ public class AopTestV6 extends LogAppenders {
         assertThat(getOrderedLogs().get(6)).contains("[트랜잭션 롤백] void hello.aop.order.OrderService.orderItem(String)");
         assertThat(getOrderedLogs().get(7)).contains("[리소스 릴리즈] void hello.aop.order.OrderService.orderItem(String)");
     }
+
+    @Test
+    void bulk() {
+        //when
+        orderService.orderItems(List.of("itemA", "ex", "itemB"));
+        //then 항목이 3개여도 어드바이스는 한 번만 실행되고, 실패한 항목은 예외 대신 결과에 남는다.
+        assertThat(getOrderedLogs().get(0)).contains("[트랜잭션 시작] BulkOrderResult hello.aop.order.OrderService.orderItems(List)");
+        assertThat(getOrderedLogs().get(1)).contains("[before] BulkOrderResult hello.aop.order.OrderService.orderItems(List)");
+        assertThat(getOrderedLogs().get(2)).contains("[OrderService] 실행 items=3");
+        assertThat(getOrderedLogs().get(3)).contains("[OrderRepository] 실행 items=3");
+        assertThat(getOrderedLogs().get(4)).contains("[return] BulkOrderResult hello.aop.order.OrderService.orderItems(List) return=BulkOrderResult{items=3, succeeded=2, failed=[ex]}");
+        assertThat(getOrderedLogs().get(5)).contains("[after] BulkOrderResult hello.aop.order.OrderService.orderItems(List)");
+        assertThat(getOrderedLogs().get(6)).contains("[트랜잭션 커밋] BulkOrderResult hello.aop.order.OrderService.orderItems(List)");
+        assertThat(getOrderedLogs().get(7)).contains("[리소스 릴리즈] BulkOrderResult hello.aop.order.OrderService.orderItems(List)");
+        assertThat(getContainsLog("[ex]")).isEmpty();
+    }
 }
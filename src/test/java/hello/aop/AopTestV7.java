@@ -0,0 +1,58 @@
+package hello.aop;
+
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.AspectV7Metrics;
+import hello.aop.exam.aop.MethodMetricsSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Import(AspectV7Metrics.class)
+public class AopTestV7 {
+
+    @Autowired
+    AspectV7Metrics aspectV7Metrics;
+
+    @Autowired
+    OrderService orderService;
+
+    @BeforeEach
+    void reset() {
+        aspectV7Metrics.getRegistry().reset();
+    }
+
+    @Test
+    void success() throws Exception {
+        //when
+        orderService.orderItem("itemA");
+
+        //then
+        MethodMetricsSnapshot service = aspectV7Metrics.getRegistry()
+                .getMetrics(OrderService.class.getMethod("orderItem", String.class)).snapshot();
+        MethodMetricsSnapshot repository = aspectV7Metrics.getRegistry()
+                .getMetrics(OrderRepository.class.getMethod("save", String.class)).snapshot();
+        assertThat(service.getCalls()).isEqualTo(1L);
+        assertThat(repository.getCalls()).isEqualTo(1L);
+        assertThat(service.getMeanMicros()).isGreaterThanOrEqualTo(repository.getMeanMicros());
+    }
+
+    @Test
+    void exception() throws Exception {
+        //when
+        assertThatThrownBy(() -> orderService.orderItem("ex"))
+                .isInstanceOf(IllegalStateException.class);
+
+        //then
+        MethodMetricsSnapshot service = aspectV7Metrics.getRegistry()
+                .getMetrics(OrderService.class.getMethod("orderItem", String.class)).snapshot();
+        assertThat(service.getCalls()).isEqualTo(1L);
+        assertThat(service.getErrors()).isEqualTo(1L);
+    }
+}
@@ -0,0 +1,79 @@
+package hello.aop;
+
+import hello.aop.exam.aop.ProfileStats;
+import hello.aop.order.OrderRepository;
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.AspectV8Profile;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import java.lang.reflect.Method;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Import(AopTestV8.Config.class)
+public class AopTestV8 {
+
+    //로그 출력만으로도 넘는 예산, 모든 호출이 예산을 넘는다.
+    private static final long BUDGET = 1;
+
+    @Autowired
+    AspectV8Profile aspectV8Profile;
+
+    @Autowired
+    OrderService orderService;
+
+    @Test
+    void success() throws Exception {
+        //given
+        long before = callsOf(orderItem());
+
+        //when
+        orderService.orderItem("itemA");
+        orderService.orderItem("itemB");
+
+        //then
+        ProfileStats service = aspectV8Profile.getStats(orderItem());
+        assertThat(service.getCalls()).isEqualTo(before + 2);
+        assertThat(service.getAllocationBudget()).isEqualTo(BUDGET);
+        assertThat(service.getAllocatedBytes()).isPositive();
+        assertThat(service.getOverBudget()).isEqualTo(service.getCalls());
+        assertThat(service.isFlagged()).isTrue();
+        //orderAndService() 는 서비스만 대상으로 한다. 저장소의 사용량은 서비스 호출 안에서 함께 측정된다.
+        assertThat(aspectV8Profile.getStats(OrderRepository.class.getMethod("save", String.class))).isNull();
+    }
+
+    @Test
+    void exception() throws Exception {
+        //given
+        long before = callsOf(orderItem());
+
+        //when
+        assertThatThrownBy(() -> orderService.orderItem("ex"))
+                .isInstanceOf(IllegalStateException.class);
+
+        //then
+        assertThat(aspectV8Profile.getStats(orderItem()).getCalls()).isEqualTo(before + 1);
+    }
+
+    private long callsOf(Method method) {
+        ProfileStats stats = aspectV8Profile.getStats(method);
+        return stats == null ? 0 : stats.getCalls();
+    }
+
+    private static Method orderItem() throws NoSuchMethodException {
+        return OrderService.class.getMethod("orderItem", String.class);
+    }
+
+    static class Config {
+        @Bean
+        public AspectV8Profile aspectV8Profile() {
+            return new AspectV8Profile(BUDGET);
+        }
+    }
+}
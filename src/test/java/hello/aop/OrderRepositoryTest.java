@@ -1,11 +1,18 @@
 package hello.aop;
 
 import hello.aop.order.OrderRepository;
+import hello.aop.order.tx.Transaction;
+import hello.aop.order.tx.TransactionManager;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
@@ -29,4 +36,48 @@ public class OrderRepositoryTest {
             orderRepository.save("ex");
         }).isInstanceOf(IllegalStateException.class);
     }
-}
\ No newline at end of file
+
+    @Test
+    void saveAsyncOk() throws Exception {
+        //when
+        CompletableFuture<String> handle = orderRepository.saveAsync("itemA");
+        //then
+        assertThat(handle.get(5, TimeUnit.SECONDS)).isEqualTo("ok");
+    }
+
+    @Test
+    void saveAsyncFail() {
+        //then
+        Assertions.assertThatThrownBy(() -> {
+            //when
+            orderRepository.saveAsync("ex");
+        }).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void saveAsyncRollback() {
+        //given
+        CompletableFuture<String> handle;
+        try (Transaction transaction = TransactionManager.noop().begin()) {
+            handle = orderRepository.saveAsync("itemA");
+            //when
+            transaction.rollback();
+        }
+        //then
+        assertThat(handle).isCompletedExceptionally();
+        Assertions.assertThatThrownBy(() -> handle.get(5, TimeUnit.SECONDS))
+                .isInstanceOf(CancellationException.class);
+    }
+
+    @Test
+    void saveUpdatesIndex() {
+        //given
+        long before = orderRepository.getIndex().getCount("indexItem");
+        //when
+        orderRepository.save("indexItem");
+        orderRepository.saveAll(List.of("indexItem", "ex"));
+        //then
+        assertThat(orderRepository.getIndex().getCount("indexItem")).isEqualTo(before + 2);
+        assertThat(orderRepository.getIndex().getLastOrderedAt("indexItem")).isPositive();
+    }
+}
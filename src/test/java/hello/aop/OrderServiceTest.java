@@ -1,5 +1,6 @@
 package hello.aop;
 
+import hello.aop.order.BulkOrderResult;
 import hello.aop.order.OrderRepository;
 import hello.aop.order.OrderService;
 import org.assertj.core.api.Assertions;
@@ -7,6 +8,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 
 @SpringBootTest
@@ -32,4 +35,20 @@ public class OrderServiceTest {
             orderService.orderItem("ex");
         }).isInstanceOf(IllegalStateException.class);
     }
+
+    @Test
+    void orderItemsPartialFailure() {
+        //when
+        BulkOrderResult result = orderService.orderItems(List.of("itemA", "ex", "itemB"));
+        //then
+        assertThat(result.getItems()).extracting(BulkOrderResult.ItemResult::getItemName)
+                .containsExactly("itemA", "ex", "itemB");
+        assertThat(result.getSucceeded()).isEqualTo(2);
+        assertThat(result.hasFailures()).isTrue();
+        assertThat(result.getFailures()).hasSize(1);
+        assertThat(result.getFailures().get(0).getItemName()).isEqualTo("ex");
+        assertThat(result.getFailures().get(0).getError())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("예외 발생");
+    }
 }
@@ -0,0 +1,87 @@
+package hello.aop.exam.aspect;
+
+import hello.aop.exam.aop.AdviceEventPostProcessor;
+import hello.aop.exam.aop.AdviceExecutionEvent;
+import hello.aop.exam.aop.TargetExecutionEvent;
+import hello.aop.exam.tool.AdviceOverheadAggregator;
+import hello.aop.exam.tool.AdviceOverheadReport;
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.AspectV6Advice;
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Import({AspectV6Advice.class, AdviceEventPostProcessor.class})
+public class AdviceExecutionEventTest {
+
+    @Autowired
+    OrderService orderService;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("이벤트를 켠 녹화에는 어드바이스와 대상 실행이 남고, 분석기가 어드바이스 별 self 시간을 집계한다.")
+    void recordTest() throws Exception {
+        //given
+        Path file = dir.resolve("advice.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(AdviceExecutionEvent.class);
+            recording.enable(TargetExecutionEvent.class);
+            recording.start();
+
+            //when
+            orderService.orderItem("itemA");
+            assertThatThrownBy(() -> orderService.orderItem("ex")).isInstanceOf(IllegalStateException.class);
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        //then
+        AdviceOverheadAggregator aggregator = AdviceOverheadReport.aggregate(file);
+        List<AdviceOverheadAggregator.AdviceStats> adviceStats = aggregator.getAdviceStats();
+        assertThat(adviceStats).extracting(AdviceOverheadAggregator.AdviceStats::getName)
+                .contains("hello.aop.order.aop.AspectV6Advice @Around doTransaction",
+                        "hello.aop.order.aop.AspectV6Advice @Before doBefore",
+                        "hello.aop.order.aop.AspectV6Advice @AfterThrowing doAfterThrowing");
+        AdviceOverheadAggregator.JoinPointStats service = aggregator.getJoinPointStats().stream()
+                .filter(stats -> stats.getName().equals("void hello.aop.order.OrderService.orderItem(String)"))
+                .findFirst().orElseThrow();
+        assertThat(service.getTargetCount()).isEqualTo(2L);
+        assertThat(service.getErrorCount()).isEqualTo(1L);
+        assertThat(service.getAdviceSelfNanos()).isPositive();
+    }
+
+    @Test
+    @DisplayName("이벤트는 기본으로 꺼져 있어서 설정 없이 녹화하면 남지 않는다.")
+    void disabledByDefaultTest() throws Exception {
+        //given
+        Path file = dir.resolve("default.jfr");
+        try (Recording recording = new Recording()) {
+            recording.start();
+
+            //when
+            orderService.orderItem("itemA");
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        //then
+        AdviceOverheadAggregator aggregator = AdviceOverheadReport.aggregate(file);
+        assertThat(aggregator.getAdviceStats()).isEmpty();
+        assertThat(aggregator.getJoinPointStats()).isEmpty();
+    }
+}
@@ -0,0 +1,81 @@
+package hello.aop.exam.aspect;
+
+import hello.aop.exam.annotation.Retry;
+import hello.aop.exam.aop.Backoff;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class BackoffTest {
+
+    @Test
+    @DisplayName("initialDelay 가 0 이면 대기 없이 바로 재시도한다.")
+    void noDelayTest() {
+        assertThat(Backoff.nextDelay(retry("noDelay"), 1, 0)).isEqualTo(0L);
+        assertThat(Backoff.nextDelay(retry("noDelay"), 3, 0)).isEqualTo(0L);
+    }
+
+    @Test
+    @DisplayName("Jitter.NONE 은 multiplier 만큼 지수 증가하고 maxDelay 를 넘지 않는다.")
+    void exponentialTest() {
+        Retry retry = retry("none");
+        assertThat(Backoff.nextDelay(retry, 1, 0)).isEqualTo(100L);
+        assertThat(Backoff.nextDelay(retry, 2, 100)).isEqualTo(200L);
+        assertThat(Backoff.nextDelay(retry, 3, 200)).isEqualTo(400L);
+        assertThat(Backoff.nextDelay(retry, 10, 400)).isEqualTo(1000L);
+    }
+
+    @Test
+    @DisplayName("Jitter.FULL 은 0 ~ 지수 증가한 대기 시간 사이의 값을 사용한다.")
+    void fullJitterTest() {
+        Retry retry = retry("full");
+        for (int i = 0; i < 1000; i++) {
+            assertThat(Backoff.nextDelay(retry, 3, 0)).isBetween(0L, 400L);
+        }
+    }
+
+    @Test
+    @DisplayName("Jitter.EQUAL 은 지수 증가한 대기 시간의 절반 이상을 보장한다.")
+    void equalJitterTest() {
+        Retry retry = retry("equal");
+        for (int i = 0; i < 1000; i++) {
+            assertThat(Backoff.nextDelay(retry, 3, 0)).isBetween(200L, 400L);
+        }
+    }
+
+    @Test
+    @DisplayName("Jitter.DECORRELATED 는 initialDelay ~ 직전 대기 시간 * 3 사이의 값을 maxDelay 안에서 사용한다.")
+    void decorrelatedJitterTest() {
+        Retry retry = retry("decorrelated");
+        for (int i = 0; i < 1000; i++) {
+            assertThat(Backoff.nextDelay(retry, 2, 200)).isBetween(100L, 600L);
+            assertThat(Backoff.nextDelay(retry, 5, 900)).isBetween(100L, 1000L);
+        }
+    }
+
+    private Retry retry(String methodName) {
+        try {
+            return Fixture.class.getDeclaredMethod(methodName).getAnnotation(Retry.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    static class Fixture {
+        @Retry(5)
+        void noDelay() {}
+
+        @Retry(value = 5, initialDelay = 100, maxDelay = 1000, jitter = Retry.Jitter.NONE)
+        void none() {}
+
+        @Retry(value = 5, initialDelay = 100, maxDelay = 1000, jitter = Retry.Jitter.FULL)
+        void full() {}
+
+        @Retry(value = 5, initialDelay = 100, maxDelay = 1000, jitter = Retry.Jitter.EQUAL)
+        void equal() {}
+
+        @Retry(value = 5, initialDelay = 100, maxDelay = 1000, jitter = Retry.Jitter.DECORRELATED)
+        void decorrelated() {}
+    }
+}
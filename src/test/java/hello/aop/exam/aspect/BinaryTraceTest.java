@@ -0,0 +1,268 @@
+package hello.aop.exam.aspect;
+
+import hello.aop.exam.annotation.Trace;
+import hello.aop.exam.aop.BinaryTraceEventWriter;
+import hello.aop.exam.aop.BinaryTraceReader;
+import hello.aop.exam.aop.TraceAspect;
+import hello.aop.exam.aop.TraceEvent;
+import hello.aop.exam.aop.TraceEventWriter;
+import hello.aop.exam.aop.TraceExporter;
+import hello.aop.exam.aop.TraceRecord;
+import hello.aop.exam.tool.TraceAggregator;
+import hello.aop.exam.tool.TraceReport;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.context.annotation.Import;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Import({TraceAspect.class,
+        BinaryTraceTest.OrderExample.class,
+        BinaryTraceTest.StockExample.class})
+public class BinaryTraceTest {
+
+    @Autowired
+    TraceAspect traceAspect;
+
+    @Autowired
+    OrderExample orderExample;
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        traceAspect.setLogLines(true);
+        traceAspect.setReporter(span -> {
+        });
+    }
+
+    @Test
+    @DisplayName("바이너리 형식으로 쓴 이벤트를 같은 값으로 다시 읽고, 이어 쓴 파일도 읽는다.")
+    void roundTripTest() throws Exception {
+        //given
+        Path file = tempDir.resolve("trace.bin");
+        record(file, 10);
+        record(file, 5);
+
+        //when
+        List<String> names = new ArrayList<>();
+        List<Integer> depths = new ArrayList<>();
+        TraceRecord record = new TraceRecord();
+        try (BinaryTraceReader reader = new BinaryTraceReader(file)) {
+            while (reader.next(record)) {
+                names.add(record.getName());
+                depths.add(record.getDepth());
+                assertThat(record.getDurationNanos()).isGreaterThanOrEqualTo(record.getSelfNanos());
+            }
+        }
+
+        //then
+        assertThat(names).hasSize(30);
+        assertThat(names.get(0)).isEqualTo("void hello.aop.exam.aspect.BinaryTraceTest$OrderExample.order(int)");
+        assertThat(names.get(1)).isEqualTo("void hello.aop.exam.aspect.BinaryTraceTest$StockExample.reserve(int)");
+        assertThat(depths.subList(0, 2)).containsExactly(0, 1);
+        assertThat(Files.size(file)).isLessThan(30L * 40);
+    }
+
+    @Test
+    @DisplayName("닫지 못하고 종료된 파일에 다시 열어서 이어 써도 두 세션을 모두 읽는다.")
+    void appendAfterUncleanShutdownTest() throws Exception {
+        //given
+        Path file = tempDir.resolve("trace.bin");
+        BinaryTraceEventWriter crashed = new BinaryTraceEventWriter(file);
+        try {
+            record(withoutClose(crashed), 10);
+            long paddedSize = Files.size(file);
+            record(file, 5);
+
+            //when
+            int events = 0;
+            TraceRecord record = new TraceRecord();
+            try (BinaryTraceReader reader = new BinaryTraceReader(file)) {
+                while (reader.next(record)) {
+                    events++;
+                }
+            }
+
+            //then
+            assertThat(paddedSize).isGreaterThan(30L * 40);
+            assertThat(events).isEqualTo(30);
+            assertThat(Files.size(file)).isLessThan(30L * 40);
+        } finally {
+            crashed.close();
+        }
+    }
+
+    @Test
+    @DisplayName("메서드 별 호출 수, 오류율, 백분위와 collapsed stack 을 집계한다.")
+    void aggregateTest() throws Exception {
+        //given
+        Path file = tempDir.resolve("trace.bin");
+        record(file, 20);
+
+        //when
+        TraceAggregator aggregator = TraceReport.aggregate(file);
+
+        //then
+        TraceAggregator.MethodStats reserve = aggregator.getStats().stream()
+                .filter(stats -> stats.getName().contains("reserve"))
+                .findFirst()
+                .orElseThrow();
+        assertThat(reserve.getCount()).isEqualTo(20L);
+        assertThat(reserve.getErrors()).isEqualTo(4L);
+        assertThat(reserve.getErrorRate()).isEqualTo(0.2);
+        assertThat(reserve.getPercentileNanos(50)).isLessThanOrEqualTo(reserve.getPercentileNanos(99));
+        assertThat(reserve.getPercentileNanos(99)).isLessThanOrEqualTo(reserve.getMaxNanos());
+        assertThat(aggregator.getCollapsedStacks()).hasSize(2);
+        assertThat(aggregator.getCollapsedStacks().get(1)).startsWith(
+                "hello.aop.exam.aspect.BinaryTraceTest$OrderExample.order(int);"
+                        + "hello.aop.exam.aspect.BinaryTraceTest$StockExample.reserve(int) ");
+    }
+
+    @Test
+    @DisplayName("깊이가 다른 트리가 이어져도 collapsed stack 에 이전 트리의 프레임이 섞이지 않는다.")
+    void collapsedStackAcrossTreesTest() throws Exception {
+        //given
+        Path file = tempDir.resolve("trees.bin");
+        //a -> b -> c 트리, 루트 d 하나, 다른 스레드에서 이어져서 깊이 2 로 시작하는 루트 e
+        Files.write(file, traceFile(new String[]{"void A.a()", "void B.b()", "void C.c()", "void D.d()", "void E.e()"},
+                new int[][]{{1, 0}, {2, 1}, {3, 2}, {4, 0}, {5, 2}}));
+
+        //when
+        TraceAggregator aggregator = TraceReport.aggregate(file);
+
+        //then
+        assertThat(aggregator.getCollapsedStacks()).containsExactly(
+                "?;?;E.e() 1", "A.a() 1", "A.a();B.b() 1", "A.a();B.b();C.c() 1", "D.d() 1");
+    }
+
+    @Test
+    @DisplayName("트레이스 파일이 아니면 읽기를 거부한다.")
+    void rejectUnknownFileTest() throws Exception {
+        //given
+        Path file = tempDir.resolve("trace.log");
+        Files.writeString(file, "[trace] not binary");
+
+        //then
+        assertThatThrownBy(() -> new BinaryTraceReader(file))
+                .isInstanceOf(IOException.class);
+    }
+
+    /**
+     * 바이너리 트레이스 파일을 직접 만든다. events 는 {사전 id, 깊이}, 모든 이벤트는 self 1us 이고 같은 스레드다.
+     */
+    private static byte[] traceFile(String[] names, int[][] events) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.writeBytes(new byte[]{'T', 'R', 'C', 1});
+        //SESSION: epochMillis, baseNanos(zigzag)
+        out.write(1);
+        putVarLong(out, 0);
+        putVarLong(out, 0);
+        for (int i = 0; i < names.length; i++) {
+            byte[] bytes = names[i].getBytes(StandardCharsets.UTF_8);
+            //DICTIONARY: id, 길이, UTF-8 바이트
+            out.write(2);
+            putVarLong(out, i + 1);
+            putVarLong(out, bytes.length);
+            out.writeBytes(bytes);
+        }
+        for (int[] event : events) {
+            //EVENT: signatureId, threadId, depth, startDelta(zigzag), durationNanos, selfNanos, errorId
+            out.write(3);
+            putVarLong(out, event[0]);
+            putVarLong(out, 1);
+            putVarLong(out, event[1]);
+            putVarLong(out, 0);
+            putVarLong(out, 1_000);
+            putVarLong(out, 1_000);
+            putVarLong(out, 0);
+        }
+        return out.toByteArray();
+    }
+
+    private static void putVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private void record(Path file, int orders) throws Exception {
+        record(new BinaryTraceEventWriter(file), orders);
+    }
+
+    private void record(TraceEventWriter writer, int orders) throws Exception {
+        TraceExporter exporter = new TraceExporter(1024, writer);
+        traceAspect.setReporter(exporter);
+        traceAspect.setLogLines(false);
+        for (int i = 1; i <= orders; i++) {
+            try {
+                orderExample.order(i);
+            } catch (IllegalStateException e) {
+                //재고 부족
+            }
+        }
+        exporter.close();
+    }
+
+    //이벤트는 기록하지만 파일은 닫지 않아서, 비정상 종료된 것처럼 매핑 구간의 나머지가 0 으로 남는다.
+    private TraceEventWriter withoutClose(TraceEventWriter writer) {
+        return new TraceEventWriter() {
+            @Override
+            public void write(TraceEvent event) throws IOException {
+                writer.write(event);
+            }
+
+            @Override
+            public void endBatch() throws IOException {
+                writer.endBatch();
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    @TestComponent
+    static class OrderExample {
+        private final StockExample stock;
+
+        OrderExample(StockExample stock) {
+            this.stock = stock;
+        }
+
+        @Trace
+        public void order(int quantity) {
+            stock.reserve(quantity);
+        }
+    }
+
+    @TestComponent
+    static class StockExample {
+
+        @Trace
+        public void reserve(int quantity) {
+            if (quantity % 5 == 0) {
+                throw new IllegalStateException("재고 부족");
+            }
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package hello.aop.exam.aspect;
+
+import hello.aop.exam.annotation.Bulkhead;
+import hello.aop.exam.aop.BulkheadAspect;
+import hello.aop.exam.aop.BulkheadFullException;
+import hello.aop.exam.aop.BulkheadState;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Import({BulkheadAspect.class,
+        BulkheadAspectTest.SlowProxyExample.class})
+public class BulkheadAspectTest {
+
+    @Autowired
+    BulkheadAspect bulkheadAspect;
+
+    @Autowired
+    SlowProxyExample slowProxyExample;
+
+    @Test
+    @DisplayName("동시에 실행되는 호출 수는 maxConcurrent 를 넘지 않는다.")
+    void maxConcurrentTest() throws Exception {
+        //given
+        ExecutorService executor = Executors.newFixedThreadPool(32);
+        List<Future<?>> futures = new ArrayList<>();
+        //when
+        for (int i = 0; i < 200; i++) {
+            futures.add(executor.submit(() -> slowProxyExample.limited()));
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        //then
+        assertThat(slowProxyExample.maxActive()).isLessThanOrEqualTo(4);
+        assertThat(slowProxyExample.maxActive()).isGreaterThan(1);
+    }
+
+    @Test
+    @DisplayName("자리가 없으면 maxWait 동안 대기열에서 기다리고, 지나면 BulkheadFullException 으로 거절한다.")
+    void rejectAfterMaxWaitTest() throws Exception {
+        //given
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        Future<?> first = executor.submit(() -> slowProxyExample.blocking(release));
+        Future<?> second = executor.submit(() -> slowProxyExample.blocking(release));
+        waitUntil(() -> slowProxyExample.active() == 2);
+        BulkheadState state = bulkheadAspect.getState(
+                SlowProxyExample.class.getMethod("blocking", CountDownLatch.class));
+
+        //when
+        Future<?> third = executor.submit(() -> slowProxyExample.blocking(release));
+        waitUntil(() -> state.getQueueDepth() == 1);
+
+        //then
+        assertThat(state.getActive()).isEqualTo(2);
+        assertThatThrownBy(() -> third.get(1, TimeUnit.SECONDS))
+                .hasCauseInstanceOf(BulkheadFullException.class);
+        assertThat(state.getQueueDepth()).isEqualTo(0);
+        assertThat(state.getRejected()).isEqualTo(1L);
+
+        release.countDown();
+        first.get(1, TimeUnit.SECONDS);
+        second.get(1, TimeUnit.SECONDS);
+        executor.shutdown();
+        assertThat(state.getActive()).isEqualTo(0);
+    }
+
+    private void waitUntil(Condition condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.test()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+    }
+
+    interface Condition {
+        boolean test();
+    }
+
+    @TestComponent
+    static class SlowProxyExample {
+        private final AtomicInteger active = new AtomicInteger();
+        private final AtomicInteger maxActive = new AtomicInteger();
+
+        @Bulkhead(maxConcurrent = 4, maxWait = 5_000)
+        public void limited() {
+            int current = active.incrementAndGet();
+            maxActive.accumulateAndGet(current, Math::max);
+            try {
+                TimeUnit.MILLISECONDS.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                active.decrementAndGet();
+            }
+        }
+
+        @Bulkhead(maxConcurrent = 2, maxWait = 200)
+        public void blocking(CountDownLatch release) {
+            active.incrementAndGet();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                active.decrementAndGet();
+            }
+        }
+
+        public int active() {
+            return active.get();
+        }
+
+        public int maxActive() {
+            return maxActive.get();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package hello.aop.exam.aspect;
+
+import hello.aop.exam.ExamRepository;
+import hello.aop.exam.ExamService;
+import hello.aop.exam.annotation.CircuitBreaker;
+import hello.aop.exam.annotation.Retry;
+import hello.aop.exam.aop.CircuitBreakerAspect;
+import hello.aop.exam.aop.CircuitBreakerOpenException;
+import hello.aop.exam.aop.CircuitBreakerState;
+import hello.aop.exam.aop.RetryAspect;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Import({RetryAspect.class,
+        CircuitBreakerAspect.class,
+        CircuitBreakerAspectTest.AlwaysFailProxyExample.class})
+public class CircuitBreakerAspectTest {
+
+    private static final int THREAD_COUNT = 2000;
+
+    @Autowired
+    ExamService service;
+
+    @Autowired
+    CircuitBreakerAspect circuitBreakerAspect;
+
+    @Autowired
+    AlwaysFailProxyExample alwaysFailProxyExample;
+
+    @Test
+    @DisplayName("수천 개의 스레드가 ExamService.request 를 동시에 호출해도 모든 호출이 성공 또는 IllegalStateException 으로 끝나고 서킷은 닫혀 있다.")
+    void concurrentRequestTest() throws Exception {
+        //given
+        AtomicInteger success = new AtomicInteger();
+        AtomicInteger failure = new AtomicInteger();
+        Queue<Throwable> unexpected = new ConcurrentLinkedQueue<>();
+        //when
+        runConcurrently(i -> {
+            try {
+                service.request("data" + i);
+                success.incrementAndGet();
+            } catch (IllegalStateException e) {
+                failure.incrementAndGet();
+            } catch (Throwable e) {
+                unexpected.add(e);
+            }
+        });
+        //then
+        CircuitBreakerState state = circuitBreakerAspect.getState(ExamRepository.class.getMethod("save", String.class));
+        assertThat(unexpected).isEmpty();
+        assertThat(success.get() + failure.get()).isEqualTo(THREAD_COUNT);
+        assertThat(state.getState()).isEqualTo(CircuitBreakerState.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("서킷이 열리면 대상을 호출하지 않고 바로 실패하며, 재시도도 하지 않는다.")
+    void openFailFastTest() throws Exception {
+        //given
+        Queue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        //when
+        runConcurrently(i -> {
+            try {
+                alwaysFailProxyExample.call();
+            } catch (Throwable e) {
+                errors.add(e);
+            }
+        });
+        //then
+        CircuitBreakerState state = circuitBreakerAspect.getState(AlwaysFailProxyExample.class.getMethod("call"));
+        assertThat(errors).hasSize(THREAD_COUNT);
+        assertThat(state.getState()).isEqualTo(CircuitBreakerState.State.OPEN);
+        assertThat(state.getRejected()).isGreaterThan(0L);
+        assertThat(alwaysFailProxyExample.count()).isLessThan(THREAD_COUNT * 3);
+
+        int countBeforeOpenCall = alwaysFailProxyExample.count();
+        assertThatThrownBy(() -> alwaysFailProxyExample.call())
+                .isInstanceOf(CircuitBreakerOpenException.class);
+        assertThat(alwaysFailProxyExample.count()).isEqualTo(countBeforeOpenCall);
+    }
+
+    private void runConcurrently(IndexedTask task) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(THREAD_COUNT);
+        List<Thread> threads = new ArrayList<>();
+        for (int i = 0; i < THREAD_COUNT; i++) {
+            int index = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    start.await();
+                    task.run(index);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        start.countDown();
+        assertThat(done.await(30, TimeUnit.SECONDS)).isTrue();
+    }
+
+    interface IndexedTask {
+        void run(int index);
+    }
+
+    @TestComponent
+    static class AlwaysFailProxyExample {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Retry(3)
+        @CircuitBreaker(minimumCalls = 10, openDuration = 60_000)
+        public void call() {
+            count.incrementAndGet();
+            throw new IllegalStateException("테스트 오류 발생");
+        }
+
+        public int count() {
+            return count.get();
+        }
+    }
+}
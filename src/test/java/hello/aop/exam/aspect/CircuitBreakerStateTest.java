@@ -0,0 +1,93 @@
+package hello.aop.exam.aspect;
+
+import hello.aop.exam.annotation.CircuitBreaker;
+import hello.aop.exam.aop.CircuitBreakerState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class CircuitBreakerStateTest {
+
+    private CircuitBreakerState state;
+
+    @BeforeEach
+    void setUp() throws NoSuchMethodException {
+        CircuitBreaker circuitBreaker = Fixture.class.getDeclaredMethod("call").getAnnotation(CircuitBreaker.class);
+        state = new CircuitBreakerState("test", circuitBreaker);
+    }
+
+    @Test
+    @DisplayName("minimumCalls 이상 호출되고 실패율이 기준 이상이면 열리고, 열린 동안 호출을 거절한다.")
+    void openTest() {
+        //when
+        for (int i = 0; i < 5; i++) {
+            assertThat(state.tryAcquirePermission()).isTrue();
+            state.onSuccess();
+            assertThat(state.tryAcquirePermission()).isTrue();
+            state.onFailure();
+        }
+        //then
+        assertThat(state.getState()).isEqualTo(CircuitBreakerState.State.OPEN);
+        assertThat(state.tryAcquirePermission()).isFalse();
+        assertThat(state.getRejected()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("실패율이 기준보다 낮으면 닫힌 상태를 유지한다.")
+    void stayClosedTest() {
+        for (int i = 0; i < 100; i++) {
+            state.onSuccess();
+            state.onSuccess();
+            state.onFailure();
+        }
+        assertThat(state.getState()).isEqualTo(CircuitBreakerState.State.CLOSED);
+    }
+
+    @Test
+    @DisplayName("openDuration 이 지나면 halfOpenCalls 만큼만 시험 호출을 허용하고, 모두 성공하면 닫힌다.")
+    void halfOpenRecoverTest() throws InterruptedException {
+        //given
+        open();
+        TimeUnit.MILLISECONDS.sleep(60);
+        //when
+        assertThat(state.tryAcquirePermission()).isTrue();
+        assertThat(state.tryAcquirePermission()).isTrue();
+        assertThat(state.tryAcquirePermission()).isFalse();
+        assertThat(state.getState()).isEqualTo(CircuitBreakerState.State.HALF_OPEN);
+        state.onSuccess();
+        state.onSuccess();
+        //then
+        assertThat(state.getState()).isEqualTo(CircuitBreakerState.State.CLOSED);
+        assertThat(state.tryAcquirePermission()).isTrue();
+    }
+
+    @Test
+    @DisplayName("반열림 상태의 시험 호출이 실패하면 다시 열린다.")
+    void halfOpenFailTest() throws InterruptedException {
+        //given
+        open();
+        TimeUnit.MILLISECONDS.sleep(60);
+        //when
+        assertThat(state.tryAcquirePermission()).isTrue();
+        state.onFailure();
+        //then
+        assertThat(state.getState()).isEqualTo(CircuitBreakerState.State.OPEN);
+        assertThat(state.tryAcquirePermission()).isFalse();
+    }
+
+    private void open() {
+        for (int i = 0; i < 10; i++) {
+            state.onFailure();
+        }
+        assertThat(state.getState()).isEqualTo(CircuitBreakerState.State.OPEN);
+    }
+
+    static class Fixture {
+        @CircuitBreaker(minimumCalls = 10, failureRateThreshold = 50, openDuration = 50, halfOpenCalls = 2)
+        void call() {}
+    }
+}
@@ -0,0 +1,154 @@
+package hello.aop.exam.aspect;
+
+import hello.aop.exam.annotation.Coalesce;
+import hello.aop.exam.aop.CoalesceAspect;
+import hello.aop.exam.aop.SingleFlight;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.context.annotation.Import;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Import({CoalesceAspect.class,
+        CoalesceAspectTest.LookupExample.class})
+public class CoalesceAspectTest {
+
+    @Autowired
+    CoalesceAspect coalesceAspect;
+
+    @Autowired
+    LookupExample lookupExample;
+
+    @Test
+    @DisplayName("같은 인자로 동시에 들어온 호출은 한 번만 실행되고 결과를 함께 받는다.")
+    void coalesceTest() throws Exception {
+        //given
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(10);
+        List<Future<String>> futures = new ArrayList<>();
+        //when
+        for (int i = 0; i < 10; i++) {
+            futures.add(executor.submit(() -> lookupExample.find("item", release)));
+        }
+        SingleFlight flight = waitForFlight();
+        waitUntil(() -> flight.getHits() + flight.getMisses() == 10);
+        release.countDown();
+        //then
+        for (Future<String> future : futures) {
+            assertThat(future.get(5, TimeUnit.SECONDS)).isEqualTo("item-1");
+        }
+        assertThat(lookupExample.findCount()).isEqualTo(1);
+        assertThat(flight.getMisses()).isEqualTo(1L);
+        assertThat(flight.getHits()).isEqualTo(9L);
+        assertThat(flight.getInFlight()).isEqualTo(0);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("실행이 끝난 뒤에 들어온 호출은 결과를 재사용하지 않고 새로 실행된다.")
+    void noCachingAfterCompleteTest() {
+        //when
+        String first = lookupExample.quick("item");
+        String second = lookupExample.quick("item");
+        //then
+        assertThat(first).isNotEqualTo(second);
+    }
+
+    @Test
+    @DisplayName("실행 중 발생한 예외는 합류한 호출에도 그대로 전달된다.")
+    void shareExceptionTest() throws Exception {
+        //given
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<String>> futures = new ArrayList<>();
+        //when
+        for (int i = 0; i < 4; i++) {
+            futures.add(executor.submit(() -> lookupExample.fail("item", release)));
+        }
+        TimeUnit.MILLISECONDS.sleep(100);
+        release.countDown();
+        //then
+        for (Future<String> future : futures) {
+            assertThatThrownBy(() -> future.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+        }
+        assertThat(lookupExample.failCount()).isLessThan(4);
+        executor.shutdown();
+    }
+
+    private SingleFlight waitForFlight() throws Exception {
+        waitUntil(() -> coalesceAspect.getFlight(findMethod()) != null);
+        return coalesceAspect.getFlight(findMethod());
+    }
+
+    private Method findMethod() {
+        try {
+            return LookupExample.class.getMethod("find", String.class, CountDownLatch.class);
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void waitUntil(Condition condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.test()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+    }
+
+    interface Condition {
+        boolean test();
+    }
+
+    @TestComponent
+    static class LookupExample {
+        private final AtomicInteger findCount = new AtomicInteger();
+        private final AtomicInteger quickCount = new AtomicInteger();
+        private final AtomicInteger failCount = new AtomicInteger();
+
+        @Coalesce
+        public String find(String itemId, CountDownLatch release) throws InterruptedException {
+            int count = findCount.incrementAndGet();
+            release.await();
+            return itemId + "-" + count;
+        }
+
+        @Coalesce
+        public String quick(String itemId) {
+            return itemId + "-" + quickCount.incrementAndGet();
+        }
+
+        @Coalesce
+        public String fail(String itemId, CountDownLatch release) throws InterruptedException {
+            failCount.incrementAndGet();
+            release.await();
+            throw new IllegalStateException("예외 발생");
+        }
+
+        public int findCount() {
+            return findCount.get();
+        }
+
+        public int failCount() {
+            return failCount.get();
+        }
+    }
+}
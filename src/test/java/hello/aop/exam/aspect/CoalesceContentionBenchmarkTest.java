@@ -0,0 +1,109 @@
+package hello.aop.exam.aspect;
+
+import hello.aop.exam.annotation.Coalesce;
+import hello.aop.exam.aop.CoalesceAspect;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 64 개 스레드가 8 개 키에 몰리는 상황에서 합치기 전후의 실제 실행 수와 처리 시간을 비교한다.
+ * 대상은 호출마다 2ms 가 걸린다.
+ * 합쳐지는 실행 수는 스레드 스케줄링에 달려 있으므로 benchmark 태그로 기본 테스트에서 뺀다.
+ */
+@Slf4j
+@SpringBootTest
+@Import({CoalesceAspect.class,
+        CoalesceContentionBenchmarkTest.ContendedTarget.class})
+@Tag("benchmark")
+public class CoalesceContentionBenchmarkTest {
+
+    private static final int THREADS = 64;
+    private static final int CALLS_PER_THREAD = 50;
+    private static final int KEYS = 8;
+
+    @Autowired
+    ContendedTarget target;
+
+    @Test
+    @DisplayName("같은 키에 동시 호출이 몰리면 합치기로 실제 실행 수와 처리 시간이 줄어든다.")
+    void contentionTest() throws Exception {
+        //when
+        long plainMillis = measure(target::plain);
+        int plainExecutions = target.resetExecutions();
+        long coalescedMillis = measure(target::coalesced);
+        int coalescedExecutions = target.resetExecutions();
+        //then
+        log.info("[benchmark] plain     executions={} elapsed={}ms", plainExecutions, plainMillis);
+        log.info("[benchmark] coalesced executions={} elapsed={}ms", coalescedExecutions, coalescedMillis);
+        assertThat(plainExecutions).isEqualTo(THREADS * CALLS_PER_THREAD);
+        assertThat(coalescedExecutions).isLessThan(plainExecutions / 2);
+    }
+
+    private long measure(Consumer<String> call) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < CALLS_PER_THREAD; i++) {
+                    call.accept("item" + (i % KEYS));
+                }
+                return null;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+        executor.shutdown();
+        return elapsed;
+    }
+
+    @TestComponent
+    static class ContendedTarget {
+        private final AtomicInteger executions = new AtomicInteger();
+
+        public void plain(String itemId) {
+            call();
+        }
+
+        @Coalesce
+        public void coalesced(String itemId) {
+            call();
+        }
+
+        public int resetExecutions() {
+            return executions.getAndSet(0);
+        }
+
+        private void call() {
+            executions.incrementAndGet();
+            try {
+                TimeUnit.MILLISECONDS.sleep(2);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package hello.aop.exam.aspect;
+
+import hello.aop.exam.annotation.Trace;
+import hello.aop.exam.aop.ContextExecutors;
+import hello.aop.exam.aop.ContextSnapshot;
+import hello.aop.exam.aop.Deadline;
+import hello.aop.exam.aop.Span;
+import hello.aop.exam.aop.TraceAspect;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Import({TraceAspect.class,
+        ContextPropagationTest.FanOutExample.class,
+        ContextPropagationTest.WorkerExample.class})
+public class ContextPropagationTest {
+
+    @Autowired
+    TraceAspect traceAspect;
+
+    @Autowired
+    FanOutExample fanOutExample;
+
+    private final List<Span> roots = new CopyOnWriteArrayList<>();
+    private final ExecutorService executor = ContextExecutors.wrap(Executors.newFixedThreadPool(2));
+
+    @BeforeEach
+    void setUp() {
+        traceAspect.setReporter(roots::add);
+        traceAspect.setLogLines(false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdown();
+        traceAspect.setLogLines(true);
+        traceAspect.setReporter(span -> {
+        });
+    }
+
+    @Test
+    @DisplayName("감싼 executor 에서 실행된 작업은 제출한 스레드의 데드라인을 사용하고, 끝나면 되돌린다.")
+    void propagateDeadlineTest() throws Exception {
+        //given
+        Deadline deadline = Deadline.after(1, TimeUnit.SECONDS);
+        Deadline previous = Deadline.attach(deadline);
+        CompletableFuture<Deadline> seen;
+        try {
+            //when
+            seen = CompletableFuture.supplyAsync(Deadline::current, executor);
+        } finally {
+            Deadline.restore(previous);
+        }
+        //then
+        assertThat(seen.get(1, TimeUnit.SECONDS)).isSameAs(deadline);
+        assertThat(executor.submit(Deadline::current).get(1, TimeUnit.SECONDS)).isNull();
+    }
+
+    @Test
+    @DisplayName("다른 스레드에서 실행된 @Trace 호출은 제출한 구간에 이어진 구간으로 따로 보고된다.")
+    void propagateTraceTest() throws Exception {
+        //when
+        fanOutExample.fanOut(executor, 3);
+        //then
+        waitUntil(() -> roots.size() == 4);
+        Span parent = roots.stream().filter(span -> span.getName().contains("fanOut")).findFirst().orElseThrow();
+        List<Span> remote = roots.stream().filter(span -> span.getRemoteParent() != null).toList();
+        assertThat(remote).hasSize(3);
+        for (Span span : remote) {
+            assertThat(span.getRemoteParent()).isSameAs(parent);
+            assertThat(span.getDepth()).isEqualTo(1);
+            assertThat(span.getName()).contains("WorkerExample.work(int)");
+        }
+    }
+
+    @Test
+    @DisplayName("샘플링되지 않은 호출에서 넘어간 작업은 다른 스레드에서도 기록하지 않는다.")
+    void propagateUnsampledTest() throws Exception {
+        //when
+        fanOutExample.unsampledFanOut(executor, 3);
+        TimeUnit.MILLISECONDS.sleep(100);
+        //then
+        assertThat(roots).isEmpty();
+    }
+
+    @Test
+    @DisplayName("가상 스레드 executor 는 Java 17 에서도 작업마다 스레드를 만들고 컨텍스트를 옮긴다.")
+    void virtualThreadPerTaskTest() throws Exception {
+        //given
+        ExecutorService perTask = ContextExecutors.newVirtualThreadPerTaskExecutor();
+        Deadline deadline = Deadline.after(1, TimeUnit.SECONDS);
+        Deadline previous = Deadline.attach(deadline);
+        try {
+            //when
+            Deadline seen = perTask.submit(Deadline::current).get(1, TimeUnit.SECONDS);
+            //then
+            assertThat(seen).isSameAs(deadline);
+        } finally {
+            Deadline.restore(previous);
+            perTask.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("옮길 컨텍스트가 없으면 스냅샷을 새로 만들지 않는다.")
+    void emptySnapshotTest() {
+        //when
+        ContextSnapshot first = ContextSnapshot.capture();
+        ContextSnapshot second = ContextSnapshot.capture();
+        //then
+        assertThat(first.isEmpty()).isTrue();
+        assertThat(first).isSameAs(second);
+    }
+
+    private void waitUntil(Condition condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.test()) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+    }
+
+    interface Condition {
+        boolean test();
+    }
+
+    @TestComponent
+    static class FanOutExample {
+        private final WorkerExample worker;
+
+        FanOutExample(WorkerExample worker) {
+            this.worker = worker;
+        }
+
+        @Trace
+        public void fanOut(ExecutorService executor, int tasks) throws Exception {
+            submitAll(executor, tasks);
+        }
+
+        @Trace(sampleRate = 0)
+        public void unsampledFanOut(ExecutorService executor, int tasks) throws Exception {
+            submitAll(executor, tasks);
+        }
+
+        private void submitAll(ExecutorService executor, int tasks) throws Exception {
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks];
+            for (int i = 0; i < tasks; i++) {
+                int index = i;
+                futures[i] = CompletableFuture.runAsync(() -> worker.work(index), executor);
+            }
+            CompletableFuture.allOf(futures).get(1, TimeUnit.SECONDS);
+        }
+    }
+
+    @TestComponent
+    static class WorkerExample {
+
+        @Trace
+        public void work(int index) {
+        }
+    }
+}
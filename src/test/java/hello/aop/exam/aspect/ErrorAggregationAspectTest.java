@@ -0,0 +1,106 @@
+package hello.aop.exam.aspect;
+
+import hello.aop.exam.annotation.AggregateErrors;
+import hello.aop.exam.aop.ErrorAggregationAspect;
+import hello.aop.exam.aop.ErrorAggregator;
+import hello.aop.exam.aop.ErrorFingerprint;
+import hello.aop.util.LogAppenders;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.context.annotation.Import;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Import({ErrorAggregationAspect.class, ErrorAggregationAspectTest.FailingExample.class})
+public class ErrorAggregationAspectTest extends LogAppenders {
+
+    @Autowired
+    ErrorAggregationAspect errorAggregationAspect;
+
+    @Autowired
+    FailingExample failingExample;
+
+    ErrorAggregator aggregator;
+
+    @BeforeEach
+    void setAggregator() {
+        //스케줄러로 요약하지 않고 테스트에서 직접 flush() 한다.
+        aggregator = new ErrorAggregator("test", 1, TimeUnit.HOURS);
+        errorAggregationAspect.setAggregator(aggregator);
+    }
+
+    @Test
+    @DisplayName("메시지의 숫자만 다른 예외는 같은 지문이 된다.")
+    void fingerprintTest() {
+        //given
+        IllegalStateException first = failingExample.create("item 42 not found, tx=0x1f3a");
+        IllegalStateException second = failingExample.create("item 43 not found, tx=0x2b7c");
+        IllegalArgumentException otherType = new IllegalArgumentException("item 42 not found, tx=0x1f3a");
+
+        //then
+        assertThat(ErrorFingerprint.of(first)).isEqualTo(ErrorFingerprint.of(second));
+        assertThat(ErrorFingerprint.of(first).getTemplate()).isEqualTo("item # not found, tx=#");
+        assertThat(ErrorFingerprint.of(first)).isNotEqualTo(ErrorFingerprint.of(otherType));
+    }
+
+    @Test
+    @DisplayName("같은 원인의 예외는 윈도우마다 처음 한 번만 스택 트레이스와 함께 남기고 나머지는 요약한다.")
+    void deduplicateTest() {
+        //when
+        for (int i = 0; i < 100; i++) {
+            int itemId = i;
+            assertThatThrownBy(() -> failingExample.fail(itemId)).isInstanceOf(IllegalStateException.class);
+        }
+        aggregator.flush();
+
+        //then
+        assertThat(aggregator.size()).isEqualTo(1);
+        assertThat(countLogs("[error]")).isEqualTo(1L);
+        assertThat(getContainsLog("[error]").orElseThrow().getThrowableProxy()).isNotNull();
+        assertThat(getContainsLog("[error-summary]").orElseThrow().getFormattedMessage())
+                .contains("count=100")
+                .contains("item # not found");
+    }
+
+    @Test
+    @DisplayName("다음 윈도우에서는 같은 지문의 첫 예외를 다시 스택 트레이스와 함께 남긴다.")
+    void nextWindowTest() {
+        //given
+        assertThatThrownBy(() -> failingExample.fail(1)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> failingExample.fail(2)).isInstanceOf(IllegalStateException.class);
+
+        //when
+        aggregator.flush();
+        assertThatThrownBy(() -> failingExample.fail(3)).isInstanceOf(IllegalStateException.class);
+
+        //then
+        assertThat(countLogs("[error]")).isEqualTo(2L);
+    }
+
+    private long countLogs(String prefix) {
+        return listAppender.list.stream()
+                .filter(event -> event.getFormattedMessage().startsWith(prefix + " "))
+                .count();
+    }
+
+    @TestComponent
+    static class FailingExample {
+
+        @AggregateErrors
+        public void fail(int itemId) {
+            throw new IllegalStateException("item " + itemId + " not found");
+        }
+
+        public IllegalStateException create(String message) {
+            return new IllegalStateException(message);
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package hello.aop.exam.aspect;
+
+import hello.aop.exam.annotation.Hedge;
+import hello.aop.exam.aop.HedgeAspect;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.context.annotation.Import;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Import({HedgeAspect.class,
+        HedgeAspectTest.HedgeProxyExample.class})
+public class HedgeAspectTest {
+
+    @Autowired
+    HedgeProxyExample hedgeProxyExample;
+
+    @BeforeEach
+    void setUp() {
+        hedgeProxyExample.reset();
+    }
+
+    @Test
+    @DisplayName("첫 시도가 delay 안에 끝나지 않으면 다음 시도를 시작하고, 먼저 끝난 결과를 반환한 뒤 늦은 시도를 취소한다.")
+    void hedgeTest() throws InterruptedException {
+        //when
+        long start = System.nanoTime();
+        String result = hedgeProxyExample.slowFirst();
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        //then
+        assertThat(result).isEqualTo("ok2");
+        assertThat(elapsedMillis).isLessThan(500L);
+        assertThat(hedgeProxyExample.count()).isEqualTo(2);
+        assertThat(hedgeProxyExample.awaitInterrupted()).isTrue();
+    }
+
+    @Test
+    @DisplayName("delay 안에 끝나면 다음 시도를 시작하지 않는다.")
+    void noHedgeTest() throws InterruptedException {
+        //when
+        String result = hedgeProxyExample.fast();
+        TimeUnit.MILLISECONDS.sleep(50);
+        //then
+        assertThat(result).isEqualTo("ok1");
+        assertThat(hedgeProxyExample.count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("실행 중인 시도가 모두 실패하면 마지막 예외를 발생시킨다.")
+    void failTest() {
+        assertThatThrownBy(() -> hedgeProxyExample.fail())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("테스트 오류 발생");
+    }
+
+    @TestComponent
+    static class HedgeProxyExample {
+        private final AtomicInteger count = new AtomicInteger();
+        private volatile CountDownLatch interrupted = new CountDownLatch(1);
+
+        @Hedge(delay = 20)
+        public String slowFirst() {
+            int current = count.incrementAndGet();
+            if (current == 1) {
+                try {
+                    TimeUnit.SECONDS.sleep(5);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+            }
+            return "ok" + current;
+        }
+
+        @Hedge(delay = 20)
+        public String fast() {
+            return "ok" + count.incrementAndGet();
+        }
+
+        @Hedge(delay = 20)
+        public String fail() {
+            count.incrementAndGet();
+            throw new IllegalStateException("테스트 오류 발생");
+        }
+
+        public void reset() {
+            count.set(0);
+            interrupted = new CountDownLatch(1);
+        }
+
+        public int count() {
+            return count.get();
+        }
+
+        public boolean awaitInterrupted() throws InterruptedException {
+            return interrupted.await(1, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package hello.aop.exam.aspect;
+
+import hello.aop.exam.annotation.Hedge;
+import hello.aop.exam.aop.HedgeAspect;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.context.annotation.Import;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 5% 확률로 200ms, 나머지는 2ms 가 걸리는 대상에 대해 헤지 전후의 지연 시간 분포를 비교한다.
+ * 시간에 따라 결과가 달라지므로 기본 test 태스크에서는 빠지고 ./gradlew benchmark 로 실행한다.
+ */
+@Slf4j
+@SpringBootTest
+@Import({HedgeAspect.class,
+        HedgeLatencyBenchmarkTest.LatencyInjectedTarget.class})
+@Tag("benchmark")
+public class HedgeLatencyBenchmarkTest {
+
+    private static final int CALLS = 400;
+
+    @Autowired
+    LatencyInjectedTarget target;
+
+    @Test
+    @DisplayName("헤지를 적용하면 느린 응답에 갇히지 않아서 p99 지연 시간이 줄어든다.")
+    void p99Test() {
+        //given
+        warmUp();
+        //when
+        long[] plain = measure(target::plain);
+        long[] fixed = measure(target::fixedDelay);
+        long[] adaptive = measure(target::adaptiveDelay);
+        //then
+        log.info("[benchmark] plain    p50={}ms p99={}ms max={}ms", p(plain, 50), p(plain, 99), p(plain, 100));
+        log.info("[benchmark] fixed    p50={}ms p99={}ms max={}ms", p(fixed, 50), p(fixed, 99), p(fixed, 100));
+        log.info("[benchmark] adaptive p50={}ms p99={}ms max={}ms", p(adaptive, 50), p(adaptive, 99), p(adaptive, 100));
+        assertThat(p(plain, 99)).isGreaterThanOrEqualTo(150L);
+        assertThat(p(fixed, 99)).isLessThan(p(plain, 99) / 2);
+    }
+
+    private void warmUp() {
+        for (int i = 0; i < 50; i++) {
+            target.fixedDelay();
+            target.adaptiveDelay();
+        }
+    }
+
+    private long[] measure(Supplier<String> call) {
+        long[] millis = new long[CALLS];
+        for (int i = 0; i < CALLS; i++) {
+            long start = System.nanoTime();
+            call.get();
+            millis[i] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        }
+        Arrays.sort(millis);
+        return millis;
+    }
+
+    private long p(long[] sorted, int percentile) {
+        int index = (int) Math.ceil(sorted.length * percentile / 100.0) - 1;
+        return sorted[Math.max(0, index)];
+    }
+
+    @TestComponent
+    static class LatencyInjectedTarget {
+
+        public String plain() {
+            return call();
+        }
+
+        @Hedge(delay = 20)
+        public String fixedDelay() {
+            return call();
+        }
+
+        @Hedge
+        public String adaptiveDelay() {
+            return call();
+        }
+
+        private String call() {
+            long millis = ThreadLocalRandom.current().nextInt(100) < 5 ? 200 : 2;
+            try {
+                TimeUnit.MILLISECONDS.sleep(millis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return "ok";
+        }
+    }
+}
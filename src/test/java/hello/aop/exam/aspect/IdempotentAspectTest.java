@@ -0,0 +1,232 @@
+package hello.aop.exam.aspect;
+
+import hello.aop.exam.annotation.Idempotent;
+import hello.aop.exam.aop.IdempotencyStore;
+import hello.aop.exam.aop.IdempotentAspect;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Import({IdempotentAspect.class,
+        IdempotentAspectTest.PaymentExample.class})
+public class IdempotentAspectTest {
+
+    @Autowired
+    IdempotentAspect idempotentAspect;
+
+    @Autowired
+    PaymentExample paymentExample;
+
+    @Test
+    @DisplayName("ttl 안에 같은 키로 다시 호출하면 실행하지 않고 보관한 결과를 반환한다.")
+    void duplicateReturnsStoredResultTest() throws Exception {
+        //when
+        String first = paymentExample.pay("order-1", 1000);
+        String second = paymentExample.pay("order-1", 2000);
+        String other = paymentExample.pay("order-2", 1000);
+
+        //then
+        assertThat(second).isEqualTo(first);
+        assertThat(other).isNotEqualTo(first);
+        assertThat(paymentExample.payCount()).isEqualTo(2);
+        IdempotencyStore store = idempotentAspect.getStore(
+                PaymentExample.class.getMethod("pay", String.class, int.class));
+        assertThat(store.getHits()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("같은 키로 동시에 들어온 호출은 한 번만 실행되고 같은 결과를 공유한다.")
+    void concurrentDuplicatesShareExecutionTest() throws Exception {
+        //given
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<String>> futures = new ArrayList<>();
+
+        //when
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> paymentExample.slowPay("order-slow", release)));
+        }
+        TimeUnit.MILLISECONDS.sleep(100);
+        release.countDown();
+
+        //then
+        String expected = futures.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<String> future : futures) {
+            assertThat(future.get(5, TimeUnit.SECONDS)).isEqualTo(expected);
+        }
+        assertThat(paymentExample.slowPayCount()).isEqualTo(1);
+        executor.shutdown();
+    }
+
+    @Test
+    @DisplayName("실패한 결과는 보관하지 않아서 다음 호출은 다시 실행된다.")
+    void failureIsNotStoredTest() {
+        //when
+        assertThatThrownBy(() -> paymentExample.flaky("order-flaky"))
+                .isInstanceOf(IllegalStateException.class);
+        String result = paymentExample.flaky("order-flaky");
+        String duplicate = paymentExample.flaky("order-flaky");
+
+        //then
+        assertThat(result).isEqualTo("paid-2");
+        assertThat(duplicate).isEqualTo(result);
+        assertThat(paymentExample.flakyCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("maxSize 를 넘으면 가장 오래된 결과부터 제거된다.")
+    void evictOldestTest() throws Exception {
+        //when
+        for (int i = 0; i < 10; i++) {
+            paymentExample.bounded("order-" + i);
+        }
+        paymentExample.bounded("order-0");
+
+        //then
+        IdempotencyStore store = idempotentAspect.getStore(
+                PaymentExample.class.getMethod("bounded", String.class));
+        assertThat(store.size()).isLessThanOrEqualTo(4);
+        assertThat(paymentExample.boundedCount()).isEqualTo(11);
+    }
+
+    @Test
+    @DisplayName("키 표현식이 null 이면 실행하지 않고 IllegalArgumentException 이 발생한다.")
+    void nullKeyTest() {
+        //given
+        int before = paymentExample.payCount();
+
+        //then
+        assertThatThrownBy(() -> paymentExample.pay(null, 1000))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("#orderId");
+        assertThat(paymentExample.payCount()).isEqualTo(before);
+    }
+
+    @Test
+    @DisplayName("maxSize 를 넘어도 실행 중인 항목은 제거하지 않아서, 같은 키의 호출은 그 실행을 기다린다.")
+    void inFlightNotEvictedTest() {
+        //given
+        IdempotencyStore store = new IdempotencyStore(1, TimeUnit.MINUTES, 2);
+        IdempotencyStore.Entry running = store.acquire("running");
+        assertThat(running.tryStart()).isTrue();
+
+        //when
+        for (int i = 0; i < 5; i++) {
+            IdempotencyStore.Entry entry = store.acquire("done-" + i);
+            entry.tryStart();
+            entry.complete("ok");
+        }
+
+        //then
+        assertThat(store.acquire("running")).isSameAs(running);
+        assertThat(store.size()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("실패한 항목은 크기에 세지 않아서 살아있는 항목을 밀어내지 않는다.")
+    void failedNotCountedTest() {
+        //given
+        IdempotencyStore store = new IdempotencyStore(1, TimeUnit.MINUTES, 2);
+        IdempotencyStore.Entry kept = store.acquire("kept");
+        kept.tryStart();
+        kept.complete("ok");
+
+        //when
+        for (int i = 0; i < 5; i++) {
+            IdempotencyStore.Entry entry = store.acquire("failed-" + i);
+            entry.tryStart();
+            entry.fail(new IllegalStateException("예외 발생"));
+        }
+
+        //then
+        assertThat(store.getQueued()).isEqualTo(1);
+        assertThat(store.acquire("kept")).isSameAs(kept);
+    }
+
+    @Test
+    @DisplayName("만료되어 새 항목으로 바뀐 항목은 크기에서 빠진다.")
+    void replacedExpiredNotCountedTest() {
+        //given
+        IdempotencyStore store = new IdempotencyStore(0, TimeUnit.NANOSECONDS, 10);
+        //실행 중인 항목이 큐의 앞을 막고 있어서 넣을 때의 정리로는 뒤의 항목이 빠지지 않는다.
+        IdempotencyStore.Entry running = store.acquire("running");
+        running.tryStart();
+
+        //when
+        for (int i = 0; i < 5; i++) {
+            IdempotencyStore.Entry entry = store.acquire("expired");
+            entry.tryStart();
+            entry.complete("ok");
+        }
+
+        //then
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.getQueued()).isEqualTo(2);
+    }
+
+    @TestComponent
+    static class PaymentExample {
+        private final AtomicInteger payCount = new AtomicInteger();
+        private final AtomicInteger slowPayCount = new AtomicInteger();
+        private final AtomicInteger flakyCount = new AtomicInteger();
+        private final AtomicInteger boundedCount = new AtomicInteger();
+
+        @Idempotent(key = "#orderId")
+        public String pay(String orderId, int amount) {
+            return orderId + "-paid-" + amount + "-" + payCount.incrementAndGet();
+        }
+
+        @Idempotent(key = "#orderId")
+        public String slowPay(String orderId, CountDownLatch release) throws InterruptedException {
+            int count = slowPayCount.incrementAndGet();
+            release.await();
+            return "paid-" + count;
+        }
+
+        @Idempotent
+        public String flaky(String orderId) {
+            int count = flakyCount.incrementAndGet();
+            if (count == 1) {
+                throw new IllegalStateException("예외 발생");
+            }
+            return "paid-" + count;
+        }
+
+        @Idempotent(maxSize = 4)
+        public String bounded(String orderId) {
+            return "paid-" + boundedCount.incrementAndGet();
+        }
+
+        public int payCount() {
+            return payCount.get();
+        }
+
+        public int slowPayCount() {
+            return slowPayCount.get();
+        }
+
+        public int flakyCount() {
+            return flakyCount.get();
+        }
+
+        public int boundedCount() {
+            return boundedCount.get();
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package hello.aop.exam.aspect;
+
+import hello.aop.exam.annotation.Profiled;
+import hello.aop.exam.aop.ProfileStats;
+import hello.aop.exam.aop.ProfiledAspect;
+import hello.aop.util.LogAppenders;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.context.annotation.Import;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Import({ProfiledAspect.class, ProfiledAspectTest.WorkExample.class})
+public class ProfiledAspectTest extends LogAppenders {
+
+    @Autowired
+    ProfiledAspect profiledAspect;
+
+    @Autowired
+    WorkExample workExample;
+
+    @Test
+    @DisplayName("호출마다 할당한 바이트 수를 모으고, 예산을 넘은 메서드는 처음 한 번만 경고한다.")
+    void allocationTest() throws Exception {
+        //when
+        for (int i = 0; i < 10; i++) {
+            workExample.allocate(1024);
+        }
+        workExample.allocate(1024 * 1024);
+        workExample.allocate(1024 * 1024);
+
+        //then
+        ProfileStats stats = profiledAspect.getStats(WorkExample.class.getMethod("allocate", int.class));
+        assertThat(stats.getCalls()).isEqualTo(12L);
+        assertThat(stats.getMaxAllocatedBytes()).isGreaterThanOrEqualTo(1024L * 1024);
+        assertThat(stats.getAllocatedBytes()).isGreaterThanOrEqualTo(2L * 1024 * 1024 + 10 * 1024);
+        assertThat(stats.getOverBudget()).isEqualTo(2L);
+        assertThat(stats.isFlagged()).isTrue();
+        assertThat(getContainsLog("[alloc]").orElseThrow().getFormattedMessage())
+                .contains("WorkExample.allocate(int)")
+                .contains("budget 65536B");
+    }
+
+    @Test
+    @DisplayName("대기 시간은 CPU 시간에 포함되지 않는다.")
+    void cpuTimeTest() throws Exception {
+        //when
+        workExample.spin(50);
+        workExample.sleep(50);
+
+        //then
+        ProfileStats spin = profiledAspect.getStats(WorkExample.class.getMethod("spin", long.class));
+        ProfileStats sleep = profiledAspect.getStats(WorkExample.class.getMethod("sleep", long.class));
+        //바쁜 장비에서는 spin 도 CPU 를 다 받지 못하므로 spin 의 절대값 대신 sleep 과 비교한다.
+        assertThat(spin.getCpuNanos()).isGreaterThan(sleep.getCpuNanos());
+        assertThat(sleep.getCpuNanos()).isLessThan(TimeUnit.MILLISECONDS.toNanos(25));
+    }
+
+    @TestComponent
+    static class WorkExample {
+
+        private volatile byte[] last;
+
+        @Profiled(allocationBudget = 64 * 1024)
+        public int allocate(int size) {
+            last = new byte[size];
+            return last.length;
+        }
+
+        @Profiled
+        public long spin(long millis) {
+            long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+            long count = 0;
+            while (System.nanoTime() < end) {
+                count++;
+            }
+            return count;
+        }
+
+        @Profiled
+        public void sleep(long millis) throws InterruptedException {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        }
+    }
+}
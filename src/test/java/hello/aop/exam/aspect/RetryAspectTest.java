@@ -2,7 +2,9 @@ package hello.aop.exam.aspect;
 
 import hello.aop.exam.ExamService;
 import hello.aop.exam.annotation.Retry;
+import hello.aop.exam.aop.BulkheadFullException;
 import hello.aop.exam.aop.RetryAspect;
+import hello.aop.exam.aop.RetryBudget;
 import hello.aop.exam.aop.TraceAspect;
 import lombok.extern.slf4j.Slf4j;
 import org.assertj.core.api.Assertions;
@@ -14,13 +16,24 @@ import org.springframework.boot.test.context.TestComponent;
 import org.springframework.context.annotation.Import;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.assertj.core.api.Assertions.*;
 import static org.assertj.core.api.Assertions.assertThatNoException;
 
 @SpringBootTest
 @Import({TraceAspect.class,
         RetryAspect.class,
-        RetryAspectTest.RetryMaxProxyExample.class })
+        RetryAspectTest.RetryMaxProxyExample.class,
+        RetryAspectTest.AsyncRetryProxyExample.class,
+        RetryAspectTest.RetryBudgetProxyExample.class,
+        RetryAspectTest.RejectingProxyExample.class })
 public class RetryAspectTest {
 
     @Autowired
@@ -29,6 +42,18 @@ public class RetryAspectTest {
     @Autowired
     RetryMaxProxyExample retryMaxProxyExample;
 
+    @Autowired
+    AsyncRetryProxyExample asyncRetryProxyExample;
+
+    @Autowired
+    RetryBudgetProxyExample retryBudgetProxyExample;
+
+    @Autowired
+    RejectingProxyExample rejectingProxyExample;
+
+    @Autowired
+    RetryAspect retryAspect;
+
     @Test
     @DisplayName("RetryAspect 가 proxy 적용 대상 객체의 예외 발생시 복구하여 예외처리를 한다.")
     void exceptionRetryTest() {
@@ -47,6 +72,58 @@ public class RetryAspectTest {
                 .hasMessage("테스트 오류 발생");
     }
 
+    @Test
+    @DisplayName("CompletableFuture 를 반환하는 메서드는 호출자 스레드를 붙잡지 않고 공유 스케줄러에서 재시도한다.")
+    void asyncRetryTest() throws Exception {
+        //given
+        asyncRetryProxyExample.reset(2);
+        //when
+        CompletableFuture<String> future = asyncRetryProxyExample.call();
+        //then
+        assertThat(future.get(1, TimeUnit.SECONDS)).isEqualTo("ok");
+        assertThat(asyncRetryProxyExample.count()).isEqualTo(3);
+        assertThat(asyncRetryProxyExample.threads())
+                .contains(Thread.currentThread().getName())
+                .anyMatch(name -> name.startsWith("aop-scheduler"));
+    }
+
+    @Test
+    @DisplayName("CompletableFuture 를 반환하는 메서드가 최대 재시도 횟수를 초과하면 마지막 예외로 완료된다.")
+    void asyncRetryMaxTest() {
+        //given
+        asyncRetryProxyExample.reset(Integer.MAX_VALUE);
+        //when
+        CompletableFuture<String> future = asyncRetryProxyExample.call();
+        //then
+        assertThatThrownBy(() -> future.get(1, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        assertThat(asyncRetryProxyExample.count()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("같은 group 의 재시도 예산을 모두 사용하면 재시도 하지 않고 마지막 예외를 발생시킨다.")
+    void retryBudgetTest() {
+        //given
+        retryAspect.registerBudget(new RetryBudget("exhausted", 0, 0, Duration.ofSeconds(10)));
+        //when
+        assertThatThrownBy(() -> retryBudgetProxyExample.test())
+                .isInstanceOf(IllegalStateException.class);
+        //then
+        assertThat(retryBudgetProxyExample.count()).isEqualTo(1);
+        assertThat(retryAspect.getBudget("exhausted").getDenied()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("벌크헤드 거절 같은 FailFastException 은 재시도하지 않는다.")
+    void failFastNotRetriedTest() {
+        //when
+        assertThatThrownBy(() -> rejectingProxyExample.test())
+                .isInstanceOf(BulkheadFullException.class);
+        //then
+        assertThat(rejectingProxyExample.count()).isEqualTo(1);
+    }
+
     @Slf4j
     @TestComponent
     static class RetryMaxProxyExample {
@@ -55,4 +132,64 @@ public class RetryAspectTest {
             throw new IllegalStateException("테스트 오류 발생");
         }
     }
+
+    @TestComponent
+    static class AsyncRetryProxyExample {
+        private final AtomicInteger count = new AtomicInteger();
+        private final Set<String> threads = ConcurrentHashMap.newKeySet();
+        private volatile int failures;
+
+        @Retry(value = 3, initialDelay = 10)
+        public CompletableFuture<String> call() {
+            threads.add(Thread.currentThread().getName());
+            if (count.incrementAndGet() <= failures) {
+                return CompletableFuture.failedFuture(new IllegalStateException("비동기 오류 발생"));
+            }
+            return CompletableFuture.completedFuture("ok");
+        }
+
+        public void reset(int failures) {
+            this.failures = failures;
+            count.set(0);
+            threads.clear();
+        }
+
+        public int count() {
+            return count.get();
+        }
+
+        public Set<String> threads() {
+            return threads;
+        }
+    }
+
+    @TestComponent
+    static class RetryBudgetProxyExample {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Retry(value = 3, group = "exhausted")
+        public void test() {
+            count.incrementAndGet();
+            throw new IllegalStateException("테스트 오류 발생");
+        }
+
+        public int count() {
+            return count.get();
+        }
+    }
+
+    @TestComponent
+    static class RejectingProxyExample {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Retry(5)
+        public void test() {
+            count.incrementAndGet();
+            throw new BulkheadFullException("test");
+        }
+
+        public int count() {
+            return count.get();
+        }
+    }
 }
@@ -0,0 +1,92 @@
+package hello.aop.exam.aspect;
+
+import hello.aop.exam.aop.RetryBudget;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class RetryBudgetTest {
+
+    @Test
+    @DisplayName("재시도 수가 호출 수 대비 percent 에 도달하면 재시도를 거절하고 거절 수를 기록한다.")
+    void ratioTest() {
+        //given
+        RetryBudget budget = new RetryBudget("test", 20, 0, Duration.ofSeconds(10));
+        for (int i = 0; i < 10; i++) {
+            budget.recordCall();
+        }
+        //when, then
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isFalse();
+        assertThat(budget.getDenied()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("호출이 적을 때도 minRetries 만큼은 재시도를 허용한다.")
+    void minRetriesTest() {
+        //given
+        RetryBudget budget = new RetryBudget("test", 20, 3, Duration.ofSeconds(10));
+        //when, then
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isFalse();
+    }
+
+    @Test
+    @DisplayName("윈도우가 지나면 이전 호출과 재시도는 비율 계산에서 빠진다.")
+    void slidingWindowTest() throws InterruptedException {
+        //given
+        RetryBudget budget = new RetryBudget("test", 50, 0, Duration.ofMillis(100));
+        budget.recordCall();
+        budget.recordCall();
+        assertThat(budget.tryAcquire()).isTrue();
+        assertThat(budget.tryAcquire()).isFalse();
+        //when
+        TimeUnit.MILLISECONDS.sleep(150);
+        //then
+        assertThat(budget.tryAcquire()).isFalse();
+        budget.recordCall();
+        budget.recordCall();
+        assertThat(budget.tryAcquire()).isTrue();
+    }
+
+    @Test
+    @DisplayName("여러 스레드가 동시에 재시도를 요청해도 허용된 재시도는 예산 근처에서 멈춘다.")
+    void concurrentTest() throws InterruptedException {
+        //given
+        RetryBudget budget = new RetryBudget("test", 10, 0, Duration.ofSeconds(10));
+        int threads = 16;
+        int callsPerThread = 10_000;
+        AtomicInteger acquired = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(threads);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        //when
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                for (int i = 0; i < callsPerThread; i++) {
+                    budget.recordCall();
+                    if (budget.tryAcquire()) {
+                        acquired.incrementAndGet();
+                    }
+                }
+                done.countDown();
+            });
+        }
+        done.await(10, TimeUnit.SECONDS);
+        executor.shutdown();
+        //then
+        long calls = (long) threads * callsPerThread;
+        assertThat(acquired.get()).isBetween((int) (calls * 0.09), (int) (calls * 0.11));
+        assertThat(budget.getDenied()).isEqualTo(calls - acquired.get());
+    }
+}
@@ -0,0 +1,108 @@
+package hello.aop.exam.aspect;
+
+import hello.aop.exam.annotation.SlowCall;
+import hello.aop.exam.annotation.Trace;
+import hello.aop.exam.aop.SlowCallAspect;
+import hello.aop.exam.aop.SlowCallState;
+import hello.aop.exam.aop.TraceAspect;
+import hello.aop.util.LogAppenders;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.context.annotation.Import;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Import({SlowCallAspect.class,
+        TraceAspect.class,
+        SlowCallAspectTest.LatencyExample.class,
+        SlowCallAspectTest.NestedExample.class})
+public class SlowCallAspectTest extends LogAppenders {
+
+    @Autowired
+    SlowCallAspect slowCallAspect;
+
+    @Autowired
+    LatencyExample latencyExample;
+
+    @Test
+    @DisplayName("고정 기준을 넘은 호출만 인자와 호출 트리를 함께 로그로 남긴다.")
+    void absoluteThresholdTest() throws Exception {
+        //when
+        for (int i = 0; i < 10; i++) {
+            latencyExample.fixed("fast", 0);
+        }
+        latencyExample.fixed("slow", 60);
+
+        //then
+        SlowCallState state = slowCallAspect.getState(
+                LatencyExample.class.getMethod("fixed", String.class, long.class));
+        assertThat(state.getReported()).isEqualTo(1L);
+        String slowLog = getContainsLog("[slow]").orElseThrow().getFormattedMessage();
+        assertThat(slowLog)
+                .contains("LatencyExample.fixed(String,long)")
+                .contains("args=[slow, 60]")
+                .contains("NestedExample.nested(long)");
+    }
+
+    @Test
+    @DisplayName("고정 기준이 없으면 최근 응답 시간의 p99 를 넘은 호출을 느린 호출로 본다.")
+    void adaptiveThresholdTest() throws Exception {
+        //given
+        for (int i = 0; i < 200; i++) {
+            latencyExample.adaptive(1);
+        }
+        SlowCallState state = slowCallAspect.getState(LatencyExample.class.getMethod("adaptive", long.class));
+        assertThat(state.getReported()).isEqualTo(0L);
+        TimeUnit.MILLISECONDS.sleep(1_100);
+
+        //when
+        latencyExample.adaptive(50);
+
+        //then
+        assertThat(state.getLimitNanos()).isBetween(TimeUnit.MILLISECONDS.toNanos(1), TimeUnit.MILLISECONDS.toNanos(20));
+        assertThat(state.getReported()).isEqualTo(1L);
+    }
+
+    @TestComponent
+    static class LatencyExample {
+        private final NestedExample nested;
+
+        LatencyExample(NestedExample nested) {
+            this.nested = nested;
+        }
+
+        @Trace
+        @SlowCall(thresholdMillis = 50)
+        public void fixed(String itemId, long millis) {
+            nested.nested(millis);
+        }
+
+        @SlowCall
+        public void adaptive(long millis) {
+            sleep(millis);
+        }
+    }
+
+    @TestComponent
+    static class NestedExample {
+
+        @Trace
+        public void nested(long millis) {
+            sleep(millis);
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
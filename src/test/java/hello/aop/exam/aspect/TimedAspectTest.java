@@ -0,0 +1,139 @@
+package hello.aop.exam.aspect;
+
+import hello.aop.exam.annotation.Timed;
+import hello.aop.exam.aop.MethodMetrics;
+import hello.aop.exam.aop.MethodMetricsMXBean;
+import hello.aop.exam.aop.MethodMetricsRegistry;
+import hello.aop.exam.aop.MethodMetricsSnapshot;
+import hello.aop.exam.aop.TimedAspect;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.context.annotation.Import;
+
+import javax.management.JMX;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Import({TimedAspect.class, TimedAspectTest.TimedExample.class})
+public class TimedAspectTest {
+
+    @Autowired
+    TimedAspect timedAspect;
+
+    @Autowired
+    TimedExample timedExample;
+
+    @BeforeEach
+    void reset() {
+        timedAspect.getRegistry().reset();
+    }
+
+    @Test
+    @DisplayName("호출 수, 예외 수, 응답 시간을 메서드별로 기록한다.")
+    void recordTest() throws Exception {
+        //when
+        for (int i = 0; i < 10; i++) {
+            timedExample.call(false, 1);
+        }
+        assertThatThrownBy(() -> timedExample.call(true, 0)).isInstanceOf(IllegalStateException.class);
+
+        //then
+        MethodMetrics metrics = timedAspect.getRegistry()
+                .getMetrics(TimedExample.class.getMethod("call", boolean.class, long.class));
+        MethodMetricsSnapshot snapshot = metrics.snapshot();
+        assertThat(snapshot.getCalls()).isEqualTo(11L);
+        assertThat(snapshot.getErrors()).isEqualTo(1L);
+        assertThat(snapshot.getInFlight()).isEqualTo(0L);
+        assertThat(snapshot.getP99Micros()).isGreaterThanOrEqualTo(900L);
+        assertThat(snapshot.getMaxMicros()).isGreaterThanOrEqualTo(snapshot.getP50Micros());
+    }
+
+    @Test
+    @DisplayName("실행 중인 호출 수와 스냅숏을 JMX MBean 으로 조회한다.")
+    void jmxTest() throws Exception {
+        //given
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch release = new CountDownLatch(1);
+        for (int i = 0; i < 4; i++) {
+            executor.submit(() -> timedExample.await(release));
+        }
+        MethodMetricsMXBean mbean = JMX.newMXBeanProxy(ManagementFactory.getPlatformMBeanServer(),
+                MethodMetricsRegistry.objectName("timed"), MethodMetricsMXBean.class);
+
+        //when
+        String name = "void hello.aop.exam.aspect.TimedAspectTest$TimedExample.await(CountDownLatch)";
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (mbean.snapshot(name) == null || mbean.snapshot(name).getInFlight() < 4) {
+            assertThat(System.nanoTime()).isLessThan(deadline);
+            TimeUnit.MILLISECONDS.sleep(1);
+        }
+        release.countDown();
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        //then
+        MethodMetricsSnapshot snapshot = mbean.snapshot(name);
+        assertThat(snapshot.getCalls()).isEqualTo(4L);
+        assertThat(snapshot.getInFlight()).isEqualTo(0L);
+        assertThat(mbean.getSnapshots()).extracting(MethodMetricsSnapshot::getName).contains(name);
+    }
+
+    @Test
+    @DisplayName("같은 이름으로 바꿔 등록된 registry 가 해제되어도 나중에 등록한 쪽의 MBean 은 남는다.")
+    void replacedRegistryTest() throws Exception {
+        //given
+        ObjectName objectName = MethodMetricsRegistry.objectName("replaced");
+        MethodMetricsRegistry first = new MethodMetricsRegistry("replaced");
+        MethodMetricsRegistry second = new MethodMetricsRegistry("replaced");
+        first.register();
+        second.register();
+        second.metricsOf(TimedExample.class.getMethod("call", boolean.class, long.class));
+        MethodMetricsMXBean mbean = JMX.newMXBeanProxy(ManagementFactory.getPlatformMBeanServer(),
+                objectName, MethodMetricsMXBean.class);
+
+        try {
+            //when
+            first.unregister();
+
+            //then
+            assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)).isTrue();
+            assertThat(mbean.getMethodCount()).isEqualTo(1);
+        } finally {
+            second.unregister();
+        }
+        assertThat(ManagementFactory.getPlatformMBeanServer().isRegistered(objectName)).isFalse();
+    }
+
+    @TestComponent
+    static class TimedExample {
+
+        @Timed
+        public void call(boolean fail, long millis) throws InterruptedException {
+            TimeUnit.MILLISECONDS.sleep(millis);
+            if (fail) {
+                throw new IllegalStateException("예외 발생");
+            }
+        }
+
+        @Timed
+        public void await(CountDownLatch release) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
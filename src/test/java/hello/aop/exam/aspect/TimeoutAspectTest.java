@@ -0,0 +1,165 @@
+package hello.aop.exam.aspect;
+
+import hello.aop.exam.annotation.Retry;
+import hello.aop.exam.annotation.Timeout;
+import hello.aop.exam.aop.Deadline;
+import hello.aop.exam.aop.DeadlineExceededException;
+import hello.aop.exam.aop.RetryAspect;
+import hello.aop.exam.aop.TimeoutAspect;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.context.annotation.Import;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Import({TimeoutAspect.class,
+        RetryAspect.class,
+        TimeoutAspectTest.OuterProxyExample.class,
+        TimeoutAspectTest.InnerProxyExample.class})
+public class TimeoutAspectTest {
+
+    @Autowired
+    OuterProxyExample outer;
+
+    @Autowired
+    InnerProxyExample inner;
+
+    @BeforeEach
+    void setUp() {
+        inner.reset();
+    }
+
+    @Test
+    @DisplayName("대상이 응답하지 않으면 제한 시간이 지난 뒤 DeadlineExceededException 이 발생하고 대상은 interrupt 된다.")
+    void hungTargetTest() throws InterruptedException {
+        //when
+        long start = System.nanoTime();
+        assertThatThrownBy(() -> inner.hang())
+                .isInstanceOf(DeadlineExceededException.class);
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        //then
+        assertThat(elapsedMillis).isBetween(40L, 1_000L);
+        assertThat(inner.awaitInterrupted()).isTrue();
+    }
+
+    @Test
+    @DisplayName("안쪽 호출은 바깥 호출의 남은 시간을 함께 사용한다.")
+    void propagationTest() {
+        //when
+        outer.callInner();
+        //then
+        assertThat(inner.remainingMillis()).isBetween(1L, 200L);
+    }
+
+    @Test
+    @DisplayName("바깥 데드라인이 지난 뒤의 안쪽 호출은 대상을 호출하지 않고 바로 실패한다.")
+    void failFastTest() throws InterruptedException {
+        //when
+        assertThatThrownBy(() -> outer.busyThenCallInner())
+                .isInstanceOf(DeadlineExceededException.class);
+        //then
+        assertThat(outer.awaitInnerFailure()).isTrue();
+        assertThat(inner.count()).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("남은 시간 안에 다음 재시도를 할 수 없으면 재시도를 멈추고 마지막 예외를 발생시킨다.")
+    void retryWithinDeadlineTest() {
+        //when
+        assertThatThrownBy(() -> inner.failWithRetry())
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessage("테스트 오류 발생");
+        //then
+        assertThat(inner.count()).isEqualTo(2);
+    }
+
+    @TestComponent
+    static class OuterProxyExample {
+        private final InnerProxyExample inner;
+        private final CountDownLatch innerFailure = new CountDownLatch(1);
+
+        OuterProxyExample(InnerProxyExample inner) {
+            this.inner = inner;
+        }
+
+        @Timeout(200)
+        public void callInner() {
+            inner.remaining();
+        }
+
+        @Timeout(50)
+        public void busyThenCallInner() {
+            long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(100);
+            while (System.nanoTime() < until) {
+                Thread.onSpinWait();
+            }
+            try {
+                inner.remaining();
+            } catch (DeadlineExceededException e) {
+                innerFailure.countDown();
+            }
+        }
+
+        public boolean awaitInnerFailure() throws InterruptedException {
+            return innerFailure.await(1, TimeUnit.SECONDS);
+        }
+    }
+
+    @TestComponent
+    static class InnerProxyExample {
+        private final AtomicInteger count = new AtomicInteger();
+        private final AtomicLong remainingMillis = new AtomicLong();
+        private volatile CountDownLatch interrupted = new CountDownLatch(1);
+
+        @Timeout(1_000)
+        public void remaining() {
+            count.incrementAndGet();
+            remainingMillis.set(TimeUnit.NANOSECONDS.toMillis(Deadline.current().remainingNanos()));
+        }
+
+        @Timeout(50)
+        public void hang() {
+            try {
+                TimeUnit.SECONDS.sleep(5);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+        }
+
+        @Timeout(300)
+        @Retry(value = 5, initialDelay = 200, multiplier = 1, jitter = Retry.Jitter.NONE)
+        public void failWithRetry() {
+            count.incrementAndGet();
+            throw new IllegalStateException("테스트 오류 발생");
+        }
+
+        public void reset() {
+            count.set(0);
+            remainingMillis.set(0);
+            interrupted = new CountDownLatch(1);
+        }
+
+        public int count() {
+            return count.get();
+        }
+
+        public long remainingMillis() {
+            return remainingMillis.get();
+        }
+
+        public boolean awaitInterrupted() throws InterruptedException {
+            return interrupted.await(1, TimeUnit.SECONDS);
+        }
+    }
+}
@@ -0,0 +1,181 @@
+package hello.aop.exam.aspect;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import hello.aop.exam.annotation.Trace;
+import hello.aop.exam.aop.TraceAspect;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.interceptor.ExposeInvocationInterceptor;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Method;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * JMH 의 -prof gc 대신 현재 스레드가 할당한 바이트 수(com.sun.management.ThreadMXBean)로 호출 당 할당량을 측정한다.
+ * JIT 컴파일이 끝나도록 충분히 호출한 뒤에 측정한다.
+ * 프록시 없이 어드바이스 메서드를 직접 호출하므로 어드바이스 본문의 할당만 잰다.
+ * 프록시를 거치면 스프링 AOP 가 호출마다 MethodInvocation 과 JoinPoint 를 만들므로 그 할당은 여기에 포함되지 않는다.
+ * 샘플링되지 않는 경우는 어드바이스가 현재 MethodInvocation 을 읽으므로, 재사용하는 MethodInvocation 하나를
+ * ExposeInvocationInterceptor 로 노출한 상태에서 호출한다.
+ */
+@Slf4j
+public class TraceAspectAllocationTest {
+
+    private static final int WARM_UP = 200_000;
+    private static final int OPERATIONS = 1_000_000;
+
+    private final Logger traceLogger = (Logger) LoggerFactory.getLogger(TraceAspect.class);
+    private Level previousLevel;
+
+    @BeforeEach
+    void setUp() {
+        previousLevel = traceLogger.getLevel();
+        traceLogger.setLevel(Level.OFF);
+    }
+
+    @AfterEach
+    void tearDown() {
+        traceLogger.setLevel(previousLevel);
+    }
+
+    @Test
+    @DisplayName("로그가 꺼져 있으면 TraceAspect 의 어드바이스 본문은 호출 당 한 바이트도 할당하지 않는다.")
+    void zeroAllocationWhenDisabledTest() {
+        //given
+        TraceAspect traceAspect = new TraceAspect();
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARM_UP; i++) {
+            traceAspect.doTrace();
+            traceAspect.doTraceReturn();
+        }
+        //when
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < OPERATIONS; i++) {
+            traceAspect.doTrace();
+            traceAspect.doTraceReturn();
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        //then
+        double bytesPerOperation = (double) allocated / OPERATIONS;
+        log.info("[benchmark] trace advice body (disabled) allocated={}B bytes/op={}", allocated, bytesPerOperation);
+        assertThat(bytesPerOperation).isLessThan(0.01);
+    }
+
+    @Test
+    @DisplayName("로그가 켜져 있어도 샘플링되지 않은 루트 호출은 어드바이스 본문에서 할당하지 않는다.")
+    void zeroAllocationWhenSampledOutTest() throws Throwable {
+        //given
+        traceLogger.setLevel(Level.INFO);
+        TraceAspect traceAspect = new TraceAspect();
+        SampledOutInvocation invocation = new SampledOutInvocation(traceAspect, null);
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARM_UP; i++) {
+            ExposeInvocationInterceptor.INSTANCE.invoke(invocation);
+        }
+        //when
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < OPERATIONS; i++) {
+            ExposeInvocationInterceptor.INSTANCE.invoke(invocation);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        //then
+        double bytesPerOperation = (double) allocated / OPERATIONS;
+        log.info("[benchmark] trace advice body (sampled out) allocated={}B bytes/op={}", allocated, bytesPerOperation);
+        assertThat(traceAspect.getSampler(invocation.getMethod()).getUnsampled()).isEqualTo((long) WARM_UP + OPERATIONS);
+        assertThat(bytesPerOperation).isLessThan(0.01);
+    }
+
+    @Test
+    @DisplayName("샘플링되지 않은 루트 아래의 중첩 호출도 루트의 결정을 따르고 할당하지 않는다.")
+    void zeroAllocationForNestedSampledOutTest() throws Throwable {
+        //given
+        traceLogger.setLevel(Level.INFO);
+        TraceAspect traceAspect = new TraceAspect();
+        SampledOutInvocation nested = new SampledOutInvocation(traceAspect, null);
+        SampledOutInvocation root = new SampledOutInvocation(traceAspect, nested);
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARM_UP; i++) {
+            ExposeInvocationInterceptor.INSTANCE.invoke(root);
+        }
+        //when
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < OPERATIONS; i++) {
+            ExposeInvocationInterceptor.INSTANCE.invoke(root);
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+        //then
+        double bytesPerOperation = (double) allocated / OPERATIONS;
+        log.info("[benchmark] trace advice body (nested, sampled out) allocated={}B bytes/op={}", allocated, bytesPerOperation);
+        //중첩 호출은 샘플링을 다시 정하지 않으므로 루트 호출만 센다.
+        assertThat(traceAspect.getSampler(root.getMethod()).getUnsampled()).isEqualTo((long) WARM_UP + OPERATIONS);
+        assertThat(bytesPerOperation).isLessThan(0.01);
+    }
+
+    /**
+     * 프록시 대신 어드바이스를 직접 호출하는 MethodInvocation, 호출마다 새로 만들지 않고 재사용한다.
+     * nested 가 있으면 어드바이스 사이에서 그 호출을 중첩 호출로 실행한다.
+     */
+    static class SampledOutInvocation implements MethodInvocation {
+
+        private static final Object[] NO_ARGUMENTS = {};
+
+        private final TraceAspect traceAspect;
+        private final Method method;
+        private final MethodInvocation nested;
+
+        SampledOutInvocation(TraceAspect traceAspect, MethodInvocation nested) throws NoSuchMethodException {
+            this.traceAspect = traceAspect;
+            this.nested = nested;
+            this.method = SampledOutInvocation.class.getDeclaredMethod("neverSampled");
+        }
+
+        @Trace(sampleRate = 0.0)
+        void neverSampled() {
+        }
+
+        @Override
+        public Method getMethod() {
+            return method;
+        }
+
+        @Override
+        public Object[] getArguments() {
+            return NO_ARGUMENTS;
+        }
+
+        @Override
+        public Object proceed() throws Throwable {
+            traceAspect.doTrace();
+            if (nested != null) {
+                ExposeInvocationInterceptor.INSTANCE.invoke(nested);
+            }
+            traceAspect.doTraceReturn();
+            return null;
+        }
+
+        @Override
+        public Object getThis() {
+            return this;
+        }
+
+        @Override
+        public AccessibleObject getStaticPart() {
+            return method;
+        }
+    }
+}
@@ -3,6 +3,7 @@ package hello.aop.exam.aspect;
 import hello.aop.exam.ExamRepository;
 import hello.aop.exam.ExamService;
 import hello.aop.exam.aop.TraceAspect;
+import hello.aop.exam.store.FaultPolicy;
 import hello.aop.util.LogAppenders;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,6 +12,7 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.context.annotation.Import;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
@@ -18,6 +20,10 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 public class TraceAspectTest extends LogAppenders {
     @Autowired
     ExamService service;
+    @Autowired
+    ExamRepository repository;
+    @Autowired
+    TraceAspect traceAspect;
 
     @Test
     @DisplayName("TraceAspect 를 적용한 proxy 객체의 로그출력을 확인한다.")
@@ -40,6 +46,24 @@ public class TraceAspectTest extends LogAppenders {
         }
     }
 
+    @Test
+    @DisplayName("추적한 호출이 끝나면 스레드에 컨텍스트가 남지 않아, 프록시 밖에서 어드바이스를 호출해도 예외가 없다.")
+    void contextClearedTest() {
+        //given
+        repository.setFaultPolicy(FaultPolicy.none());
+        try {
+            service.request("context");
+
+            //when & then
+            assertThatNoException().isThrownBy(() -> {
+                traceAspect.doTraceReturn();
+                traceAspect.doTraceThrow(new IllegalStateException("예외 발생"));
+            });
+        } finally {
+            repository.setFaultPolicy(FaultPolicy.everyNth(5));
+        }
+    }
+
     private void assertTryFiveTimeThrownException(int i) {
         String itemId = "data" + i;
         if (i % 5 == 0) {
@@ -0,0 +1,172 @@
+package hello.aop.exam.aspect;
+
+import hello.aop.exam.annotation.Trace;
+import hello.aop.exam.aop.TextTraceEventWriter;
+import hello.aop.exam.aop.TraceAspect;
+import hello.aop.exam.aop.TraceEvent;
+import hello.aop.exam.aop.TraceEventWriter;
+import hello.aop.exam.aop.TraceExporter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.context.annotation.Import;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Import({TraceAspect.class,
+        TraceExporterTest.TracedExample.class,
+        TraceExporterTest.InnerExample.class})
+public class TraceExporterTest {
+
+    @Autowired
+    TraceAspect traceAspect;
+
+    @Autowired
+    TracedExample tracedExample;
+
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void tearDown() {
+        traceAspect.setLogLines(true);
+        traceAspect.setReporter(span -> {
+        });
+    }
+
+    @Test
+    @DisplayName("여러 스레드에서 끝난 호출 트리를 부모부터 순서대로 파일에 기록한다.")
+    void exportToFileTest() throws Exception {
+        //given
+        Path file = tempDir.resolve("trace.log");
+        TraceExporter exporter = new TraceExporter(1024, new TextTraceEventWriter(file));
+        traceAspect.setReporter(exporter);
+        traceAspect.setLogLines(false);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        List<Future<?>> futures = new ArrayList<>();
+
+        //when
+        for (int t = 0; t < 4; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 50; i++) {
+                    tracedExample.outer("item" + i);
+                    waitForSpace(exporter);
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        exporter.close();
+
+        //then
+        List<String> lines = Files.readAllLines(file);
+        assertThat(exporter.getDropped()).isEqualTo(0L);
+        assertThat(exporter.getExported()).isEqualTo(400L);
+        assertThat(lines).hasSize(400);
+        String[] parent = lines.get(0).split(" ", 7);
+        String[] child = lines.get(1).split(" ", 7);
+        assertThat(parent[2]).isEqualTo("0");
+        assertThat(parent[5]).isEqualTo("OK");
+        assertThat(parent[6]).endsWith("TracedExample.outer(String)");
+        assertThat(child[2]).isEqualTo("1");
+        assertThat(child[6]).endsWith("InnerExample.inner(String)");
+    }
+
+    @Test
+    @DisplayName("버퍼가 가득 차면 호출자를 막지 않고 이벤트를 버린 뒤 버린 수를 센다.")
+    void dropWhenFullTest() throws Exception {
+        //given
+        CountDownLatch release = new CountDownLatch(1);
+        BlockingWriter writer = new BlockingWriter(release);
+        TraceExporter exporter = new TraceExporter(8, writer);
+        traceAspect.setReporter(exporter);
+        traceAspect.setLogLines(false);
+
+        //when
+        long start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            tracedExample.outer("item" + i);
+        }
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+        exporter.close();
+
+        //then
+        assertThat(elapsedMillis).isLessThan(1_000L);
+        assertThat(exporter.getDropped()).isGreaterThan(0L);
+        assertThat(exporter.getExported() + exporter.getDropped()).isEqualTo(200L);
+        assertThat(writer.written).isEqualTo(exporter.getExported());
+    }
+
+    private static void waitForSpace(TraceExporter exporter) {
+        while (exporter.getPending() > 512) {
+            Thread.onSpinWait();
+        }
+    }
+
+    static class BlockingWriter implements TraceEventWriter {
+        private final CountDownLatch release;
+        private long written;
+
+        BlockingWriter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void write(TraceEvent event) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            written++;
+        }
+
+        @Override
+        public void endBatch() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+
+    @TestComponent
+    static class TracedExample {
+        private final InnerExample inner;
+
+        TracedExample(InnerExample inner) {
+            this.inner = inner;
+        }
+
+        @Trace
+        public void outer(String itemId) {
+            inner.inner(itemId);
+        }
+    }
+
+    @TestComponent
+    static class InnerExample {
+
+        @Trace
+        public void inner(String itemId) {
+        }
+    }
+}
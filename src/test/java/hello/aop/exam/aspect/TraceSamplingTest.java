@@ -0,0 +1,157 @@
+package hello.aop.exam.aspect;
+
+import hello.aop.exam.annotation.Trace;
+import hello.aop.exam.aop.Span;
+import hello.aop.exam.aop.TraceAspect;
+import hello.aop.exam.aop.TraceSampler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Import({TraceAspect.class,
+        TraceSamplingTest.SampledExample.class,
+        TraceSamplingTest.NestedExample.class})
+public class TraceSamplingTest {
+
+    @Autowired
+    TraceAspect traceAspect;
+
+    @Autowired
+    SampledExample sampledExample;
+
+    private final List<Span> roots = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        traceAspect.setReporter(roots::add);
+        traceAspect.setLogLines(false);
+    }
+
+    @AfterEach
+    void tearDown() {
+        traceAspect.setLogLines(true);
+        traceAspect.setReporter(span -> {
+        });
+    }
+
+    @Test
+    @DisplayName("샘플링되지 않은 루트 호출은 중첩된 호출까지 기록하지 않고 unsampled 만 센다.")
+    void unsampledRootTest() throws Exception {
+        //when
+        for (int i = 0; i < 100; i++) {
+            sampledExample.never();
+        }
+        //then
+        assertThat(roots).isEmpty();
+        TraceSampler sampler = traceAspect.getSampler(SampledExample.class.getMethod("never"));
+        assertThat(sampler.getUnsampled()).isEqualTo(100L);
+        assertThat(sampler.getSampled()).isEqualTo(0L);
+    }
+
+    @Test
+    @DisplayName("샘플링된 루트 아래의 중첩 호출은 자신의 sampleRate 와 상관없이 함께 기록된다.")
+    void nestedInheritsRootDecisionTest() {
+        //when
+        sampledExample.always();
+        //then
+        assertThat(roots).hasSize(1);
+        assertThat(roots.get(0).getChildren()).hasSize(1);
+        assertThat(roots.get(0).getChildren().get(0).getName()).contains("NestedExample.neverAlone()");
+    }
+
+    @Test
+    @DisplayName("maxPerSecond 를 넘는 루트 호출은 추적하지 않는다.")
+    void rateLimitTest() throws Exception {
+        //when
+        long start = System.nanoTime();
+        for (int i = 0; i < 200; i++) {
+            sampledExample.limited();
+        }
+        long elapsedSeconds = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start);
+        //then
+        TraceSampler sampler = traceAspect.getSampler(SampledExample.class.getMethod("limited"));
+        assertThat(sampler.getSampled()).isLessThanOrEqualTo(5 * (elapsedSeconds + 2));
+        assertThat(sampler.getSampled() + sampler.getUnsampled()).isEqualTo(200L);
+        assertThat((long) roots.size()).isEqualTo(sampler.getSampled());
+    }
+
+    @Test
+    @DisplayName("샘플링되지 않았어도 예외로 끝난 루트 호출은 루트 구간 하나를 기록한다.")
+    void captureErrorTest() throws Exception {
+        //when
+        assertThatThrownBy(() -> sampledExample.neverButFails())
+                .isInstanceOf(IllegalStateException.class);
+        //then
+        assertThat(roots).hasSize(1);
+        assertThat(roots.get(0).getOutcome()).isEqualTo(Span.Outcome.ERROR);
+        assertThat(roots.get(0).getChildren()).isEmpty();
+        TraceSampler sampler = traceAspect.getSampler(SampledExample.class.getMethod("neverButFails"));
+        assertThat(sampler.getCaptured()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("샘플링되지 않았어도 slowMillis 보다 오래 걸린 루트 호출은 기록한다.")
+    void captureSlowTest() throws Exception {
+        //when
+        sampledExample.neverButSlow();
+        //then
+        assertThat(roots).hasSize(1);
+        assertThat(roots.get(0).getDurationNanos()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(20));
+        assertThat(roots.get(0).getOutcome()).isEqualTo(Span.Outcome.OK);
+    }
+
+    @TestComponent
+    static class SampledExample {
+        private final NestedExample nested;
+
+        SampledExample(NestedExample nested) {
+            this.nested = nested;
+        }
+
+        @Trace(sampleRate = 0)
+        public void never() {
+            nested.neverAlone();
+        }
+
+        @Trace
+        public void always() {
+            nested.neverAlone();
+        }
+
+        @Trace(maxPerSecond = 5)
+        public void limited() {
+        }
+
+        @Trace(sampleRate = 0)
+        public void neverButFails() {
+            nested.neverAlone();
+            throw new IllegalStateException("예외 발생");
+        }
+
+        @Trace(sampleRate = 0, slowMillis = 20)
+        public void neverButSlow() throws InterruptedException {
+            TimeUnit.MILLISECONDS.sleep(30);
+        }
+    }
+
+    @TestComponent
+    static class NestedExample {
+
+        @Trace(sampleRate = 0)
+        public void neverAlone() {
+        }
+    }
+}
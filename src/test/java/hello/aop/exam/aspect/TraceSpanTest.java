@@ -0,0 +1,126 @@
+package hello.aop.exam.aspect;
+
+import hello.aop.exam.annotation.Trace;
+import hello.aop.exam.aop.Span;
+import hello.aop.exam.aop.TraceAspect;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestComponent;
+import org.springframework.context.annotation.Import;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Import({TraceAspect.class,
+        TraceSpanTest.OuterExample.class,
+        TraceSpanTest.InnerExample.class})
+public class TraceSpanTest {
+
+    @Autowired
+    TraceAspect traceAspect;
+
+    @Autowired
+    OuterExample outerExample;
+
+    private final List<Span> roots = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        traceAspect.setReporter(roots::add);
+    }
+
+    @Test
+    @DisplayName("중첩된 @Trace 호출은 부모, 자식 구간의 호출 트리로 기록된다.")
+    void callTreeTest() {
+        //when
+        outerExample.request("item");
+
+        //then
+        assertThat(roots).hasSize(1);
+        Span root = roots.get(0);
+        assertThat(root.getName()).isEqualTo(
+                "void hello.aop.exam.aspect.TraceSpanTest$OuterExample.request(String)");
+        assertThat(root.getDepth()).isEqualTo(0);
+        assertThat(root.getOutcome()).isEqualTo(Span.Outcome.OK);
+        assertThat(root.getChildren()).hasSize(2);
+
+        Span first = root.getChildren().get(0);
+        Span second = root.getChildren().get(1);
+        assertThat(first.getName()).contains("InnerExample.save(String)");
+        assertThat(first.getDepth()).isEqualTo(1);
+        assertThat(first.getStartNanos()).isGreaterThanOrEqualTo(root.getStartNanos());
+        assertThat(second.getEndNanos()).isLessThanOrEqualTo(root.getEndNanos());
+        assertThat(root.getChildNanos()).isEqualTo(first.getDurationNanos() + second.getDurationNanos());
+        assertThat(root.getSelfNanos()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(10));
+        assertThat(first.getSelfNanos()).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(5));
+    }
+
+    @Test
+    @DisplayName("예외로 끝난 구간은 ERROR 와 예외 클래스를 기록하고, 스택은 다음 호출에 남지 않는다.")
+    void errorOutcomeTest() {
+        //when
+        assertThatThrownBy(() -> outerExample.fail("item"))
+                .isInstanceOf(IllegalStateException.class);
+        outerExample.request("item");
+
+        //then
+        assertThat(roots).hasSize(2);
+        Span failed = roots.get(0);
+        assertThat(failed.getOutcome()).isEqualTo(Span.Outcome.ERROR);
+        assertThat(failed.getError()).isEqualTo(IllegalStateException.class.getName());
+        assertThat(failed.getChildren()).hasSize(1);
+        assertThat(failed.getChildren().get(0).getOutcome()).isEqualTo(Span.Outcome.ERROR);
+        assertThat(roots.get(1).getDepth()).isEqualTo(0);
+    }
+
+    @TestComponent
+    static class OuterExample {
+        private final InnerExample inner;
+
+        OuterExample(InnerExample inner) {
+            this.inner = inner;
+        }
+
+        @Trace
+        public void request(String itemId) {
+            sleep(10);
+            inner.save(itemId);
+            inner.save(itemId);
+        }
+
+        @Trace
+        public void fail(String itemId) {
+            inner.fail(itemId);
+        }
+    }
+
+    @TestComponent
+    static class InnerExample {
+
+        @Trace
+        public void save(String itemId) {
+            sleep(5);
+        }
+
+        @Trace
+        public void fail(String itemId) {
+            throw new IllegalStateException("예외 발생");
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package hello.aop.exam.store;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class ExamStoreTest {
+
+    @Test
+    @DisplayName("여러 스레드가 같은 키에 동시에 저장해도 저장 횟수를 잃어버리지 않는다.")
+    void noLostUpdateTest() throws Exception {
+        //given
+        ExamStore store = new ExamStore(4);
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        //when
+        for (int t = 0; t < 16; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 10_000; i++) {
+                    store.save("item" + (i % 10));
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        //then
+        assertThat(store.size()).isEqualTo(10);
+        assertThat(store.getSaves()).isEqualTo(160_000L);
+        for (int i = 0; i < 10; i++) {
+            assertThat(store.version("item" + i)).isEqualTo(16_000L);
+        }
+    }
+
+    @Test
+    @DisplayName("저장된 적 없는 키의 version 은 0 이고, 세그먼트 수는 2의 거듭제곱이다.")
+    void emptyAndSegmentTest() {
+        //given
+        ExamStore store = new ExamStore(5);
+        //when
+        long saved = store.save("itemA");
+        //then
+        assertThat(saved).isEqualTo(1L);
+        assertThat(store.version("itemB")).isEqualTo(0L);
+        assertThat(store.lastSavedAt("itemA")).isPositive();
+        assertThat(store.segmentCount()).isEqualTo(8);
+    }
+
+    @Test
+    @DisplayName("everyNth 정책은 여러 스레드에서 호출해도 정확히 n 번에 한 번 예외를 발생시킨다.")
+    void everyNthFaultPolicyTest() throws Exception {
+        //given
+        FaultPolicy policy = FaultPolicy.everyNth(5);
+        AtomicInteger failures = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        //when
+        for (int t = 0; t < 8; t++) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 1_000; i++) {
+                    try {
+                        policy.beforeSave("item");
+                    } catch (IllegalStateException e) {
+                        failures.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        //then
+        assertThat(failures.get()).isEqualTo(8_000 / 5);
+        assertThatThrownBy(() -> FaultPolicy.everyNth(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
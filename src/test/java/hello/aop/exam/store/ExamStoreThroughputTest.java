@@ -0,0 +1,94 @@
+package hello.aop.exam.store;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assumptions.assumeThat;
+
+/**
+ * 1024 개 키에 저장을 반복하면서 스레드 수에 따른 처리량(ops/ms)을 측정한다.
+ * 전체를 하나의 락으로 보호하는 저장소를 기준으로 비교한다.
+ * 처리량 비교는 CI 의 코어 수와 부하에 따라 흔들리므로 ./gradlew benchmark 에서만 실행한다.
+ */
+@Slf4j
+@Tag("benchmark")
+public class ExamStoreThroughputTest {
+
+    private static final int OPS_PER_THREAD = 200_000;
+    private static final int KEYS = 1024;
+    private static final String[] ITEM_IDS = new String[KEYS];
+
+    static {
+        for (int i = 0; i < KEYS; i++) {
+            ITEM_IDS[i] = "item" + i;
+        }
+    }
+
+    @Test
+    @DisplayName("세그먼트 락 저장소는 스레드 수가 늘어날수록 처리량이 늘어난다.")
+    void scalingTest() throws Exception {
+        //given
+        int cores = Runtime.getRuntime().availableProcessors();
+        int threads = Math.min(cores, 8);
+        ExamStore warmUp = new ExamStore();
+        measure(warmUp::save, 1);
+        //when
+        double single = measure(new ExamStore()::save, 1);
+        double striped = measure(new ExamStore()::save, threads);
+        double globalLock = measure(new GlobalLockStore()::save, threads);
+        //then
+        log.info("[benchmark] cores={} threads={}", cores, threads);
+        log.info("[benchmark] striped 1 thread  {} ops/ms", Math.round(single));
+        log.info("[benchmark] striped {} threads {} ops/ms", threads, Math.round(striped));
+        log.info("[benchmark] global  {} threads {} ops/ms", threads, Math.round(globalLock));
+        assumeThat(cores).isGreaterThanOrEqualTo(4);
+        assertThat(striped).isGreaterThan(single * 1.5);
+        assertThat(striped).isGreaterThan(globalLock);
+    }
+
+    private double measure(Consumer<String> save, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int offset = t * 31;
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < OPS_PER_THREAD; i++) {
+                    save.accept(ITEM_IDS[(i + offset) & (KEYS - 1)]);
+                }
+                return null;
+            }));
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        long elapsedNanos = System.nanoTime() - begin;
+        executor.shutdown();
+        return (double) OPS_PER_THREAD * threads / TimeUnit.NANOSECONDS.toMillis(Math.max(elapsedNanos, 1_000_000));
+    }
+
+    static class GlobalLockStore {
+        private final Map<String, long[]> items = new HashMap<>();
+
+        synchronized void save(String itemId) {
+            items.computeIfAbsent(itemId, key -> new long[1])[0]++;
+        }
+    }
+}
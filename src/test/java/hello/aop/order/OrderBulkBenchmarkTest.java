@@ -0,0 +1,110 @@
+package hello.aop.order;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import hello.aop.order.aop.AspectV6Advice;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * AspectV6Advice 가 적용된 상태에서 orderItem() 을 항목마다 호출할 때와 orderItems() 로 묶어서 호출할 때의 항목 당 시간을 비교한다.
+ * 로그 출력 비용이 측정을 덮지 않도록 어드바이스와 주문 로그는 끈다. 남는 것은 프록시와 어드바이스 체인, 트랜잭션 경계 비용이다.
+ * JIT 컴파일이 끝나도록 충분히 호출한 뒤에 측정한다.
+ * 항목 당 시간 비교는 장비 부하에 흔들리므로 기본 test 태스크가 아니라 benchmark 태스크에서 돈다.
+ */
+@Slf4j
+@SpringBootTest
+@Import(AspectV6Advice.class)
+@Tag("benchmark")
+public class OrderBulkBenchmarkTest {
+
+    private static final int WARM_UP = 50_000;
+    private static final int ITEMS = 200_000;
+    private static final int[] BATCH_SIZES = {1, 10, 100, 1_000};
+
+    private final List<Logger> orderLoggers = List.of(
+            (Logger) LoggerFactory.getLogger(AspectV6Advice.class),
+            (Logger) LoggerFactory.getLogger(OrderService.class),
+            (Logger) LoggerFactory.getLogger(OrderRepository.class));
+    private final List<Level> previousLevels = new ArrayList<>();
+
+    @Autowired
+    OrderService orderService;
+
+    @BeforeEach
+    void setUp() {
+        for (Logger logger : orderLoggers) {
+            previousLevels.add(logger.getLevel());
+            logger.setLevel(Level.OFF);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (int i = 0; i < orderLoggers.size(); i++) {
+            orderLoggers.get(i).setLevel(previousLevels.get(i));
+        }
+    }
+
+    @Test
+    @DisplayName("묶어서 주문하면 항목 당 어드바이스 체인 비용이 배치 크기만큼 나뉘어 줄어든다.")
+    void perItemOverheadTest() {
+        //given
+        measureSingle(WARM_UP);
+        for (int batchSize : BATCH_SIZES) {
+            measureBulk(WARM_UP, batchSize);
+        }
+
+        //when
+        double single = measureSingle(ITEMS);
+        log.info("[benchmark] {} {}", "batch", "ns/item");
+        log.info("[benchmark] single {}", String.format("%.1f", single));
+        double largest = single;
+        for (int batchSize : BATCH_SIZES) {
+            largest = measureBulk(ITEMS, batchSize);
+            log.info("[benchmark] {} {}", batchSize, String.format("%.1f", largest));
+        }
+
+        //then
+        assertThat(largest).isLessThan(single / 5);
+    }
+
+    //ns/item
+    private double measureSingle(int items) {
+        long begin = System.nanoTime();
+        for (int i = 0; i < items; i++) {
+            orderService.orderItem("item");
+        }
+        return (double) (System.nanoTime() - begin) / items;
+    }
+
+    //ns/item
+    private double measureBulk(int items, int batchSize) {
+        List<String> batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            batch.add("item");
+        }
+        int calls = items / batchSize;
+        long succeeded = 0;
+        long begin = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            succeeded += orderService.orderItems(batch).getSucceeded();
+        }
+        double nanosPerItem = (double) (System.nanoTime() - begin) / ((long) calls * batchSize);
+        assertThat(succeeded).isEqualTo((long) calls * batchSize);
+        return nanosPerItem;
+    }
+}
@@ -0,0 +1,145 @@
+package hello.aop.order.batch;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class WriteBehindQueueTest {
+
+    @Test
+    @DisplayName("batchSize 개가 모이면 한 번에 기록하고 모든 핸들을 완료한다.")
+    void batchBySizeTest() throws Exception {
+        //given
+        List<List<String>> batches = new CopyOnWriteArrayList<>();
+        try (WriteBehindQueue<String> queue = new WriteBehindQueue<>("test", 64, 8, 10, 0, TimeUnit.SECONDS,
+                batch -> batches.add(new ArrayList<>(batch)))) {
+            //when
+            List<CompletableFuture<Void>> handles = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                handles.add(queue.enqueue("item" + i));
+            }
+            CompletableFuture.allOf(handles.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+            //then
+            assertThat(batches).hasSize(2);
+            assertThat(batches.get(0)).hasSize(8);
+            assertThat(batches.get(1)).containsExactly("item8", "item9", "item10", "item11",
+                    "item12", "item13", "item14", "item15");
+            assertThat(queue.getWritten()).isEqualTo(16L);
+        }
+    }
+
+    @Test
+    @DisplayName("batchSize 보다 적어도 maxDelay 가 지나면 기록한다.")
+    void batchByTimeTest() throws Exception {
+        //given
+        try (WriteBehindQueue<String> queue = new WriteBehindQueue<>("test", 64, 32, 20, 0, TimeUnit.MILLISECONDS,
+                batch -> {
+                })) {
+            //when
+            long start = System.nanoTime();
+            queue.enqueue("itemA").get(5, TimeUnit.SECONDS);
+            long elapsed = System.nanoTime() - start;
+
+            //then
+            assertThat(elapsed).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(15));
+            assertThat(queue.getBatches()).isEqualTo(1L);
+        }
+    }
+
+    @Test
+    @DisplayName("기록이 실패하면 배치의 모든 핸들이 그 예외로 완료된다.")
+    void writeFailureTest() throws Exception {
+        //given
+        try (WriteBehindQueue<String> queue = new WriteBehindQueue<>("test", 64, 2, 10, 0, TimeUnit.SECONDS,
+                batch -> {
+                    throw new IllegalStateException("기록 실패");
+                })) {
+            //when
+            CompletableFuture<Void> first = queue.enqueue("itemA");
+            CompletableFuture<Void> second = queue.enqueue("itemB");
+
+            //then
+            assertThatThrownBy(() -> first.get(5, TimeUnit.SECONDS))
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(IllegalStateException.class);
+            assertThatThrownBy(() -> second.get(5, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class);
+            assertThat(queue.getFailed()).isEqualTo(2L);
+        }
+    }
+
+    @Test
+    @DisplayName("큐가 가득 차면 maxWait 동안 기다리고, 그래도 자리가 없으면 WriteBehindFullException 이 발생한다.")
+    void backpressureTest() throws Exception {
+        //given
+        CountDownLatch release = new CountDownLatch(1);
+        try (WriteBehindQueue<String> queue = new WriteBehindQueue<>("test", 4, 1, 0, 20, TimeUnit.MILLISECONDS,
+                batch -> release.await())) {
+            //기록 중인 항목 1개 + 큐 4칸
+            queue.enqueue("item0");
+            while (queue.getPending() > 0) {
+                Thread.onSpinWait();
+            }
+            for (int i = 1; i <= 4; i++) {
+                queue.enqueue("item" + i);
+            }
+
+            //when
+            long start = System.nanoTime();
+            assertThatThrownBy(() -> queue.enqueue("item5")).isInstanceOf(WriteBehindFullException.class);
+            long waited = System.nanoTime() - start;
+
+            //then
+            assertThat(waited).isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(20));
+            assertThat(queue.getRejected()).isEqualTo(1L);
+            release.countDown();
+        }
+    }
+
+    @Test
+    @DisplayName("여러 스레드가 동시에 넣어도 모든 항목이 한 번씩 기록된다.")
+    void concurrentEnqueueTest() throws Exception {
+        //given
+        int threads = 8;
+        int perThread = 10_000;
+        List<String> written = new CopyOnWriteArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (WriteBehindQueue<String> queue = new WriteBehindQueue<>("test", 1024, 256, 1, 1_000, TimeUnit.MILLISECONDS,
+                written::addAll)) {
+            //when
+            List<Future<CompletableFuture<Void>>> lasts = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                lasts.add(executor.submit(() -> {
+                    CompletableFuture<Void> last = null;
+                    for (int i = 0; i < perThread; i++) {
+                        last = queue.enqueue(thread + "-" + i);
+                    }
+                    return last;
+                }));
+            }
+            for (Future<CompletableFuture<Void>> last : lasts) {
+                last.get(10, TimeUnit.SECONDS).get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        //then
+        assertThat(written).hasSize(threads * perThread);
+        assertThat(written.stream().distinct().count()).isEqualTo((long) threads * perThread);
+    }
+}
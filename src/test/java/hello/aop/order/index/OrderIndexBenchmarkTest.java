@@ -0,0 +1,109 @@
+package hello.aop.order.index;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 상품 1만 종에 대해 쓰기 스레드 1 개가 계속 주문을 기록하는 동안, 읽기 스레드들이 단건 조회와 상위 10 개 조회를 섞어서 한다.
+ * 읽기 100 번 중 1 번이 상위 N 조회다. 읽기 스레드 수를 늘리면서 읽기와 쓰기 처리량(ops/s)을 측정한다.
+ * 처리량이 읽기 스레드 수에 따라 늘어나는지는 코어 수에 달려 있으므로 기록만 하고,
+ * 읽기가 몰려도 쓰기가 멈추지 않는지만 검증한다. 측정 시간이 길어 benchmark 태스크에서만 실행한다.
+ */
+@Slf4j
+@Tag("benchmark")
+public class OrderIndexBenchmarkTest {
+
+    private static final int ITEMS = 10_000;
+    private static final int[] READERS = {1, 2, 4, 8};
+    private static final long DURATION_MILLIS = 200;
+
+    @Test
+    @DisplayName("읽기 스레드 수를 늘려도 읽기와 쓰기가 모두 진행되고, 스레드 수별 처리량을 기록한다.")
+    void readHeavyTest() throws Exception {
+        //given
+        String[] names = new String[ITEMS];
+        for (int i = 0; i < ITEMS; i++) {
+            names[i] = "item-" + i;
+        }
+        measure(names, 2);
+        log.info("[benchmark] {} {} {}", "readers", "reads/s", "writes/s");
+
+        //when
+        for (int readers : READERS) {
+            double[] result = measure(names, readers);
+            log.info("[benchmark] {} {} {}", readers, Math.round(result[0]), Math.round(result[1]));
+
+            //then
+            assertThat(result[0]).isPositive();
+            assertThat(result[1]).isPositive();
+        }
+    }
+
+    /**
+     * @return {reads/s, writes/s}
+     */
+    private double[] measure(String[] names, int readers) throws Exception {
+        OrderIndex index = new OrderIndex();
+        for (String name : names) {
+            index.record(name, 0);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(readers + 1);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        try {
+            Future<Long> writer = executor.submit(() -> {
+                start.await();
+                long writes = 0;
+                while (running.get()) {
+                    index.record(names[ThreadLocalRandom.current().nextInt(names.length)], writes);
+                    writes++;
+                }
+                return writes;
+            });
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int r = 0; r < readers; r++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    long reads = 0;
+                    long sum = 0;
+                    while (running.get()) {
+                        if (reads % 100 == 0) {
+                            sum += index.top(10).size();
+                        } else {
+                            sum += index.getCount(names[ThreadLocalRandom.current().nextInt(names.length)]);
+                        }
+                        reads++;
+                    }
+                    return sum >= 0 ? reads : 0;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            TimeUnit.MILLISECONDS.sleep(DURATION_MILLIS);
+            running.set(false);
+            long reads = 0;
+            for (Future<Long> future : futures) {
+                reads += future.get();
+            }
+            long writes = writer.get();
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            return new double[]{reads / seconds, writes / seconds};
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package hello.aop.order.index;
+
+import hello.aop.order.store.SegmentOrderStore;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.lang.management.ManagementFactory;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class OrderIndexTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("상품별 주문 수와 마지막 주문 시각을 세고, 주문 수가 많은 순서로 상위 N 개를 고른다.")
+    void countAndTopTest() {
+        //given
+        OrderIndex index = new OrderIndex();
+
+        //when
+        index.record(List.of("itemA", "itemB", "itemA"), 100);
+        index.record("itemC", 200);
+        index.record("itemA", 150);
+        index.record(List.of("itemC", "itemD"), 120);
+
+        //then
+        assertThat(index.getCount("itemA")).isEqualTo(3L);
+        assertThat(index.getCount("itemC")).isEqualTo(2L);
+        assertThat(index.getCount("unknown")).isEqualTo(0L);
+        assertThat(index.getLastOrderedAt("itemA")).isEqualTo(150L);
+        assertThat(index.getLastOrderedAt("itemC")).isEqualTo(200L);
+        assertThat(index.top(3)).extracting(ItemCount::getItemName).containsExactly("itemA", "itemC", "itemB");
+        OrderIndexSnapshot snapshot = index.snapshot();
+        assertThat(snapshot.getTotal()).isEqualTo(7L);
+        assertThat(snapshot.getItems()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("스냅샷에는 record() 호출 단위로 모두 들어가거나 하나도 들어가지 않는다.")
+    void consistentSnapshotTest() throws Exception {
+        //given 쓰기는 항상 itemA, itemB 를 함께 기록한다.
+        OrderIndex index = new OrderIndex();
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Long>> writers = new ArrayList<>();
+        List<Future<Long>> readers = new ArrayList<>();
+
+        //when
+        for (int t = 0; t < 4; t++) {
+            writers.add(executor.submit(() -> {
+                long writes = 0;
+                List<String> pair = List.of("itemA", "itemB");
+                while (running.get()) {
+                    index.record(pair, System.currentTimeMillis());
+                    writes++;
+                }
+                return writes;
+            }));
+            readers.add(executor.submit(() -> {
+                long inconsistent = 0;
+                while (running.get()) {
+                    OrderIndexSnapshot snapshot = index.snapshot();
+                    if (snapshot.getCount("itemA") != snapshot.getCount("itemB")) {
+                        inconsistent++;
+                    }
+                }
+                return inconsistent;
+            }));
+        }
+        TimeUnit.MILLISECONDS.sleep(300);
+        running.set(false);
+        long writes = 0;
+        for (Future<Long> writer : writers) {
+            writes += writer.get();
+        }
+        long inconsistent = 0;
+        for (Future<Long> reader : readers) {
+            inconsistent += reader.get();
+        }
+        executor.shutdown();
+
+        //then
+        assertThat(inconsistent).isEqualTo(0L);
+        assertThat(index.getCount("itemA")).isEqualTo(writes);
+        assertThat(index.snapshot().getTotal()).isEqualTo(writes * 2);
+    }
+
+    @Test
+    @DisplayName("이미 등록된 상품의 기록과 단건 조회는 한 바이트도 할당하지 않는다.")
+    void zeroAllocationTest() {
+        //given
+        OrderIndex index = new OrderIndex();
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long sum = 0;
+        for (int i = 0; i < 200_000; i++) {
+            index.record("itemA", i);
+            sum += index.getCount("itemA") + index.getLastOrderedAt("itemA");
+        }
+
+        //when
+        long before = threads.getThreadAllocatedBytes(threadId);
+        for (int i = 0; i < 1_000_000; i++) {
+            index.record("itemA", i);
+            sum += index.getCount("itemA") + index.getLastOrderedAt("itemA");
+        }
+        long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+        //then
+        assertThat(sum).isPositive();
+        assertThat((double) allocated / 1_000_000).isLessThan(0.01);
+    }
+
+    @Test
+    @DisplayName("SegmentOrderStore 를 다시 열면서 인덱스를 복구한다.")
+    void recoverTest() throws Exception {
+        //given
+        try (SegmentOrderStore store = SegmentOrderStore.open(dir, 1024 * 1024, (sequence, timestamp, itemName) -> {
+        })) {
+            store.append(List.of("itemA", "itemB"), 1_000L);
+            store.append(List.of("itemA"), 2_000L);
+        }
+
+        //when
+        OrderIndex index = new OrderIndex();
+        try (SegmentOrderStore store = SegmentOrderStore.open(dir, 1024 * 1024,
+                (sequence, timestamp, itemName) -> index.record(itemName, timestamp))) {
+            //then
+            assertThat(index.getCount("itemA")).isEqualTo(2L);
+            assertThat(index.getCount("itemB")).isEqualTo(1L);
+            assertThat(index.getLastOrderedAt("itemA")).isEqualTo(2_000L);
+            assertThat(index.getLastOrderedAt("itemB")).isEqualTo(1_000L);
+        }
+    }
+}
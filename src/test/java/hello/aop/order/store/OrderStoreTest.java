@@ -0,0 +1,102 @@
+package hello.aop.order.store;
+
+import hello.aop.order.OrderRepository;
+import hello.aop.order.tx.Transaction;
+import hello.aop.order.tx.TransactionManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Import(OrderStoreTest.Config.class)
+public class OrderStoreTest {
+
+    private static final Path STORE_DIR = createTempDir();
+
+    @Autowired
+    OrderRepository orderRepository;
+
+    @Autowired
+    SegmentOrderStore store;
+
+    @Test
+    @DisplayName("저장한 주문은 세그먼트 로그에 남고, 다시 열면 순서대로 복구된다.")
+    void saveAndRecoverTest() throws Exception {
+        //given
+        long before = store.getLog().getNextSequence();
+
+        //when
+        orderRepository.save("itemA");
+        orderRepository.saveAll(List.of("itemB", "ex", "itemC"));
+        assertThatThrownBy(() -> orderRepository.save("ex"))
+                .isInstanceOf(IllegalStateException.class);
+        orderRepository.saveAsync("itemD").get(5, TimeUnit.SECONDS);
+        store.force();
+
+        //then
+        assertThat(store.getLog().getNextSequence()).isEqualTo(before + 4);
+        List<String> recovered = new ArrayList<>();
+        Path copy = Files.createTempDirectory("order-store-copy");
+        try (var files = Files.list(STORE_DIR)) {
+            for (Path file : files.toList()) {
+                Files.copy(file, copy.resolve(file.getFileName()));
+            }
+        }
+        try (SegmentOrderStore reopened = SegmentOrderStore.open(copy, SegmentLog.DEFAULT_SEGMENT_BYTES,
+                (sequence, timestamp, itemName) -> recovered.add(itemName))) {
+            assertThat(reopened.getLog().getRecovered()).isEqualTo(before + 4);
+        }
+        assertThat(recovered.subList(recovered.size() - 4, recovered.size()))
+                .containsExactly("itemA", "itemB", "itemC", "itemD");
+    }
+
+    @Test
+    @DisplayName("트랜잭션 안에서 저장한 주문은 커밋된 뒤에만 남는다.")
+    void transactionTest() {
+        //given
+        long before = store.getLog().getNextSequence();
+
+        //when
+        try (Transaction transaction = TransactionManager.noop().begin()) {
+            orderRepository.save("itemA");
+            assertThat(store.getLog().getNextSequence()).isEqualTo(before);
+            transaction.rollback();
+        }
+        try (Transaction transaction = TransactionManager.noop().begin()) {
+            orderRepository.save("itemB");
+            transaction.commit();
+        }
+
+        //then
+        assertThat(store.getLog().getNextSequence()).isEqualTo(before + 1);
+    }
+
+    private static Path createTempDir() {
+        try {
+            return Files.createTempDirectory("order-store");
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static class Config {
+        @Bean
+        public SegmentOrderStore segmentOrderStore() throws IOException {
+            return SegmentOrderStore.open(STORE_DIR, 1024 * 1024, (sequence, timestamp, itemName) -> {
+            });
+        }
+    }
+}
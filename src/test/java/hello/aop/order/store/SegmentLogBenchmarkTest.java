@@ -0,0 +1,93 @@
+package hello.aop.order.store;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 128 바이트 레코드(헤더 8 + payload 120)로 수 GB 의 로그를 만들면서 덧붙이기 처리량을 재고,
+ * 다시 열어서 전체 레코드를 CRC 확인과 함께 복구하는 시간을 잰다.
+ * 로그 크기는 -Dsegmentlog.benchmark.bytes 로 바꿀 수 있다. (기본 2GB, 디스크에 그만큼 자리가 있어야 한다)
+ * 복구 시간은 방금 기록한 세그먼트가 페이지 캐시에 남아 있는 상태의 시간이다.
+ * 실행할 때마다 수 GB 를 쓰므로 benchmark 태그를 달아 benchmark 태스크에서만 실행한다.
+ */
+@Slf4j
+@Tag("benchmark")
+public class SegmentLogBenchmarkTest {
+
+    private static final long LOG_BYTES = Long.getLong("segmentlog.benchmark.bytes", 2L * 1024 * 1024 * 1024);
+    private static final int PAYLOAD_BYTES = 120;
+    private static final int THREADS = 4;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("수 GB 의 로그를 덧붙이고, 다시 열어서 모든 레코드를 복구한다.")
+    void appendAndRecoverTest() throws Exception {
+        //given
+        long records = LOG_BYTES / (SegmentLog.HEADER_BYTES + PAYLOAD_BYTES);
+        long perThread = records / THREADS;
+
+        //when
+        long appended;
+        long appendNanos;
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try (SegmentLog segmentLog = SegmentLog.open(dir.resolve("orders"), SegmentLog.DEFAULT_SEGMENT_BYTES,
+                (sequence, payload) -> {
+                })) {
+            long begin = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    ByteBuffer payload = ByteBuffer.allocate(PAYLOAD_BYTES);
+                    for (long i = 0; i < perThread; i++) {
+                        payload.putLong(0, i);
+                        segmentLog.append(payload);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            segmentLog.force();
+            appendNanos = System.nanoTime() - begin;
+            appended = segmentLog.getNextSequence();
+        } finally {
+            executor.shutdown();
+        }
+        LongAdder recovered = new LongAdder();
+        long recoveryNanos;
+        int segments;
+        try (SegmentLog segmentLog = SegmentLog.open(dir.resolve("orders"), SegmentLog.DEFAULT_SEGMENT_BYTES,
+                (sequence, payload) -> recovered.increment())) {
+            recoveryNanos = segmentLog.getRecoveryNanos();
+            segments = segmentLog.getSegments();
+        }
+
+        //then
+        double megabytes = (double) appended * (SegmentLog.HEADER_BYTES + PAYLOAD_BYTES) / (1024 * 1024);
+        log.info("[benchmark] append records={} size={}MB segments={} threads={} elapsed={}ms records/s={} MB/s={}",
+                appended, Math.round(megabytes), segments, THREADS, appendNanos / 1_000_000,
+                Math.round(appended / (appendNanos / 1e9)), Math.round(megabytes / (appendNanos / 1e9)));
+        log.info("[benchmark] recover records={} elapsed={}ms records/s={} MB/s={}",
+                recovered.sum(), recoveryNanos / 1_000_000,
+                Math.round(recovered.sum() / (recoveryNanos / 1e9)), Math.round(megabytes / (recoveryNanos / 1e9)));
+        assertThat(appended).isEqualTo(perThread * THREADS);
+        assertThat(recovered.sum()).isEqualTo(appended);
+    }
+}
@@ -0,0 +1,154 @@
+package hello.aop.order.store;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SegmentLogTest {
+
+    private static final int SEGMENT_BYTES = 1024;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("세그먼트가 가득 차면 다음 세그먼트로 넘어가고, 다시 열면 모든 레코드를 순서대로 복구한다.")
+    void rollAndRecoverTest() throws Exception {
+        //given
+        try (SegmentLog log = SegmentLog.open(dir, SEGMENT_BYTES, (sequence, payload) -> {
+        })) {
+            for (int i = 0; i < 200; i++) {
+                assertThat(log.append(encode("order-" + i))).isEqualTo((long) i);
+            }
+            assertThat(log.getRolls()).isGreaterThan(0L);
+        }
+
+        //when
+        List<String> records = new ArrayList<>();
+        try (SegmentLog log = SegmentLog.open(dir, SEGMENT_BYTES,
+                (sequence, payload) -> records.add(sequence + ":" + decode(payload)))) {
+            //then
+            assertThat(log.getRecovered()).isEqualTo(200L);
+            assertThat(log.getNextSequence()).isEqualTo(200L);
+            assertThat(log.append(encode("order-200"))).isEqualTo(200L);
+        }
+        assertThat(records).hasSize(200);
+        assertThat(records.get(0)).isEqualTo("0:order-0");
+        assertThat(records.get(199)).isEqualTo("199:order-199");
+        assertThat(segmentFiles()).hasSizeGreaterThan(1);
+    }
+
+    @Test
+    @DisplayName("CRC 가 맞지 않는 레코드부터 뒤는 모두 버리고, 그 자리부터 이어서 기록한다.")
+    void corruptedRecordTest() throws Exception {
+        //given
+        try (SegmentLog log = SegmentLog.open(dir, SEGMENT_BYTES, (sequence, payload) -> {
+        })) {
+            for (int i = 0; i < 200; i++) {
+                log.append(encode("order-" + i));
+            }
+        }
+        List<Path> files = segmentFiles();
+        try (FileChannel channel = FileChannel.open(files.get(1), StandardOpenOption.WRITE)) {
+            //두 번째 세그먼트의 세 번째 레코드 payload
+            channel.write(ByteBuffer.wrap(new byte[]{'X'}), 2 * (SegmentLog.HEADER_BYTES + "order-00".length())
+                    + SegmentLog.HEADER_BYTES);
+        }
+
+        //when
+        long next;
+        try (SegmentLog log = SegmentLog.open(dir, SEGMENT_BYTES, (sequence, payload) -> {
+        })) {
+            next = log.getNextSequence();
+            log.append(encode("after"));
+        }
+
+        //then
+        List<String> records = new ArrayList<>();
+        try (SegmentLog log = SegmentLog.open(dir, SEGMENT_BYTES,
+                (sequence, payload) -> records.add(decode(payload)))) {
+            assertThat(log.getRecovered()).isEqualTo(next + 1);
+        }
+        assertThat(segmentFiles()).hasSize(2);
+        assertThat(records.get(records.size() - 1)).isEqualTo("after");
+        assertThat(records).doesNotContain("order-199");
+    }
+
+    @Test
+    @DisplayName("마지막 레코드 뒤에 남은 옛 레코드는 복구하지 않고 지운다.")
+    void staleTailTest() throws Exception {
+        //given 끝 표시(길이 0) 뒤에 온전한 레코드가 남아 있는 세그먼트
+        try (SegmentLog log = SegmentLog.open(dir, SEGMENT_BYTES, (sequence, payload) -> {
+        })) {
+            log.append(encode("itemA"));
+            log.append(encode("itemB"));
+        }
+        Path file = segmentFiles().get(0);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4), 0);
+        }
+
+        //when
+        try (SegmentLog log = SegmentLog.open(dir, SEGMENT_BYTES, (sequence, payload) -> {
+        })) {
+            assertThat(log.getRecovered()).isEqualTo(0L);
+            log.append(encode("itemA"));
+        }
+
+        //then
+        List<String> records = new ArrayList<>();
+        try (SegmentLog log = SegmentLog.open(dir, SEGMENT_BYTES,
+                (sequence, payload) -> records.add(decode(payload)))) {
+            assertThat(records).containsExactly("itemA");
+        }
+    }
+
+    @Test
+    @DisplayName("세그먼트에 들어가지 않는 레코드와 닫힌 로그에 대한 기록은 거절하고, 일괄 기록은 하나라도 거절되면 아무것도 쓰지 않는다.")
+    void rejectTest() throws Exception {
+        //given
+        SegmentLog log = SegmentLog.open(dir, SEGMENT_BYTES, (sequence, payload) -> {
+        });
+
+        //then
+        assertThatThrownBy(() -> log.append(ByteBuffer.allocate(SEGMENT_BYTES)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> log.append(ByteBuffer.allocate(0)))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> log.appendAll(List.of(encode("itemA"), ByteBuffer.allocate(SEGMENT_BYTES))))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(log.getNextSequence()).isZero();
+        log.close();
+        assertThatThrownBy(() -> log.append(encode("itemA")))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    private List<Path> segmentFiles() throws Exception {
+        try (Stream<Path> stream = Files.list(dir)) {
+            return stream.sorted().toList();
+        }
+    }
+
+    private static ByteBuffer encode(String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decode(ByteBuffer payload) {
+        byte[] bytes = new byte[payload.remaining()];
+        payload.duplicate().get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
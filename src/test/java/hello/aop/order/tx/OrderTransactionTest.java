@@ -0,0 +1,82 @@
+package hello.aop.order.tx;
+
+import hello.aop.order.OrderService;
+import hello.aop.order.aop.AspectV5OrderTx;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Import({AspectV5OrderTx.class, OrderTransactionTest.Config.class})
+public class OrderTransactionTest {
+
+    private static final Path WAL_FILE = createTempFile();
+
+    @Autowired
+    OrderService orderService;
+
+    @Test
+    @DisplayName("커밋된 주문만 WAL 에 남고, 예외로 롤백된 주문은 남지 않는다.")
+    void commitAndRollbackTest() throws Exception {
+        //given
+        int before = WriteAheadLog.replay(WAL_FILE).size();
+
+        //when
+        orderService.orderItem("itemA");
+        assertThatThrownBy(() -> orderService.orderItem("ex"))
+                .isInstanceOf(IllegalStateException.class);
+
+        //then
+        List<WalRecord> records = WriteAheadLog.replay(WAL_FILE);
+        assertThat(records).hasSize(before + 1);
+        assertThat(records.get(records.size() - 1).getWrites().get(0)).containsExactly("order", "itemA");
+        assertThat(Transactions.current()).isNull();
+    }
+
+    @Test
+    @DisplayName("여러 항목을 한 번에 주문하면 성공한 항목만 하나의 트랜잭션으로 WAL 에 남는다.")
+    void bulkCommitTest() throws Exception {
+        //given
+        int before = WriteAheadLog.replay(WAL_FILE).size();
+
+        //when
+        orderService.orderItems(List.of("itemA", "ex", "itemB"));
+
+        //then
+        List<WalRecord> records = WriteAheadLog.replay(WAL_FILE);
+        assertThat(records).hasSize(before + 1);
+        List<String[]> writes = records.get(records.size() - 1).getWrites();
+        assertThat(writes).hasSize(2);
+        assertThat(writes.get(0)).containsExactly("order", "itemA");
+        assertThat(writes.get(1)).containsExactly("order", "itemB");
+    }
+
+    private static Path createTempFile() {
+        try {
+            Path file = Files.createTempFile("order", ".wal");
+            file.toFile().deleteOnExit();
+            return file;
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static class Config {
+        @Bean
+        public WalTransactionManager walTransactionManager() throws IOException {
+            return new WalTransactionManager(WriteAheadLog.groupCommit(WAL_FILE, 100, TimeUnit.MICROSECONDS));
+        }
+    }
+}
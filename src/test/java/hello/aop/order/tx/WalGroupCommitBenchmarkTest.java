@@ -0,0 +1,97 @@
+package hello.aop.order.tx;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 스레드 1 ~ 64 개가 정해진 시간 동안 쓰기 한 건짜리 트랜잭션을 커밋하면서 처리량(commits/s)과 커밋 당 fsync 수를 측정한다.
+ * 호출마다 fsync 하는 로그를 기준으로 그룹 커밋 로그와 비교한다.
+ * fsync 비용은 파일 시스템에 따라 크게 다르므로 (tmpfs 는 거의 0) 처리량 대신 fsync 수로 검증한다.
+ * 그래도 배치에 모이는 커밋 수는 디스크와 스케줄러에 따라 달라지므로 기본 test 태스크에서는 돌리지 않는다.
+ */
+@Slf4j
+@Tag("benchmark")
+public class WalGroupCommitBenchmarkTest {
+
+    private static final int[] THREADS = {1, 2, 4, 8, 16, 32, 64};
+    private static final long DURATION_MILLIS = 200;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("스레드가 많을수록 그룹 커밋은 커밋 당 fsync 수가 줄어든다.")
+    void throughputTest() throws Exception {
+        //given
+        measure(WriteAheadLog.perCall(dir.resolve("warm-up.wal")), 4);
+        log.info("[benchmark] {} {} {} {} {}", "threads", "per-call(commits/s)", "group(commits/s)",
+                "per-call(syncs/commit)", "group(syncs/commit)");
+        double[] lastGroup = null;
+        for (int threads : THREADS) {
+            //when
+            double[] perCall = measure(WriteAheadLog.perCall(dir.resolve("per-call-" + threads + ".wal")), threads);
+            double[] group = measure(WriteAheadLog.groupCommit(
+                    dir.resolve("group-" + threads + ".wal"), 100, TimeUnit.MICROSECONDS), threads);
+            log.info("[benchmark] {} {} {} {} {}", threads, Math.round(perCall[0]), Math.round(group[0]),
+                    String.format("%.3f", perCall[1]), String.format("%.3f", group[1]));
+            assertThat(perCall[1]).isEqualTo(1.0);
+            lastGroup = group;
+        }
+
+        //then
+        assertThat(lastGroup[1]).isLessThan(0.5);
+    }
+
+    /**
+     * @return {commits/s, syncs/commit}
+     */
+    private double[] measure(WriteAheadLog wal, int threads) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean running = new AtomicBoolean(true);
+        try (WalTransactionManager manager = new WalTransactionManager(wal)) {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    long commits = 0;
+                    while (running.get()) {
+                        try (Transaction transaction = manager.begin()) {
+                            transaction.write("order", "item");
+                            transaction.commit();
+                        }
+                        commits++;
+                    }
+                    return commits;
+                }));
+            }
+            long begin = System.nanoTime();
+            start.countDown();
+            TimeUnit.MILLISECONDS.sleep(DURATION_MILLIS);
+            running.set(false);
+            long commits = 0;
+            for (Future<Long> future : futures) {
+                commits += future.get();
+            }
+            double seconds = (System.nanoTime() - begin) / 1e9;
+            return new double[]{commits / seconds, (double) wal.getSyncs() / Math.max(1, commits)};
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package hello.aop.order.tx;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class WriteAheadLogTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    @DisplayName("커밋한 트랜잭션만 로그에 남고, 다시 열면 순서대로 읽을 수 있다.")
+    void commitAndReplayTest() throws Exception {
+        //given
+        Path file = dir.resolve("tx.wal");
+        try (WalTransactionManager manager = new WalTransactionManager(WriteAheadLog.perCall(file))) {
+            //when
+            try (Transaction transaction = manager.begin()) {
+                transaction.write("order", "itemA");
+                transaction.write("order", "itemB");
+                transaction.commit();
+            }
+            try (Transaction transaction = manager.begin()) {
+                transaction.write("order", "itemC");
+                transaction.rollback();
+            }
+            try (Transaction transaction = manager.begin()) {
+                assertThat(Transactions.current()).isSameAs(transaction);
+                transaction.commit();
+            }
+            assertThat(Transactions.current()).isNull();
+            assertThat(manager.getLog().getSyncs()).isEqualTo(1L);
+        }
+
+        //then
+        List<WalRecord> records = WriteAheadLog.replay(file);
+        assertThat(records).hasSize(1);
+        assertThat(records.get(0).getWrites()).hasSize(2);
+        assertThat(records.get(0).getWrites().get(1)).containsExactly("order", "itemB");
+    }
+
+    @Test
+    @DisplayName("끝부분이 잘린 레코드는 다시 열 때 잘라내고 이어서 기록한다.")
+    void truncatedTailTest() throws Exception {
+        //given
+        Path file = dir.resolve("tx.wal");
+        try (WriteAheadLog log = WriteAheadLog.perCall(file)) {
+            log.append(1, List.<String[]>of(new String[]{"order", "itemA"}));
+            log.append(2, List.<String[]>of(new String[]{"order", "itemB"}));
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        //when
+        try (WriteAheadLog log = WriteAheadLog.perCall(file)) {
+            log.append(3, List.<String[]>of(new String[]{"order", "itemC"}));
+        }
+
+        //then
+        List<WalRecord> records = WriteAheadLog.replay(file);
+        assertThat(records).extracting(WalRecord::getTransactionId).containsExactly(1L, 3L);
+    }
+
+    @Test
+    @DisplayName("파일만 늘어나고 0 으로 남은 끝부분은 다시 열 때 잘라내고 이어서 기록한다.")
+    void zeroFilledTailTest() throws Exception {
+        //given
+        Path file = dir.resolve("tx.wal");
+        try (WriteAheadLog log = WriteAheadLog.perCall(file)) {
+            log.append(1, List.<String[]>of(new String[]{"order", "itemA"}));
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(64), channel.size());
+        }
+
+        //when
+        try (WriteAheadLog log = WriteAheadLog.perCall(file)) {
+            log.append(2, List.<String[]>of(new String[]{"order", "itemB"}));
+        }
+
+        //then
+        List<WalRecord> records = WriteAheadLog.replay(file);
+        assertThat(records).extracting(WalRecord::getTransactionId).containsExactly(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("로그를 다시 열면 트랜잭션 id 는 로그에 있는 가장 큰 id 다음부터 매긴다.")
+    void resumeTransactionIdTest() throws Exception {
+        //given
+        Path file = dir.resolve("tx.wal");
+        try (WriteAheadLog log = WriteAheadLog.perCall(file)) {
+            log.append(7, List.<String[]>of(new String[]{"order", "itemA"}));
+            log.append(5, List.<String[]>of(new String[]{"order", "itemB"}));
+        }
+
+        //when
+        try (WalTransactionManager manager = new WalTransactionManager(WriteAheadLog.perCall(file))) {
+            try (Transaction transaction = manager.begin()) {
+                transaction.write("order", "itemC");
+                transaction.commit();
+            }
+            assertThat(manager.getLog().getLastTransactionId()).isEqualTo(7L);
+        }
+
+        //then
+        List<WalRecord> records = WriteAheadLog.replay(file);
+        assertThat(records).extracting(WalRecord::getTransactionId).containsExactly(7L, 5L, 8L);
+    }
+
+    @Test
+    @DisplayName("동시에 커밋한 트랜잭션들은 fsync 를 나눠 쓰고, 모든 커밋이 로그에 남는다.")
+    void groupCommitTest() throws Exception {
+        //given
+        Path file = dir.resolve("tx.wal");
+        int threads = 16;
+        int perThread = 50;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try (WalTransactionManager manager =
+                     new WalTransactionManager(WriteAheadLog.groupCommit(file, 200, TimeUnit.MICROSECONDS))) {
+            //when
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        try (Transaction transaction = manager.begin()) {
+                            transaction.write("order", thread + "-" + i);
+                            transaction.commit();
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            executor.shutdown();
+
+            //then
+            assertThat(manager.getLog().getCommits()).isEqualTo((long) threads * perThread);
+            assertThat(manager.getLog().getSyncs()).isLessThan((long) threads * perThread);
+        }
+        Set<String> items = ConcurrentHashMap.newKeySet();
+        for (WalRecord record : WriteAheadLog.replay(file)) {
+            items.add(record.getWrites().get(0)[1]);
+        }
+        assertThat(items).hasSize(threads * perThread);
+    }
+}